@@ -3,12 +3,18 @@ package org.springframework.aop;
 import org.aopalliance.intercept.MethodInterceptor;
 import org.springframework.aop.framework.AdvisorChainFactory;
 import org.springframework.aop.framework.DefaultAdvisorChainFactory;
+import org.springframework.aop.framework.FusedInterceptorChain;
+import org.springframework.aop.framework.FusedInterceptorChainGenerator;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author zqc
@@ -25,7 +31,18 @@ public class AdvisedSupport {
 	private MethodMatcher methodMatcher;
 
 	//方法拦截器链缓存，最开始为空，完成一个方法的拦截器链查找之后，就放入这里，避免第二次查询还要遍历查找
-	private transient Map<Integer, List<Object>> methodCache;
+	//以Method本身作为key，重载方法的hashCode相同，不能只用hashCode区分
+	//启停Advisor时整体替换为新的缓存，正在执行的调用仍然使用它已经拿到的拦截器链
+	private transient volatile Map<Method, List<Object>> methodCache;
+
+	//方法被调用多少次之后为其生成融合拦截器链，0表示不启用
+	private int fusedChainThreshold = 0;
+
+	//融合拦截器链缓存，记录每个方法的调用次数以及生成的融合拦截器链
+	private transient volatile Map<Method, FusedChainState> fusedChainCache;
+
+	//被停用的Advisor，写时复制，构建拦截器链时跳过
+	private volatile Set<Advisor> disabledAdvisors = Collections.emptySet();
 
 	AdvisorChainFactory advisorChainFactory = new DefaultAdvisorChainFactory();
 
@@ -34,7 +51,9 @@ public class AdvisedSupport {
 
 	public AdvisedSupport() {
 		this.methodCache = new ConcurrentHashMap<>(32);
+		this.fusedChainCache = new ConcurrentHashMap<>(32);
 	}
+
 	public boolean isProxyTargetClass() {
 		return proxyTargetClass;
 	}
@@ -51,6 +70,33 @@ public class AdvisedSupport {
 		return advisors;
 	}
 
+	/**
+	 * 启用或停用Advisor，停用的Advisor不会出现在之后构建的拦截器链中
+	 * 所有方法的拦截器链缓存会整体替换，已经在执行的调用不受影响
+	 *
+	 * @param advisor
+	 * @param enabled
+	 */
+	public synchronized void setAdvisorEnabled(Advisor advisor, boolean enabled) {
+		if (isAdvisorEnabled(advisor) == enabled) {
+			return;
+		}
+		Set<Advisor> disabled = new HashSet<>(this.disabledAdvisors);
+		if (enabled) {
+			disabled.remove(advisor);
+		} else {
+			disabled.add(advisor);
+		}
+		//先替换停用集合再替换缓存，读到新缓存的线程一定能看到新的停用集合
+		this.disabledAdvisors = Collections.unmodifiableSet(disabled);
+		this.methodCache = new ConcurrentHashMap<>(32);
+		this.fusedChainCache = new ConcurrentHashMap<>(32);
+	}
+
+	public boolean isAdvisorEnabled(Advisor advisor) {
+		return !this.disabledAdvisors.contains(advisor);
+	}
+
 	public TargetSource getTargetSource() {
 		return targetSource;
 	}
@@ -60,6 +106,14 @@ public class AdvisedSupport {
 	}
 
 
+	public int getFusedChainThreshold() {
+		return fusedChainThreshold;
+	}
+
+	public void setFusedChainThreshold(int fusedChainThreshold) {
+		this.fusedChainThreshold = fusedChainThreshold;
+	}
+
 	public MethodMatcher getMethodMatcher() {
 		return methodMatcher;
 	}
@@ -72,15 +126,80 @@ public class AdvisedSupport {
 	 * 用来返回方法的拦截器链，注意这时获得的拦截器链顺序可能是乱的
 	 */
 	public List<Object> getInterceptorsAndDynamicInterceptionAdvice(Method method, Class<?> targetClass) {
-		Integer cacheKey = method.hashCode();
 		//methodCache是方法拦截器链的缓存
-		List<Object> cached = this.methodCache.get(cacheKey);
+		Map<Method, List<Object>> cache = this.methodCache;
+		List<Object> cached = cache.get(method);
 		//如果没有缓存，则要去查找一边方法拦截器链然后放入缓存中
 		if (cached == null) {
 			cached = this.advisorChainFactory.getInterceptorsAndDynamicInterceptionAdvice(
 					this, method, targetClass);
-			this.methodCache.put(cacheKey, cached);
+			cache.put(method, cached);
 		}
 		return cached;
 	}
+
+	/**
+	 * 返回方法的融合拦截器链，未启用、调用次数未达到阈值或者拦截器链无法融合时返回null，此时按普通拦截器链执行
+	 *
+	 * @param method 被代理的方法
+	 * @param chain  getInterceptorsAndDynamicInterceptionAdvice返回的拦截器链
+	 */
+	public FusedInterceptorChain getFusedInterceptorChain(Method method, List<Object> chain) {
+		if (this.fusedChainThreshold <= 0 || chain == null || chain.isEmpty()) {
+			return null;
+		}
+		Map<Method, FusedChainState> cache = this.fusedChainCache;
+		FusedChainState state = cache.get(method);
+		if (state == null) {
+			state = cache.computeIfAbsent(method, key -> new FusedChainState(chain));
+		}
+		if (state.chain != chain) {
+			//启停Advisor前后拿到的拦截器链不同，只为当前缓存中的拦截器链生成融合类
+			if (cache.get(method) != state || this.methodCache.get(method) != chain) {
+				return null;
+			}
+			FusedChainState newState = new FusedChainState(chain);
+			state = cache.replace(method, state, newState) ? newState : cache.get(method);
+			if (state == null || state.chain != chain) {
+				return null;
+			}
+		}
+		return state.get(method, this.fusedChainThreshold);
+	}
+
+	private static class FusedChainState {
+
+		private final List<Object> chain;
+
+		private final AtomicInteger invocationCount = new AtomicInteger();
+
+		private volatile FusedInterceptorChain fusedChain;
+
+		//拦截器链中包含无法融合的拦截器，不再尝试生成
+		private volatile boolean unsupported;
+
+		private FusedChainState(List<Object> chain) {
+			this.chain = chain;
+		}
+
+		private FusedInterceptorChain get(Method method, int threshold) {
+			FusedInterceptorChain fused = this.fusedChain;
+			if (fused != null || this.unsupported) {
+				return fused;
+			}
+			if (this.invocationCount.incrementAndGet() < threshold) {
+				return null;
+			}
+			synchronized (this) {
+				if (this.fusedChain == null && !this.unsupported) {
+					fused = FusedInterceptorChainGenerator.generate(method, this.chain);
+					if (fused == null) {
+						this.unsupported = true;
+					}
+					this.fusedChain = fused;
+				}
+				return this.fusedChain;
+			}
+		}
+	}
 }
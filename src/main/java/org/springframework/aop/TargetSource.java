@@ -1,7 +1,12 @@
 package org.springframework.aop;
 
+import java.util.Objects;
+
 /**
  * 被代理的目标对象
+ * <p>
+ * 默认实现持有一个固定的目标对象。子类可以在每次方法调用时提供不同的目标对象（例如从对象池中借出），
+ * 此时isStatic返回false，代理对象会在调用结束后通过releaseTarget归还目标对象
  *
  * @author derekyi
  * @date 2020/12/6
@@ -14,12 +19,59 @@ public class TargetSource {
 		this.target = target;
 	}
 
+	/**
+	 * 供动态提供目标对象的子类使用
+	 */
+	protected TargetSource() {
+		this.target = null;
+	}
+
+	/**
+	 * 目标对象的类型，创建代理时使用，不会触发获取目标对象
+	 */
+	public Class<?> getTargetType() {
+		return this.target.getClass();
+	}
+
 	public Class<?>[] getTargetClass() {
-		return this.target.getClass().getInterfaces();
+		return getTargetType().getInterfaces();
 	}
 
 	public Object getTarget() {
 		return this.target;
 	}
 
+	/**
+	 * 方法调用结束后归还getTarget返回的目标对象
+	 *
+	 * @param target
+	 */
+	public void releaseTarget(Object target) {
+	}
+
+	/**
+	 * 每次getTarget是否返回同一个对象，返回true时代理对象不需要调用releaseTarget
+	 */
+	public boolean isStatic() {
+		return true;
+	}
+
+	/**
+	 * 代理对象的equals和hashCode依赖目标对象的相等性
+	 */
+	@Override
+	public boolean equals(Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (other == null || getClass() != other.getClass()) {
+			return false;
+		}
+		return Objects.equals(this.target, ((TargetSource) other).target);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hashCode(this.target);
+	}
 }
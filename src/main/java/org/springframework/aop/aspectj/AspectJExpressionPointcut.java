@@ -9,7 +9,9 @@ import org.springframework.aop.Pointcut;
 
 import java.lang.reflect.Method;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author derekyi
@@ -23,26 +25,76 @@ public class AspectJExpressionPointcut implements Pointcut, ClassFilter, MethodM
 		SUPPORTED_PRIMITIVES.add(PointcutPrimitive.EXECUTION);
 	}
 
+	//所有切点共享同一个解析器，PointcutParser本身不保证线程安全，解析时需要加锁
+	private static final PointcutParser POINTCUT_PARSER = PointcutParser.getPointcutParserSupportingSpecifiedPrimitivesAndUsingSpecifiedClassLoaderForResolution(
+			SUPPORTED_PRIMITIVES, AspectJExpressionPointcut.class.getClassLoader());
+
+	/*
+		表达式缓存，相同的切点表达式字符串只解析一次，解析结果由多个切点共享。
+		PointcutExpression匹配时会读写解析器内部的类型缓存，AspectJ没有承诺它可以被多个线程同时使用，
+		所以匹配统一在该表达式对象上加锁。匹配结果在每个切点中缓存，加锁只发生在第一次匹配某个类/方法时
+	 */
+	private static final Map<String, PointcutExpression> EXPRESSION_CACHE = new ConcurrentHashMap<>(64);
+
+	private final String expression;
+
 	//解析后的切点表达式
 	private final PointcutExpression pointcutExpression;
 
+	//类匹配结果缓存
+	private final Map<Class<?>, Boolean> classMatchCache = new ConcurrentHashMap<>(32);
+
+	//方法匹配结果缓存，避免每次构建拦截器链都重新执行matchesMethodExecution
+	private final Map<Method, Boolean> methodMatchCache = new ConcurrentHashMap<>(32);
+
 	public AspectJExpressionPointcut(String expression) {
 		//这里基本都是调用的第三方库，不用管，只需要知道pointcutExpression这东西能匹配类/方法就可以
 		//如果pointcutExpression和方法匹配，该方法就包含在切点表达式里面，不匹配就不包含
-		PointcutParser pointcutParser = PointcutParser.getPointcutParserSupportingSpecifiedPrimitivesAndUsingSpecifiedClassLoaderForResolution(SUPPORTED_PRIMITIVES, this.getClass().getClassLoader());
-		pointcutExpression = pointcutParser.parsePointcutExpression(expression);
+		this.expression = expression;
+		this.pointcutExpression = EXPRESSION_CACHE.computeIfAbsent(expression, AspectJExpressionPointcut::parseExpression);
+	}
+
+	private static PointcutExpression parseExpression(String expression) {
+		synchronized (POINTCUT_PARSER) {
+			return POINTCUT_PARSER.parsePointcutExpression(expression);
+		}
 	}
 
 	@Override
 	public boolean matches(Class<?> clazz) {
 		//判断切点表达式pointcutExpression是否包含类
-		return pointcutExpression.couldMatchJoinPointsInType(clazz);
+		Boolean match = classMatchCache.get(clazz);
+		if (match == null) {
+			synchronized (pointcutExpression) {
+				match = pointcutExpression.couldMatchJoinPointsInType(clazz);
+			}
+			classMatchCache.put(clazz, match);
+		}
+		return match;
 	}
 
 	@Override
 	public boolean matches(Method method, Class<?> targetClass) {
 		//判断切点表达式pointcutExpression是否包含targetClass类下面的方法method
-		return pointcutExpression.matchesMethodExecution(method).alwaysMatches();
+		Boolean match = methodMatchCache.get(method);
+		if (match == null) {
+			synchronized (pointcutExpression) {
+				match = pointcutExpression.matchesMethodExecution(method).alwaysMatches();
+			}
+			methodMatchCache.put(method, match);
+		}
+		return match;
+	}
+
+	public String getExpression() {
+		return expression;
+	}
+
+	/**
+	 * 解析后的切点表达式，相同表达式字符串的切点返回同一个实例
+	 */
+	public PointcutExpression getPointcutExpression() {
+		return pointcutExpression;
 	}
 
 	@Override
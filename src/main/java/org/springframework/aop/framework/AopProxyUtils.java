@@ -0,0 +1,149 @@
+package org.springframework.aop.framework;
+
+import net.sf.cglib.proxy.Callback;
+import net.sf.cglib.proxy.Factory;
+
+import org.springframework.aop.AdvisedSupport;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.PointcutAdvisor;
+import org.springframework.aop.TargetSource;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * 代理对象的工具方法
+ * <p>
+ * equals/hashCode/toString在创建代理时就确定是否走专用路径：只要没有Advisor明确匹配这几个方法，
+ * 调用时就不查找拦截器链，也不经过Method#invoke
+ * <p>
+ * 代理对象之间的相等性由目标对象和代理配置决定：目标对象相等、Advisor列表相等、代理方式相同，则两个代理相等
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public abstract class AopProxyUtils {
+
+	private AopProxyUtils() {
+	}
+
+	public static boolean isEqualsMethod(Method method) {
+		if (method == null || !"equals".equals(method.getName())) {
+			return false;
+		}
+		Class<?>[] parameterTypes = method.getParameterTypes();
+		return parameterTypes.length == 1 && parameterTypes[0] == Object.class;
+	}
+
+	public static boolean isHashCodeMethod(Method method) {
+		return method != null && "hashCode".equals(method.getName()) && method.getParameterCount() == 0;
+	}
+
+	public static boolean isToStringMethod(Method method) {
+		return method != null && "toString".equals(method.getName()) && method.getParameterCount() == 0;
+	}
+
+	/**
+	 * 判断是否有Advisor明确匹配targetClass的某个方法，匹配时该方法仍然走拦截器链
+	 *
+	 * @param advised     代理配置
+	 * @param targetClass 目标类
+	 * @param methodName  方法名
+	 * @param paramTypes  参数类型
+	 * @return
+	 */
+	public static boolean isAdvised(AdvisedSupport advised, Class<?> targetClass, String methodName, Class<?>... paramTypes) {
+		Method method;
+		try {
+			method = targetClass.getMethod(methodName, paramTypes);
+		} catch (NoSuchMethodException ex) {
+			return false;
+		}
+		for (Advisor advisor : advised.getAdvisors()) {
+			if (advisor instanceof PointcutAdvisor) {
+				PointcutAdvisor pointcutAdvisor = (PointcutAdvisor) advisor;
+				if (pointcutAdvisor.getPointcut().getClassFilter().matches(targetClass)
+						&& pointcutAdvisor.getPointcut().getMethodMatcher().matches(method, targetClass)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 返回代理对象的代理配置，不是本框架创建的代理时返回null
+	 *
+	 * @param proxy 代理对象
+	 * @return
+	 */
+	public static AdvisedSupport getAdvised(Object proxy) {
+		if (proxy == null) {
+			return null;
+		}
+		if (Proxy.isProxyClass(proxy.getClass())) {
+			InvocationHandler handler = Proxy.getInvocationHandler(proxy);
+			if (handler instanceof JdkDynamicAopProxy) {
+				return ((JdkDynamicAopProxy) handler).getAdvised();
+			}
+			return null;
+		}
+		if (proxy instanceof Factory) {
+			for (Callback callback : ((Factory) proxy).getCallbacks()) {
+				if (callback instanceof CglibAopProxy.AdvisedCallback) {
+					return CglibAopProxy.AdvisedCallback.class.cast(callback).getAdvised();
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 代理对象的equals实现
+	 *
+	 * @param advised 当前代理的配置
+	 * @param other   参与比较的对象
+	 * @return
+	 */
+	public static boolean equalsInProxy(AdvisedSupport advised, Object other) {
+		AdvisedSupport otherAdvised = getAdvised(other);
+		if (otherAdvised == null) {
+			return false;
+		}
+		if (advised == otherAdvised) {
+			return true;
+		}
+		return advised.isProxyTargetClass() == otherAdvised.isProxyTargetClass()
+				&& advised.getTargetSource().equals(otherAdvised.getTargetSource())
+				&& advised.getAdvisors().equals(otherAdvised.getAdvisors());
+	}
+
+	/**
+	 * 代理对象的hashCode实现，与equalsInProxy保持一致
+	 *
+	 * @param advised 当前代理的配置
+	 * @return
+	 */
+	public static int hashCodeInProxy(AdvisedSupport advised) {
+		return 31 * Boolean.hashCode(advised.isProxyTargetClass()) + advised.getTargetSource().hashCode();
+	}
+
+	/**
+	 * 代理对象的toString实现，直接调用目标对象的toString
+	 *
+	 * @param advised 当前代理的配置
+	 * @return
+	 */
+	public static String toStringInProxy(AdvisedSupport advised) {
+		TargetSource targetSource = advised.getTargetSource();
+		Object target = targetSource.getTarget();
+		try {
+			return String.valueOf(target);
+		} finally {
+			if (!targetSource.isStatic()) {
+				targetSource.releaseTarget(target);
+			}
+		}
+	}
+}
@@ -1,13 +1,17 @@
 package org.springframework.aop.framework;
 
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.List;
 
+import net.sf.cglib.proxy.Callback;
+import net.sf.cglib.proxy.CallbackFilter;
 import net.sf.cglib.proxy.Enhancer;
 import net.sf.cglib.proxy.MethodInterceptor;
 import net.sf.cglib.proxy.MethodProxy;
 
 import org.springframework.aop.AdvisedSupport;
+import org.springframework.aop.TargetSource;
 
 /**
  * cglib动态代理
@@ -17,6 +21,15 @@ import org.springframework.aop.AdvisedSupport;
  */
 public class CglibAopProxy implements AopProxy {
 
+	//Callback下标，与ProxyCallbackFilter#accept的返回值对应
+	private static final int AOP_PROXY = 0;
+
+	private static final int INVOKE_EQUALS = 1;
+
+	private static final int INVOKE_HASHCODE = 2;
+
+	private static final int INVOKE_TOSTRING = 3;
+
 	private final AdvisedSupport advised;
 
 	public CglibAopProxy(AdvisedSupport advised) {
@@ -28,16 +41,141 @@ public class CglibAopProxy implements AopProxy {
 	public Object getProxy() {
 		// 创建动态代理增强类
 		Enhancer enhancer = new Enhancer();
-		enhancer.setSuperclass(advised.getTargetSource().getTarget().getClass());	//设置目标类
+		enhancer.setSuperclass(advised.getTargetSource().getTargetType());			//设置目标类
 		enhancer.setInterfaces(advised.getTargetSource().getTargetClass());			//目标接口
-		enhancer.setCallback(new DynamicAdvisedInterceptor(advised));				//设置callback
+		//创建代理时确定equals/hashCode/toString是否走专用路径，没有Advisor匹配这些方法时不查找拦截器链
+		Class<?> targetClass = advised.getTargetSource().getTargetType();
+		enhancer.setCallbackFilter(new ProxyCallbackFilter(
+				!AopProxyUtils.isAdvised(advised, targetClass, "equals", Object.class),
+				!AopProxyUtils.isAdvised(advised, targetClass, "hashCode"),
+				!AopProxyUtils.isAdvised(advised, targetClass, "toString")));
+		enhancer.setCallbacks(new Callback[]{												//设置callback
+				new DynamicAdvisedInterceptor(advised),
+				new EqualsInterceptor(advised),
+				new HashCodeInterceptor(advised),
+				new ToStringInterceptor(advised)});
 		return enhancer.create();													//创建代理类
 	}
 
+	/**
+	 * 持有代理配置的Callback，用于从代理对象上取回AdvisedSupport
+	 */
+	interface AdvisedCallback extends Callback {
+
+		AdvisedSupport getAdvised();
+	}
+
+	/**
+	 * 为每个方法选择Callback，生成的代理类会按ProxyCallbackFilter缓存，因此需要实现equals和hashCode
+	 */
+	private static class ProxyCallbackFilter implements CallbackFilter {
+
+		private final boolean fastEquals;
+
+		private final boolean fastHashCode;
+
+		private final boolean fastToString;
+
+		private ProxyCallbackFilter(boolean fastEquals, boolean fastHashCode, boolean fastToString) {
+			this.fastEquals = fastEquals;
+			this.fastHashCode = fastHashCode;
+			this.fastToString = fastToString;
+		}
+
+		@Override
+		public int accept(Method method) {
+			if (this.fastEquals && AopProxyUtils.isEqualsMethod(method)) {
+				return INVOKE_EQUALS;
+			}
+			if (this.fastHashCode && AopProxyUtils.isHashCodeMethod(method)) {
+				return INVOKE_HASHCODE;
+			}
+			if (this.fastToString && AopProxyUtils.isToStringMethod(method)) {
+				return INVOKE_TOSTRING;
+			}
+			return AOP_PROXY;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof ProxyCallbackFilter)) {
+				return false;
+			}
+			ProxyCallbackFilter that = (ProxyCallbackFilter) other;
+			return this.fastEquals == that.fastEquals && this.fastHashCode == that.fastHashCode
+					&& this.fastToString == that.fastToString;
+		}
+
+		@Override
+		public int hashCode() {
+			return (this.fastEquals ? 1 : 0) | (this.fastHashCode ? 2 : 0) | (this.fastToString ? 4 : 0);
+		}
+	}
+
+	private static class EqualsInterceptor implements MethodInterceptor, AdvisedCallback {
+
+		private final AdvisedSupport advised;
+
+		private EqualsInterceptor(AdvisedSupport advised) {
+			this.advised = advised;
+		}
+
+		@Override
+		public Object intercept(Object proxy, Method method, Object[] args, MethodProxy methodProxy) {
+			return proxy == args[0] || AopProxyUtils.equalsInProxy(this.advised, args[0]);
+		}
+
+		@Override
+		public AdvisedSupport getAdvised() {
+			return advised;
+		}
+	}
+
+	private static class HashCodeInterceptor implements MethodInterceptor, AdvisedCallback {
+
+		private final AdvisedSupport advised;
+
+		private HashCodeInterceptor(AdvisedSupport advised) {
+			this.advised = advised;
+		}
+
+		@Override
+		public Object intercept(Object proxy, Method method, Object[] args, MethodProxy methodProxy) {
+			return AopProxyUtils.hashCodeInProxy(this.advised);
+		}
+
+		@Override
+		public AdvisedSupport getAdvised() {
+			return advised;
+		}
+	}
+
+	private static class ToStringInterceptor implements MethodInterceptor, AdvisedCallback {
+
+		private final AdvisedSupport advised;
+
+		private ToStringInterceptor(AdvisedSupport advised) {
+			this.advised = advised;
+		}
+
+		@Override
+		public Object intercept(Object proxy, Method method, Object[] args, MethodProxy methodProxy) {
+			return AopProxyUtils.toStringInProxy(this.advised);
+		}
+
+		@Override
+		public AdvisedSupport getAdvised() {
+			return advised;
+		}
+	}
+
 	/**
 	 * 注意此处的MethodInterceptor是cglib中的接口，advised中的MethodInterceptor的AOP联盟中定义的接口，因此定义此类做适配
 	 */
-	private static class DynamicAdvisedInterceptor implements MethodInterceptor {
+	private static class DynamicAdvisedInterceptor implements MethodInterceptor, AdvisedCallback {
 
 		private final AdvisedSupport advised;
 
@@ -47,21 +185,54 @@ public class CglibAopProxy implements AopProxy {
 
 		@Override
 		public Object intercept(Object proxy, Method method, Object[] args, MethodProxy methodProxy) throws Throwable {
-			//获取目标对象
-			Object target = advised.getTargetSource().getTarget();
-			Class<?> targetClass = target.getClass();
-			Object retVal = null;
-			//获取方法拦截器链
-			List<Object> chain = this.advised.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass);
-			CglibMethodInvocation methodInvocation = new CglibMethodInvocation(proxy, target, method, args, targetClass, chain, methodProxy);
-			if (chain == null || chain.isEmpty()) {
-				//代理方法
-				retVal = methodProxy.invoke(target, args);
-			} else {
-				//执行方法拦截器链里面的内容
-				retVal = methodInvocation.proceed();
+			TargetSource targetSource = this.advised.getTargetSource();
+			//获取目标对象，非静态的TargetSource每次调用可能返回不同的对象，调用结束后要归还
+			Object target = targetSource.getTarget();
+			try {
+				Class<?> targetClass = target.getClass();
+				Object retVal = null;
+				//获取方法拦截器链
+				List<Object> chain = this.advised.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass);
+				//热点方法使用生成的融合拦截器链，直接调用增强和目标方法
+				FusedInterceptorChain fusedChain = this.advised.getFusedInterceptorChain(method, chain);
+				if (fusedChain != null) {
+					return fusedChain.invoke(target, args);
+				}
+				if (chain == null || chain.isEmpty()) {
+					//代理方法
+					retVal = invokeTarget(target, method, args, methodProxy);
+				} else {
+					//执行方法拦截器链里面的内容
+					CglibMethodInvocation methodInvocation = new CglibMethodInvocation(proxy, target, method, args, targetClass, chain, methodProxy);
+					retVal = methodInvocation.proceed();
+				}
+				return retVal;
+			} finally {
+				if (!targetSource.isStatic()) {
+					targetSource.releaseTarget(target);
+				}
+			}
+		}
+
+		/**
+		 * methodProxy只能调用代理类父类的实例。目标对象不是父类的实例时（例如延迟代理的目标bean被自动代理成了JDK动态代理），
+		 * 按方法签名在目标对象的类上反射调用
+		 */
+		private static Object invokeTarget(Object target, Method method, Object[] args, MethodProxy methodProxy) throws Throwable {
+			if (method.getDeclaringClass().isInstance(target)) {
+				return methodProxy.invoke(target, args);
 			}
-			return retVal;
+			Method targetMethod = target.getClass().getMethod(method.getName(), method.getParameterTypes());
+			try {
+				return targetMethod.invoke(target, args);
+			} catch (InvocationTargetException ex) {
+				throw ex.getTargetException();
+			}
+		}
+
+		@Override
+		public AdvisedSupport getAdvised() {
+			return advised;
 		}
 	}
 
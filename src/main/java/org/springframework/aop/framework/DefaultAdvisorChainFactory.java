@@ -32,6 +32,10 @@ public class DefaultAdvisorChainFactory implements AdvisorChainFactory {
 		List<Object> interceptorList = new ArrayList<>(advisors.length);
 		Class<?> actualClass = (targetClass != null ? targetClass : method.getDeclaringClass());
 		for (Advisor advisor : advisors) {
+			// 停用的Advisor不进入拦截器链，对方法调用没有额外开销
+			if (!config.isAdvisorEnabled(advisor)) {
+				continue;
+			}
 			if (advisor instanceof PointcutAdvisor) {
 				// Add it conditionally.
 				PointcutAdvisor pointcutAdvisor = (PointcutAdvisor) advisor;
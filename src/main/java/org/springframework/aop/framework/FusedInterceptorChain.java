@@ -0,0 +1,36 @@
+package org.springframework.aop.framework;
+
+import java.lang.reflect.Method;
+
+/**
+ * 融合后的拦截器链
+ * <p>
+ * 由FusedInterceptorChainGenerator为每个(方法, 拦截器链)生成一个子类，子类中按顺序直接调用前置增强、目标方法和后置增强，
+ * 不再经过ReflectiveMethodInvocation#proceed的递归和Method#invoke反射调用。
+ * 每个生成类中的调用点只会看到一种接收者类型，JIT可以内联这些调用
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public abstract class FusedInterceptorChain {
+
+	protected final Method method;
+
+	protected FusedInterceptorChain(Method method) {
+		this.method = method;
+	}
+
+	/**
+	 * 执行融合后的拦截器链
+	 *
+	 * @param target 目标对象
+	 * @param args   方法参数
+	 * @return 目标方法的返回值，void方法返回null
+	 * @throws Throwable 增强或目标方法抛出的异常，不会被InvocationTargetException包装
+	 */
+	public abstract Object invoke(Object target, Object[] args) throws Throwable;
+
+	public Method getMethod() {
+		return method;
+	}
+}
@@ -0,0 +1,355 @@
+package org.springframework.aop.framework;
+
+import net.sf.cglib.core.ReflectUtils;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import org.springframework.aop.AfterReturningAdvice;
+import org.springframework.aop.MethodBeforeAdvice;
+import org.springframework.aop.framework.adapter.AfterReturningAdviceInterceptor;
+import org.springframework.aop.framework.adapter.MethodBeforeAdviceInterceptor;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 为(方法, 拦截器链)生成FusedInterceptorChain子类
+ * <p>
+ * 生成的invoke方法等价于：
+ * <pre>
+ * 	before0.before(method, args, target);
+ * 	before1.before(method, args, target);
+ * 	Object retVal = ((TargetType) target).targetMethod((P0) args[0], ...);
+ * 	afterN.afterReturning(retVal, method, args, target);
+ * 	...
+ * 	return retVal;
+ * </pre>
+ * 前置增强按拦截器链中的顺序执行，后置增强按拦截器链中的逆序执行，与ReflectiveMethodInvocation#proceed递归展开后的顺序一致
+ * <p>
+ * 只有拦截器链中全部是MethodBeforeAdviceInterceptor和AfterReturningAdviceInterceptor时才能融合，
+ * 包含其他MethodInterceptor（例如用户自定义的环绕增强），或者目标方法无法直接调用时返回null，调用方回退到普通的拦截器链执行方式
+ * <p>
+ * 生成的类按(方法, 各个增强的类型)缓存在方法声明类的ClassValue中，增强对象通过构造函数传入。
+ * prototype bean或者多个bean的代理使用同样的增强时共用一个生成类，不会为每个代理重复定义类，
+ * 缓存随方法声明类一起回收
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public class FusedInterceptorChainGenerator {
+
+	private static final AtomicInteger CLASS_COUNTER = new AtomicInteger();
+
+	//无法生成时缓存的占位对象
+	private static final Object UNSUPPORTED = new Object();
+
+	//方法声明类 -> ((方法, 增强类型) -> 生成类的构造函数或者UNSUPPORTED)
+	private static final ClassValue<Map<FusedChainKey, Object>> FUSED_CLASSES = new ClassValue<Map<FusedChainKey, Object>>() {
+		@Override
+		protected Map<FusedChainKey, Object> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<>(8);
+		}
+	};
+
+	private static final String SUPER_NAME = Type.getInternalName(FusedInterceptorChain.class);
+
+	private static final String METHOD_DESC = Type.getDescriptor(Method.class);
+
+	private static final String BEFORE_ADVICE_NAME = Type.getInternalName(MethodBeforeAdvice.class);
+
+	private static final String AFTER_ADVICE_NAME = Type.getInternalName(AfterReturningAdvice.class);
+
+	private FusedInterceptorChainGenerator() {
+	}
+
+	/**
+	 * 生成融合后的拦截器链，无法融合时返回null
+	 *
+	 * @param method 被代理的方法
+	 * @param chain  方法拦截器链
+	 * @return
+	 */
+	public static FusedInterceptorChain generate(Method method, List<Object> chain) {
+		List<MethodBeforeAdvice> beforeAdvices = new ArrayList<>();
+		List<AfterReturningAdvice> afterAdvices = new ArrayList<>();
+		for (Object interceptor : chain) {
+			//子类可能重写了invoke方法，只融合框架自带的两种拦截器
+			if (interceptor.getClass() == MethodBeforeAdviceInterceptor.class) {
+				beforeAdvices.add(((MethodBeforeAdviceInterceptor) interceptor).getAdvice());
+			} else if (interceptor.getClass() == AfterReturningAdviceInterceptor.class) {
+				//后置增强逆序执行
+				afterAdvices.add(0, ((AfterReturningAdviceInterceptor) interceptor).getAdvice());
+			} else {
+				return null;
+			}
+		}
+		if (beforeAdvices.contains(null) || afterAdvices.contains(null) || !isDirectlyInvokable(method)) {
+			return null;
+		}
+		Object[] advices = new Object[beforeAdvices.size() + afterAdvices.size()];
+		Class<?>[] adviceClasses = new Class<?>[advices.length];
+		for (int i = 0; i < advices.length; i++) {
+			advices[i] = i < beforeAdvices.size() ? beforeAdvices.get(i) : afterAdvices.get(i - beforeAdvices.size());
+			adviceClasses[i] = advices[i].getClass();
+		}
+		Map<FusedChainKey, Object> fusedClasses = FUSED_CLASSES.get(method.getDeclaringClass());
+		FusedChainKey key = new FusedChainKey(method, beforeAdvices.size(), adviceClasses);
+		Object constructor = fusedClasses.get(key);
+		if (constructor == null) {
+			constructor = fusedClasses.computeIfAbsent(key, k -> defineFusedClass(method, beforeAdvices.size(), afterAdvices.size()));
+		}
+		if (constructor == UNSUPPORTED) {
+			return null;
+		}
+		try {
+			return (FusedInterceptorChain) ((Constructor<?>) constructor).newInstance(method, advices);
+		} catch (ReflectiveOperationException ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * 定义生成类，返回其构造函数，无法定义时返回UNSUPPORTED
+	 */
+	private static Object defineFusedClass(Method method, int beforeCount, int afterCount) {
+		ClassLoader classLoader = chooseClassLoader(method.getDeclaringClass());
+		if (classLoader == null) {
+			return UNSUPPORTED;
+		}
+		String className = FusedInterceptorChain.class.getName() + "$$Fused$$" + CLASS_COUNTER.incrementAndGet();
+		byte[] bytes = generateClass(className.replace('.', '/'), method, beforeCount, afterCount);
+		try {
+			Class<?> fusedClass = ReflectUtils.defineClass(className, bytes, classLoader);
+			return fusedClass.getConstructor(Method.class, Object[].class);
+		} catch (Throwable ex) {
+			//当前环境不允许定义类时（例如模块访问受限），回退到普通的拦截器链执行方式
+			return UNSUPPORTED;
+		}
+	}
+
+	/**
+	 * 生成的类中直接调用目标方法，方法、声明类以及参数和返回值类型都必须是public的
+	 */
+	private static boolean isDirectlyInvokable(Method method) {
+		int modifiers = method.getModifiers();
+		if (!Modifier.isPublic(modifiers) || Modifier.isStatic(modifiers)) {
+			return false;
+		}
+		if (!isPublicType(method.getDeclaringClass()) || !isPublicType(method.getReturnType())) {
+			return false;
+		}
+		for (Class<?> parameterType : method.getParameterTypes()) {
+			if (!isPublicType(parameterType)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isPublicType(Class<?> type) {
+		while (type.isArray()) {
+			type = type.getComponentType();
+		}
+		return type.isPrimitive() || Modifier.isPublic(type.getModifiers());
+	}
+
+	/**
+	 * 生成的类需要同时看到目标方法的声明类和框架中的类
+	 */
+	private static ClassLoader chooseClassLoader(Class<?> declaringClass) {
+		ClassLoader frameworkLoader = FusedInterceptorChain.class.getClassLoader();
+		ClassLoader targetLoader = declaringClass.getClassLoader();
+		if (targetLoader != null && isVisible(FusedInterceptorChain.class, targetLoader)) {
+			return targetLoader;
+		}
+		if (isVisible(declaringClass, frameworkLoader)) {
+			return frameworkLoader;
+		}
+		return null;
+	}
+
+	private static boolean isVisible(Class<?> clazz, ClassLoader classLoader) {
+		try {
+			return Class.forName(clazz.getName(), false, classLoader) == clazz;
+		} catch (ClassNotFoundException ex) {
+			return false;
+		}
+	}
+
+	/**
+	 * 生成类的缓存key：方法、前置增强个数以及按顺序排列的各个增强的类型
+	 */
+	private static final class FusedChainKey {
+
+		private final Method method;
+
+		private final int beforeCount;
+
+		private final Class<?>[] adviceClasses;
+
+		private final int hashCode;
+
+		private FusedChainKey(Method method, int beforeCount, Class<?>[] adviceClasses) {
+			this.method = method;
+			this.beforeCount = beforeCount;
+			this.adviceClasses = adviceClasses;
+			this.hashCode = (method.hashCode() * 31 + beforeCount) * 31 + Arrays.hashCode(adviceClasses);
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof FusedChainKey)) {
+				return false;
+			}
+			FusedChainKey that = (FusedChainKey) other;
+			return method.equals(that.method) && beforeCount == that.beforeCount && Arrays.equals(adviceClasses, that.adviceClasses);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+	}
+
+	private static byte[] generateClass(String internalName, Method method, int beforeCount, int afterCount) {
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, internalName, null, SUPER_NAME, null);
+		for (int i = 0; i < beforeCount; i++) {
+			cw.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, "before" + i, "L" + BEFORE_ADVICE_NAME + ";", null, null).visitEnd();
+		}
+		for (int i = 0; i < afterCount; i++) {
+			cw.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, "after" + i, "L" + AFTER_ADVICE_NAME + ";", null, null).visitEnd();
+		}
+		generateConstructor(cw, internalName, beforeCount, afterCount);
+		generateInvoke(cw, internalName, method, beforeCount, afterCount);
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	private static void generateConstructor(ClassWriter cw, String internalName, int beforeCount, int afterCount) {
+		MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "(" + METHOD_DESC + "[Ljava/lang/Object;)V", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(Opcodes.ALOAD, 0);
+		mv.visitVarInsn(Opcodes.ALOAD, 1);
+		mv.visitMethodInsn(Opcodes.INVOKESPECIAL, SUPER_NAME, "<init>", "(" + METHOD_DESC + ")V", false);
+		for (int i = 0; i < beforeCount + afterCount; i++) {
+			boolean before = i < beforeCount;
+			String adviceName = before ? BEFORE_ADVICE_NAME : AFTER_ADVICE_NAME;
+			mv.visitVarInsn(Opcodes.ALOAD, 0);
+			mv.visitVarInsn(Opcodes.ALOAD, 2);
+			mv.visitLdcInsn(i);
+			mv.visitInsn(Opcodes.AALOAD);
+			mv.visitTypeInsn(Opcodes.CHECKCAST, adviceName);
+			mv.visitFieldInsn(Opcodes.PUTFIELD, internalName, before ? "before" + i : "after" + (i - beforeCount), "L" + adviceName + ";");
+		}
+		mv.visitInsn(Opcodes.RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+	}
+
+	private static void generateInvoke(ClassWriter cw, String internalName, Method method, int beforeCount, int afterCount) {
+		MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "invoke", "(Ljava/lang/Object;[Ljava/lang/Object;)Ljava/lang/Object;",
+				null, new String[]{Type.getInternalName(Throwable.class)});
+		mv.visitCode();
+		//局部变量：0-this 1-target 2-args 3-retVal
+		for (int i = 0; i < beforeCount; i++) {
+			mv.visitVarInsn(Opcodes.ALOAD, 0);
+			mv.visitFieldInsn(Opcodes.GETFIELD, internalName, "before" + i, "L" + BEFORE_ADVICE_NAME + ";");
+			loadMethod(mv);
+			mv.visitVarInsn(Opcodes.ALOAD, 2);
+			mv.visitVarInsn(Opcodes.ALOAD, 1);
+			mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, BEFORE_ADVICE_NAME, "before",
+					"(" + METHOD_DESC + "[Ljava/lang/Object;Ljava/lang/Object;)V", true);
+		}
+
+		//直接调用目标方法
+		Class<?> declaringClass = method.getDeclaringClass();
+		String ownerName = Type.getInternalName(declaringClass);
+		mv.visitVarInsn(Opcodes.ALOAD, 1);
+		mv.visitTypeInsn(Opcodes.CHECKCAST, ownerName);
+		Class<?>[] parameterTypes = method.getParameterTypes();
+		for (int i = 0; i < parameterTypes.length; i++) {
+			mv.visitVarInsn(Opcodes.ALOAD, 2);
+			mv.visitLdcInsn(i);
+			mv.visitInsn(Opcodes.AALOAD);
+			unbox(mv, parameterTypes[i]);
+		}
+		boolean isInterface = declaringClass.isInterface();
+		mv.visitMethodInsn(isInterface ? Opcodes.INVOKEINTERFACE : Opcodes.INVOKEVIRTUAL, ownerName, method.getName(),
+				Type.getMethodDescriptor(method), isInterface);
+		box(mv, method.getReturnType());
+		mv.visitVarInsn(Opcodes.ASTORE, 3);
+
+		for (int i = 0; i < afterCount; i++) {
+			mv.visitVarInsn(Opcodes.ALOAD, 0);
+			mv.visitFieldInsn(Opcodes.GETFIELD, internalName, "after" + i, "L" + AFTER_ADVICE_NAME + ";");
+			mv.visitVarInsn(Opcodes.ALOAD, 3);
+			loadMethod(mv);
+			mv.visitVarInsn(Opcodes.ALOAD, 2);
+			mv.visitVarInsn(Opcodes.ALOAD, 1);
+			mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, AFTER_ADVICE_NAME, "afterReturning",
+					"(Ljava/lang/Object;" + METHOD_DESC + "[Ljava/lang/Object;Ljava/lang/Object;)V", true);
+		}
+		mv.visitVarInsn(Opcodes.ALOAD, 3);
+		mv.visitInsn(Opcodes.ARETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+	}
+
+	private static void loadMethod(MethodVisitor mv) {
+		mv.visitVarInsn(Opcodes.ALOAD, 0);
+		mv.visitFieldInsn(Opcodes.GETFIELD, SUPER_NAME, "method", METHOD_DESC);
+	}
+
+	private static void unbox(MethodVisitor mv, Class<?> type) {
+		if (!type.isPrimitive()) {
+			mv.visitTypeInsn(Opcodes.CHECKCAST, Type.getInternalName(type));
+			return;
+		}
+		Class<?> wrapper = wrapperType(type);
+		mv.visitTypeInsn(Opcodes.CHECKCAST, Type.getInternalName(wrapper));
+		mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, Type.getInternalName(wrapper), type.getName() + "Value",
+				"()" + Type.getDescriptor(type), false);
+	}
+
+	private static void box(MethodVisitor mv, Class<?> type) {
+		if (type == void.class) {
+			mv.visitInsn(Opcodes.ACONST_NULL);
+		} else if (type.isPrimitive()) {
+			Class<?> wrapper = wrapperType(type);
+			mv.visitMethodInsn(Opcodes.INVOKESTATIC, Type.getInternalName(wrapper), "valueOf",
+					"(" + Type.getDescriptor(type) + ")" + Type.getDescriptor(wrapper), false);
+		}
+	}
+
+	private static Class<?> wrapperType(Class<?> primitiveType) {
+		if (primitiveType == boolean.class) {
+			return Boolean.class;
+		} else if (primitiveType == byte.class) {
+			return Byte.class;
+		} else if (primitiveType == char.class) {
+			return Character.class;
+		} else if (primitiveType == short.class) {
+			return Short.class;
+		} else if (primitiveType == int.class) {
+			return Integer.class;
+		} else if (primitiveType == long.class) {
+			return Long.class;
+		} else if (primitiveType == float.class) {
+			return Float.class;
+		}
+		return Double.class;
+	}
+}
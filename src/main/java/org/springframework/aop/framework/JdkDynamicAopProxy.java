@@ -3,8 +3,10 @@ package org.springframework.aop.framework;
 import org.aopalliance.intercept.MethodInvocation;
 
 import org.springframework.aop.AdvisedSupport;
+import org.springframework.aop.TargetSource;
 
 import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.util.List;
@@ -19,8 +21,23 @@ public class JdkDynamicAopProxy implements AopProxy, InvocationHandler {
 
 	private final AdvisedSupport advised;
 
+	//创建代理时确定equals/hashCode/toString是否走专用路径，没有Advisor匹配这些方法时不查找拦截器链
+	private final boolean fastEquals;
+
+	private final boolean fastHashCode;
+
+	private final boolean fastToString;
+
 	public JdkDynamicAopProxy(AdvisedSupport advised) {
 		this.advised = advised;
+		Class<?> targetClass = advised.getTargetSource().getTargetType();
+		this.fastEquals = !AopProxyUtils.isAdvised(advised, targetClass, "equals", Object.class);
+		this.fastHashCode = !AopProxyUtils.isAdvised(advised, targetClass, "hashCode");
+		this.fastToString = !AopProxyUtils.isAdvised(advised, targetClass, "toString");
+	}
+
+	AdvisedSupport getAdvised() {
+		return advised;
 	}
 
 	/**
@@ -49,36 +66,63 @@ public class JdkDynamicAopProxy implements AopProxy, InvocationHandler {
 	 */
 	@Override
 	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-		// 获取目标对象
-		Object target = advised.getTargetSource().getTarget();
-		Class<?> targetClass = target.getClass();
-		Object retVal = null;
-		// 获取targetClass类的method方法的拦截器链
-		List<Object> chain = this.advised.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass);
-		/*
-			如果拦截器链为空，则不需要生成代理对象，直接执行原方法（由被代理对象target执行）
-
-			但是拦截器链实际上好像不可能为空，因为在createBean方法中生成bean时，
-			只有当存在Advisor与当前bean匹配时，才会使用JDK或者CGLIB生成动态代理对象，并且保存对应Advisor到拦截器链
-			如果没有Advisor与当前bean匹配，就不会生成代理对象，而直接生成bean的实例
-			进到了这个invoke方法，一定是代理对象proxy的调用，既然已经生成了代理对象，拦截器链就不可能为空
-		 */
-		if (chain == null || chain.isEmpty()) {
-			return method.invoke(target, args);
-		} else {
+		if (method.getDeclaringClass() == Object.class) {
+			if (this.fastEquals && AopProxyUtils.isEqualsMethod(method)) {
+				return AopProxyUtils.equalsInProxy(this.advised, args[0]);
+			}
+			if (this.fastHashCode && AopProxyUtils.isHashCodeMethod(method)) {
+				return AopProxyUtils.hashCodeInProxy(this.advised);
+			}
+			if (this.fastToString && AopProxyUtils.isToStringMethod(method)) {
+				return AopProxyUtils.toStringInProxy(this.advised);
+			}
+		}
+		TargetSource targetSource = this.advised.getTargetSource();
+		// 获取目标对象，非静态的TargetSource每次调用可能返回不同的对象，调用结束后要归还
+		Object target = targetSource.getTarget();
+		try {
+			Class<?> targetClass = target.getClass();
+			Object retVal = null;
+			// 获取targetClass类的method方法的拦截器链
+			List<Object> chain = this.advised.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass);
 			/*
-				如果拦截器链不为空，则要生成动态代理对象，重点要看是怎么执行拦截器链的
-				因为拦截器链本身是乱序的，有可能After方法在前，Before方法在后
-				那到底怎么运行这个拦截器链呢，具体请看invocation.proceed()方法
-				这里把拦截器链封装成了一个ReflectiveMethodInvocation
+				如果拦截器链为空，则不需要生成代理对象，直接执行原方法（由被代理对象target执行）
+
+				但是拦截器链实际上好像不可能为空，因为在createBean方法中生成bean时，
+				只有当存在Advisor与当前bean匹配时，才会使用JDK或者CGLIB生成动态代理对象，并且保存对应Advisor到拦截器链
+				如果没有Advisor与当前bean匹配，就不会生成代理对象，而直接生成bean的实例
+				进到了这个invoke方法，一定是代理对象proxy的调用，既然已经生成了代理对象，拦截器链就不可能为空
 			 */
-			MethodInvocation invocation =
-					new ReflectiveMethodInvocation(proxy, target, method, args, targetClass, chain);
-			// Proceed to the joinpoint through the interceptor chain.
-			// 执行拦截器链，具体怎么执行的去查看 ReflectiveMethodInvocation#proceed 方法！！！
-			// 实际执行拦截器链就是挨个执行List里面的MethodInterceptor#invoke方法
-			retVal = invocation.proceed();
+			if (chain == null || chain.isEmpty()) {
+				try {
+					return method.invoke(target, args);
+				} catch (InvocationTargetException ex) {
+					throw ex.getTargetException();
+				}
+			}
+			//热点方法使用生成的融合拦截器链，直接调用增强和目标方法
+			FusedInterceptorChain fusedChain = this.advised.getFusedInterceptorChain(method, chain);
+			if (fusedChain != null) {
+				return fusedChain.invoke(target, args);
+			} else {
+				/*
+					如果拦截器链不为空，则要生成动态代理对象，重点要看是怎么执行拦截器链的
+					因为拦截器链本身是乱序的，有可能After方法在前，Before方法在后
+					那到底怎么运行这个拦截器链呢，具体请看invocation.proceed()方法
+					这里把拦截器链封装成了一个ReflectiveMethodInvocation
+				 */
+				MethodInvocation invocation =
+						new ReflectiveMethodInvocation(proxy, target, method, args, targetClass, chain);
+				// Proceed to the joinpoint through the interceptor chain.
+				// 执行拦截器链，具体怎么执行的去查看 ReflectiveMethodInvocation#proceed 方法！！！
+				// 实际执行拦截器链就是挨个执行List里面的MethodInterceptor#invoke方法
+				retVal = invocation.proceed();
+			}
+			return retVal;
+		} finally {
+			if (!targetSource.isStatic()) {
+				targetSource.releaseTarget(target);
+			}
 		}
-		return retVal;
 	}
 }
@@ -4,6 +4,7 @@ import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
 
 import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.List;
 
@@ -83,7 +84,7 @@ public class ReflectiveMethodInvocation implements MethodInvocation {
 		if (this.currentInterceptorIndex == this.interceptorsAndDynamicMethodMatchers.size() - 1) {
 			// 当调用次数 = 拦截器个数时
 			// 触发当前method方法（由被代理对象执行原方法）
-			return method.invoke(this.target, this.arguments);
+			return invokeJoinpoint();
 		}
 
 		// 获取到下一个MethodInterceptor
@@ -93,6 +94,17 @@ public class ReflectiveMethodInvocation implements MethodInvocation {
 		return ((MethodInterceptor) interceptorOrInterceptionAdvice).invoke(this);
 	}
 
+	/**
+	 * 反射调用目标方法，抛出目标方法本身的异常，与融合拦截器链（FusedInterceptorChain）的行为一致
+	 */
+	protected Object invokeJoinpoint() throws Throwable {
+		try {
+			return method.invoke(this.target, this.arguments);
+		} catch (InvocationTargetException ex) {
+			throw ex.getTargetException();
+		}
+	}
+
 	@Override
 	public Method getMethod() {
 		return method;
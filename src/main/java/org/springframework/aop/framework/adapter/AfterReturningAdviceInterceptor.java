@@ -24,6 +24,9 @@ public class AfterReturningAdviceInterceptor implements MethodInterceptor, After
 		this.advice = advice;
 	}
 
+	public AfterReturningAdvice getAdvice() {
+		return advice;
+	}
 
 	@Override
 	public Object invoke(MethodInvocation mi) throws Throwable {
@@ -25,6 +25,10 @@ public class MethodBeforeAdviceInterceptor implements MethodInterceptor, BeforeA
 		this.advice = advice;
 	}
 
+	public MethodBeforeAdvice getAdvice() {
+		return advice;
+	}
+
 	@Override
 	public Object invoke(MethodInvocation mi) throws Throwable {
 		//在执行被代理方法之前，先执行before advice操作
@@ -0,0 +1,165 @@
+package org.springframework.aop.framework.autoproxy;
+
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.aspectj.AspectJExpressionPointcut;
+import org.springframework.aop.aspectj.AspectJExpressionPointcutAdvisor;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Advisor的类级别预过滤索引
+ * <p>
+ * 从切点表达式execution(...)中提取声明类型的包名前缀（例如execution(* org.foo..*.*(..))的前缀是org.foo），
+ * 按前缀把Advisor挂到一棵包名字典树上。查找时沿bean类型层次中每个类型的全限定名走一遍字典树，
+ * 只有路径上挂着的Advisor以及无法提取前缀的Advisor才可能匹配，之后仍然要交给ClassFilter做精确匹配
+ * <p>
+ * 类型层次包含父类和所有接口，因为execution表达式中的声明类型可以匹配目标类的任意父类型
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+class AdvisorIndex {
+
+	private static final String EXECUTION_PREFIX = "execution(";
+
+	private final List<AspectJExpressionPointcutAdvisor> advisors;
+
+	private final Node root = new Node();
+
+	//无法建立索引的Advisor，对每个类都要检查
+	private final BitSet unindexed = new BitSet();
+
+	private final Map<Class<?>, List<AspectJExpressionPointcutAdvisor>> candidateCache = new ConcurrentHashMap<>(64);
+
+	AdvisorIndex(List<AspectJExpressionPointcutAdvisor> advisors) {
+		this.advisors = advisors;
+		for (int i = 0; i < advisors.size(); i++) {
+			String[] prefix = typePatternPrefix(advisors.get(i));
+			if (prefix == null || prefix.length == 0) {
+				unindexed.set(i);
+			} else {
+				Node node = root;
+				for (String segment : prefix) {
+					node = node.children.computeIfAbsent(segment, key -> new Node());
+				}
+				node.advisors.set(i);
+			}
+		}
+	}
+
+	/**
+	 * 返回可能匹配beanClass的Advisor，顺序与构建索引时的顺序一致
+	 */
+	List<AspectJExpressionPointcutAdvisor> getCandidateAdvisors(Class<?> beanClass) {
+		List<AspectJExpressionPointcutAdvisor> candidates = candidateCache.get(beanClass);
+		if (candidates == null) {
+			BitSet matched = (BitSet) unindexed.clone();
+			for (Class<?> type : getTypeHierarchy(beanClass)) {
+				Node node = root;
+				for (String segment : type.getName().replace('$', '.').split("\\.")) {
+					node = node.children.get(segment);
+					if (node == null) {
+						break;
+					}
+					matched.or(node.advisors);
+				}
+			}
+			if (matched.isEmpty()) {
+				candidates = Collections.emptyList();
+			} else {
+				candidates = new ArrayList<>(matched.cardinality());
+				for (int i = matched.nextSetBit(0); i >= 0; i = matched.nextSetBit(i + 1)) {
+					candidates.add(advisors.get(i));
+				}
+			}
+			candidateCache.put(beanClass, candidates);
+		}
+		return candidates;
+	}
+
+	private static Set<Class<?>> getTypeHierarchy(Class<?> beanClass) {
+		Set<Class<?>> hierarchy = new LinkedHashSet<>();
+		collectTypeHierarchy(beanClass, hierarchy);
+		return hierarchy;
+	}
+
+	private static void collectTypeHierarchy(Class<?> type, Set<Class<?>> hierarchy) {
+		if (type == null || !hierarchy.add(type)) {
+			return;
+		}
+		collectTypeHierarchy(type.getSuperclass(), hierarchy);
+		for (Class<?> ifc : type.getInterfaces()) {
+			collectTypeHierarchy(ifc, hierarchy);
+		}
+	}
+
+	/**
+	 * 提取切点表达式中声明类型的固定前缀，无法确定时返回null
+	 * 只处理单个execution表达式，包含组合运算符、注解或泛型时不建立索引
+	 */
+	static String[] typePatternPrefix(AspectJExpressionPointcutAdvisor advisor) {
+		Pointcut pointcut = advisor.getPointcut();
+		if (!(pointcut instanceof AspectJExpressionPointcut)) {
+			return null;
+		}
+		String expression = ((AspectJExpressionPointcut) pointcut).getExpression().trim();
+		if (!expression.startsWith(EXECUTION_PREFIX) || !expression.endsWith(")")) {
+			return null;
+		}
+		String body = expression.substring(EXECUTION_PREFIX.length(), expression.length() - 1).trim();
+		if (body.contains("&&") || body.contains("||") || body.contains("!") || body.contains("@")
+				|| body.contains("<") || body.contains(EXECUTION_PREFIX)) {
+			return null;
+		}
+		int paramsStart = body.indexOf('(');
+		if (paramsStart < 0) {
+			return null;
+		}
+		//[修饰符] 返回类型 声明类型.方法名
+		String[] tokens = body.substring(0, paramsStart).trim().split("\\s+");
+		if (tokens.length < 2) {
+			return null;
+		}
+		String declaringTypeAndName = tokens[tokens.length - 1];
+		int lastDot = declaringTypeAndName.lastIndexOf('.');
+		if (lastDot <= 0) {
+			return null;
+		}
+		List<String> prefix = new ArrayList<>();
+		for (String segment : declaringTypeAndName.substring(0, lastDot).split("\\.", -1)) {
+			//遇到".."或者通配符就停止，之前的部分是确定的前缀
+			if (!isJavaIdentifier(segment)) {
+				break;
+			}
+			prefix.add(segment);
+		}
+		return prefix.toArray(new String[0]);
+	}
+
+	private static boolean isJavaIdentifier(String segment) {
+		if (segment.isEmpty() || !Character.isJavaIdentifierStart(segment.charAt(0))) {
+			return false;
+		}
+		for (int i = 1; i < segment.length(); i++) {
+			if (!Character.isJavaIdentifierPart(segment.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static class Node {
+
+		private final Map<String, Node> children = new HashMap<>();
+
+		private final BitSet advisors = new BitSet();
+	}
+}
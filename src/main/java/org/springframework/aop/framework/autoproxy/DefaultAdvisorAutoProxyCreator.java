@@ -1,11 +1,15 @@
 package org.springframework.aop.framework.autoproxy;
 
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.WeakHashMap;
 
 import org.aopalliance.aop.Advice;
 
+import org.springframework.aop.AdvisedSupport;
 import org.springframework.aop.Advisor;
 import org.springframework.aop.ClassFilter;
 import org.springframework.aop.Pointcut;
@@ -29,6 +33,20 @@ public class DefaultAdvisorAutoProxyCreator implements InstantiationAwareBeanPos
 
 	private Set<Object> earlyProxyReferences = new HashSet<>();
 
+	//缓存的Advisor索引，只有Advisor的BeanDefinition发生变化时才重新构建
+	private volatile AdvisorIndex advisorIndex;
+
+	private volatile String[] cachedAdvisorNames;
+
+	//已经创建的代理，弱引用，代理对象被回收后自动移除
+	private final Set<AdvisedSupport> proxies = Collections.newSetFromMap(new WeakHashMap<>());
+
+	//被停用的Advisor的beanName
+	private final Set<String> disabledAdvisorNames = new HashSet<>();
+
+	//方法调用次数达到该阈值后使用生成的融合拦截器链，小于等于0表示不启用
+	private int fusedChainThreshold = 0;
+
 	@Override
 	public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
 		if (!earlyProxyReferences.contains(beanName)) {
@@ -52,12 +70,13 @@ public class DefaultAdvisorAutoProxyCreator implements InstantiationAwareBeanPos
 		}
 
 		//读取xml中定义的所有Advisor，Advisor里面定义了两个东西：切点表达式+对应的方法拦截器
-		Collection<AspectJExpressionPointcutAdvisor> advisors = beanFactory.getBeansOfType(AspectJExpressionPointcutAdvisor.class)
-				.values();
+		//这里只取出按包名前缀预过滤后可能匹配当前类的Advisor
+		List<AspectJExpressionPointcutAdvisor> advisors = findCandidateAdvisors(bean.getClass());
 		try {
 			//相当于创建AdvisedSupport，AdvisedSupport里包含了创建proxy的全部信息
 			//在ProxyFactory中CglibAopProxy和JdkDynamicAopProxy都依赖于AdvisedSupport创建proxy
 			ProxyFactory proxyFactory = new ProxyFactory();
+			proxyFactory.setFusedChainThreshold(this.fusedChainThreshold);
 			//挨个检查各个advisor的切点表达式，能否和当前的类匹配，advisor也要写在xml文件中
 			for (AspectJExpressionPointcutAdvisor advisor : advisors) {
 				ClassFilter classFilter = advisor.getPointcut().getClassFilter();
@@ -70,6 +89,12 @@ public class DefaultAdvisorAutoProxyCreator implements InstantiationAwareBeanPos
 				}
 			}
 			if (!proxyFactory.getAdvisors().isEmpty()) {
+				synchronized (this.proxies) {
+					for (String advisorName : this.disabledAdvisorNames) {
+						proxyFactory.setAdvisorEnabled(beanFactory.getBean(advisorName, Advisor.class), false);
+					}
+					this.proxies.add(proxyFactory);
+				}
 				//生成代理对象并返回
 				return proxyFactory.getProxy();
 			}
@@ -79,6 +104,71 @@ public class DefaultAdvisorAutoProxyCreator implements InstantiationAwareBeanPos
 		return bean;
 	}
 
+	/**
+	 * 查找可能匹配beanClass的Advisor
+	 * Advisor列表只解析一次，getBeanNamesForType返回的数组实例在BeanDefinition变化之前保持不变，据此判断是否需要重建索引
+	 *
+	 * @param beanClass
+	 * @return
+	 */
+	protected List<AspectJExpressionPointcutAdvisor> findCandidateAdvisors(Class<?> beanClass) {
+		String[] advisorNames = beanFactory.getBeanNamesForType(AspectJExpressionPointcutAdvisor.class);
+		AdvisorIndex index = this.advisorIndex;
+		if (index == null || advisorNames != this.cachedAdvisorNames) {
+			List<AspectJExpressionPointcutAdvisor> advisors = new ArrayList<>(advisorNames.length);
+			for (String advisorName : advisorNames) {
+				advisors.add(beanFactory.getBean(advisorName, AspectJExpressionPointcutAdvisor.class));
+			}
+			index = new AdvisorIndex(advisors);
+			this.advisorIndex = index;
+			this.cachedAdvisorNames = advisorNames;
+		}
+		return index.getCandidateAdvisors(beanClass);
+	}
+
+	/**
+	 * 在运行时启用或停用某个Advisor，对已经创建的代理和之后创建的代理都生效
+	 * 停用后该Advisor不再出现在拦截器链中，正在执行的调用不受影响
+	 *
+	 * @param advisorBeanName Advisor的beanName
+	 * @param enabled         是否启用
+	 * @throws BeansException
+	 */
+	public void setAdvisorEnabled(String advisorBeanName, boolean enabled) throws BeansException {
+		Advisor advisor = beanFactory.getBean(advisorBeanName, Advisor.class);
+		synchronized (this.proxies) {
+			if (enabled) {
+				this.disabledAdvisorNames.remove(advisorBeanName);
+			} else {
+				this.disabledAdvisorNames.add(advisorBeanName);
+			}
+			for (AdvisedSupport advised : this.proxies) {
+				if (advised.getAdvisors().contains(advisor)) {
+					advised.setAdvisorEnabled(advisor, enabled);
+				}
+			}
+		}
+	}
+
+	public boolean isAdvisorEnabled(String advisorBeanName) {
+		synchronized (this.proxies) {
+			return !this.disabledAdvisorNames.contains(advisorBeanName);
+		}
+	}
+
+	public int getFusedChainThreshold() {
+		return fusedChainThreshold;
+	}
+
+	/**
+	 * 设置之后创建的代理使用融合拦截器链的调用次数阈值，参考AdvisedSupport#setFusedChainThreshold
+	 *
+	 * @param fusedChainThreshold
+	 */
+	public void setFusedChainThreshold(int fusedChainThreshold) {
+		this.fusedChainThreshold = fusedChainThreshold;
+	}
+
 	private boolean isInfrastructureClass(Class<?> beanClass) {
 		return Advice.class.isAssignableFrom(beanClass)
 				|| Pointcut.class.isAssignableFrom(beanClass)
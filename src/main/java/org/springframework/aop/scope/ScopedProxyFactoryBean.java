@@ -0,0 +1,54 @@
+package org.springframework.aop.scope;
+
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.target.SimpleBeanTargetSource;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.FactoryBean;
+
+/**
+ * 作用域代理
+ * <p>
+ * 自定义作用域（thread、ttl等）的bean注入到单例bean之后，单例bean持有的始终是注入时的那个实例。
+ * 改为注入本FactoryBean生成的代理，每次方法调用都从作用域中取当前实例，注入的引用一直有效：
+ * <pre>
+ * &lt;bean id="scopedTarget.lookupTable" class="..." scope="ttl"/&gt;
+ * &lt;bean id="lookupTable" class="org.springframework.aop.scope.ScopedProxyFactoryBean"&gt;
+ *     &lt;property name="targetBeanName" value="scopedTarget.lookupTable"/&gt;
+ * &lt;/bean&gt;
+ * </pre>
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public class ScopedProxyFactoryBean implements FactoryBean<Object>, BeanFactoryAware {
+
+	private String targetBeanName;
+
+	private Object proxy;
+
+	@Override
+	public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+		if (targetBeanName == null) {
+			throw new BeansException("Property 'targetBeanName' is required");
+		}
+		ProxyFactory proxyFactory = new ProxyFactory();
+		proxyFactory.setTargetSource(new SimpleBeanTargetSource(beanFactory, targetBeanName));
+		this.proxy = proxyFactory.getProxy();
+	}
+
+	@Override
+	public Object getObject() throws Exception {
+		return proxy;
+	}
+
+	@Override
+	public boolean isSingleton() {
+		return true;
+	}
+
+	public void setTargetBeanName(String targetBeanName) {
+		this.targetBeanName = targetBeanName;
+	}
+}
@@ -0,0 +1,113 @@
+package org.springframework.aop.target;
+
+import org.springframework.aop.TargetSource;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+
+/**
+ * 从prototype的BeanDefinition创建目标对象的TargetSource基类
+ * <p>
+ * 子类决定目标对象的复用方式（对象池、每个线程一个等），目标对象的创建和销毁都交给BeanFactory，
+ * 销毁时会执行目标bean的DisposableBean#destroy和destroy-method
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public abstract class AbstractPrototypeBasedTargetSource extends TargetSource implements BeanFactoryAware {
+
+	private String targetBeanName;
+
+	private BeanFactory beanFactory;
+
+	private volatile Class<?> targetType;
+
+	@Override
+	public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+		if (targetBeanName == null) {
+			throw new BeansException("Property 'targetBeanName' is required");
+		}
+		//每个线程或者池中的每个对象必须互相独立，目标bean只能是prototype
+		if (beanFactory instanceof ConfigurableListableBeanFactory
+				&& !((ConfigurableListableBeanFactory) beanFactory).getBeanDefinition(targetBeanName).isPrototype()) {
+			throw new BeansException("Target bean '" + targetBeanName + "' of " + getClass().getSimpleName() + " must be a prototype");
+		}
+		this.beanFactory = beanFactory;
+	}
+
+	@Override
+	public Class<?> getTargetType() {
+		Class<?> type = this.targetType;
+		if (type == null) {
+			if (beanFactory instanceof ConfigurableListableBeanFactory) {
+				type = ((ConfigurableListableBeanFactory) beanFactory).getBeanDefinition(targetBeanName).getBeanClass();
+			} else {
+				//无法从BeanDefinition得到类型时借出一个对象看一下
+				Object target = getTarget();
+				type = target.getClass();
+				releaseTarget(target);
+			}
+			this.targetType = type;
+		}
+		return type;
+	}
+
+	@Override
+	public boolean isStatic() {
+		return false;
+	}
+
+	/**
+	 * 创建一个新的目标对象
+	 */
+	protected Object newPrototypeInstance() throws BeansException {
+		return beanFactory.getBean(targetBeanName);
+	}
+
+	/**
+	 * 销毁目标对象，销毁失败不影响其他目标对象
+	 */
+	protected void destroyPrototypeInstance(Object target) {
+		try {
+			if (beanFactory instanceof ConfigurableBeanFactory) {
+				((ConfigurableBeanFactory) beanFactory).destroyBean(targetBeanName, target);
+			} else if (target instanceof DisposableBean) {
+				((DisposableBean) target).destroy();
+			}
+		} catch (Exception ex) {
+			//目标对象已经不再使用，忽略销毁异常
+		}
+	}
+
+	public String getTargetBeanName() {
+		return targetBeanName;
+	}
+
+	public void setTargetBeanName(String targetBeanName) {
+		this.targetBeanName = targetBeanName;
+	}
+
+	public BeanFactory getBeanFactory() {
+		return beanFactory;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (other == null || getClass() != other.getClass()) {
+			return false;
+		}
+		AbstractPrototypeBasedTargetSource that = (AbstractPrototypeBasedTargetSource) other;
+		return beanFactory == that.beanFactory && targetBeanName != null && targetBeanName.equals(that.targetBeanName);
+	}
+
+	@Override
+	public int hashCode() {
+		return getClass().hashCode() * 13 + (targetBeanName != null ? targetBeanName.hashCode() : 0);
+	}
+}
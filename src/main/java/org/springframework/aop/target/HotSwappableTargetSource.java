@@ -0,0 +1,104 @@
+package org.springframework.aop.target;
+
+import org.springframework.aop.TargetSource;
+
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * 可以在运行时替换目标对象的TargetSource
+ * <p>
+ * 适用于路由表、打分模型等需要在线更新的依赖：持有代理对象的bean不需要重新注入，替换之后的调用自动使用新的目标对象。
+ * 目标对象保存在volatile字段中，代理对象每次调用只做一次volatile读，不加锁；替换通过CAS完成并返回旧的目标对象，
+ * 调用方可以在旧对象上的调用结束后自行销毁它
+ * <p>
+ * 目标对象始终存在，调用结束后不需要归还，因此isStatic返回true
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public class HotSwappableTargetSource extends TargetSource {
+
+	private static final AtomicReferenceFieldUpdater<HotSwappableTargetSource, Object> TARGET_UPDATER =
+			AtomicReferenceFieldUpdater.newUpdater(HotSwappableTargetSource.class, Object.class, "target");
+
+	//当前的目标对象，xml中可以通过<property name="target" ref="..."/>指定初始目标对象
+	private volatile Object target;
+
+	//创建代理时使用的目标类型，替换的目标对象必须与之兼容
+	private volatile Class<?> targetType;
+
+	public HotSwappableTargetSource() {
+	}
+
+	public HotSwappableTargetSource(Object initialTarget) {
+		if (initialTarget == null) {
+			throw new IllegalArgumentException("Target object must not be null");
+		}
+		this.target = initialTarget;
+	}
+
+	@Override
+	public Object getTarget() {
+		return this.target;
+	}
+
+	@Override
+	public Class<?> getTargetType() {
+		Class<?> type = this.targetType;
+		if (type == null) {
+			Object current = this.target;
+			if (current == null) {
+				throw new IllegalStateException("HotSwappableTargetSource has no target object");
+			}
+			type = current.getClass();
+			this.targetType = type;
+		}
+		return type;
+	}
+
+	/**
+	 * 替换目标对象
+	 *
+	 * @param newTarget 新的目标对象
+	 * @return 旧的目标对象
+	 */
+	public Object swap(Object newTarget) {
+		if (newTarget == null) {
+			throw new IllegalArgumentException("Target object must not be null");
+		}
+		if (!getTargetType().isInstance(newTarget)) {
+			throw new IllegalArgumentException("New target of type [" + newTarget.getClass().getName()
+					+ "] is not compatible with target type [" + getTargetType().getName() + "]");
+		}
+		return TARGET_UPDATER.getAndSet(this, newTarget);
+	}
+
+	/**
+	 * 仅当当前目标对象是expectedTarget时才替换，用于多个更新方并发替换的场景
+	 *
+	 * @return 是否替换成功
+	 */
+	public boolean compareAndSwap(Object expectedTarget, Object newTarget) {
+		if (newTarget == null) {
+			throw new IllegalArgumentException("Target object must not be null");
+		}
+		if (!getTargetType().isInstance(newTarget)) {
+			throw new IllegalArgumentException("New target of type [" + newTarget.getClass().getName()
+					+ "] is not compatible with target type [" + getTargetType().getName() + "]");
+		}
+		return TARGET_UPDATER.compareAndSet(this, expectedTarget, newTarget);
+	}
+
+	/**
+	 * 目标对象会变化，只有同一个TargetSource才相等
+	 */
+	@Override
+	public boolean equals(Object other) {
+		return this == other;
+	}
+
+	@Override
+	public int hashCode() {
+		return System.identityHashCode(this);
+	}
+}
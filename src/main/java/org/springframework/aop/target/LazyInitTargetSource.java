@@ -0,0 +1,119 @@
+package org.springframework.aop.target;
+
+import org.springframework.aop.TargetSource;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.ConfigurableListableBeanFactory;
+
+/**
+ * 延迟初始化的TargetSource
+ * <p>
+ * 第一次方法调用时才通过BeanFactory获取目标bean，之后一直使用同一个对象。
+ * 注入点拿到的是代理对象，启动时不会因为注入而提前创建体积很大、只在少数路径上用到的单例bean（例如模型、大缓存）
+ * <p>
+ * 初始化使用双重检查锁，保证多个线程同时第一次调用时目标bean只获取一次
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public class LazyInitTargetSource extends TargetSource implements BeanFactoryAware {
+
+	private String targetBeanName;
+
+	private BeanFactory beanFactory;
+
+	private volatile Object target;
+
+	private volatile Class<?> targetType;
+
+	public LazyInitTargetSource() {
+	}
+
+	public LazyInitTargetSource(BeanFactory beanFactory, String targetBeanName) {
+		this.beanFactory = beanFactory;
+		this.targetBeanName = targetBeanName;
+	}
+
+	@Override
+	public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+		if (targetBeanName == null) {
+			throw new BeansException("Property 'targetBeanName' is required");
+		}
+		this.beanFactory = beanFactory;
+	}
+
+	@Override
+	public Object getTarget() {
+		Object result = this.target;
+		if (result == null) {
+			synchronized (this) {
+				result = this.target;
+				if (result == null) {
+					result = beanFactory.getBean(targetBeanName);
+					postProcessTargetObject(result);
+					this.target = result;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * 目标bean获取之后的扩展点
+	 *
+	 * @param targetObject
+	 */
+	protected void postProcessTargetObject(Object targetObject) {
+	}
+
+	@Override
+	public Class<?> getTargetType() {
+		Class<?> type = this.targetType;
+		if (type == null) {
+			Object current = this.target;
+			if (current != null) {
+				type = current.getClass();
+			} else if (beanFactory instanceof ConfigurableListableBeanFactory) {
+				//从BeanDefinition取类型，不触发目标bean的创建
+				type = ((ConfigurableListableBeanFactory) beanFactory).getBeanDefinition(targetBeanName).getBeanClass();
+			} else {
+				type = getTarget().getClass();
+			}
+			this.targetType = type;
+		}
+		return type;
+	}
+
+	/**
+	 * 目标bean是否已经初始化
+	 */
+	public boolean isInitialized() {
+		return this.target != null;
+	}
+
+	public String getTargetBeanName() {
+		return targetBeanName;
+	}
+
+	public void setTargetBeanName(String targetBeanName) {
+		this.targetBeanName = targetBeanName;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (other == null || getClass() != other.getClass()) {
+			return false;
+		}
+		LazyInitTargetSource that = (LazyInitTargetSource) other;
+		return beanFactory == that.beanFactory && targetBeanName != null && targetBeanName.equals(that.targetBeanName);
+	}
+
+	@Override
+	public int hashCode() {
+		return LazyInitTargetSource.class.hashCode() * 13 + (targetBeanName != null ? targetBeanName.hashCode() : 0);
+	}
+}
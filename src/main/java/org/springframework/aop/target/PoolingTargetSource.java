@@ -0,0 +1,242 @@
+package org.springframework.aop.target;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 对象池TargetSource
+ * <p>
+ * 适用于非线程安全且创建代价较高的bean（例如解析器、编解码器）：目标对象由prototype的BeanDefinition创建，
+ * 代理对象在每次方法调用时从池中借出一个目标对象，调用结束后归还，同一时刻一个目标对象只会被一个线程使用
+ * <p>
+ * 空闲对象保存在无锁队列中，对象总数通过CAS控制不超过maxSize。池满时借用线程挂起等待，
+ * 最多等待maxWait毫秒（小于0表示一直等待），归还对象或者创建对象失败空出名额时唤醒一个等待的线程
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public class PoolingTargetSource extends AbstractPrototypeBasedTargetSource implements InitializingBean, DisposableBean {
+
+	//初始化时预先创建的对象数
+	private int minSize = 0;
+
+	//池中最多存在的对象数
+	private int maxSize = 8;
+
+	//池满时借用对象的最长等待时间（毫秒），小于0表示一直等待
+	private long maxWait = -1;
+
+	private final Queue<Object> idleObjects = new ConcurrentLinkedQueue<>();
+
+	private final Queue<Thread> waiters = new ConcurrentLinkedQueue<>();
+
+	//已经创建的对象总数，包括借出的和空闲的
+	private final AtomicInteger createdCount = new AtomicInteger();
+
+	private final AtomicInteger activeCount = new AtomicInteger();
+
+	private final AtomicLong borrowCount = new AtomicLong();
+
+	private final AtomicLong totalWaitNanos = new AtomicLong();
+
+	private final AtomicLong maxWaitNanos = new AtomicLong();
+
+	private volatile boolean closed;
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		if (maxSize < 1 || minSize < 0 || minSize > maxSize) {
+			throw new BeansException("Invalid pool size: minSize=" + minSize + ", maxSize=" + maxSize);
+		}
+		for (int i = 0; i < minSize; i++) {
+			createdCount.incrementAndGet();
+			idleObjects.offer(newPrototypeInstance());
+		}
+	}
+
+	@Override
+	public Object getTarget() {
+		long start = System.nanoTime();
+		long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxWait);
+		Thread current = Thread.currentThread();
+		for (; ; ) {
+			if (closed) {
+				throw new BeansException("PoolingTargetSource for bean '" + getTargetBeanName() + "' has been closed");
+			}
+			Object target = idleObjects.poll();
+			if (target == null) {
+				int created = createdCount.get();
+				if (created < maxSize) {
+					if (createdCount.compareAndSet(created, created + 1)) {
+						try {
+							target = newPrototypeInstance();
+						} catch (RuntimeException | Error ex) {
+							//空出了一个创建名额，交给等待的线程重试
+							createdCount.decrementAndGet();
+							unparkWaiter();
+							throw ex;
+						}
+					} else {
+						continue;
+					}
+				}
+			}
+			if (target != null) {
+				activeCount.incrementAndGet();
+				recordWait(System.nanoTime() - start);
+				return target;
+			}
+
+			//池已满，等待其他线程归还对象
+			long remaining = deadline - System.nanoTime();
+			if (maxWait >= 0 && remaining <= 0) {
+				throw new BeansException("Timeout waiting for idle object of bean '" + getTargetBeanName()
+						+ "' after " + maxWait + "ms, pool size: " + maxSize);
+			}
+			waiters.offer(current);
+			try {
+				//入队之后再检查一次，避免错过入队之前的归还或者创建失败的通知
+				if (idleObjects.isEmpty() && createdCount.get() >= maxSize && !closed) {
+					if (maxWait >= 0) {
+						LockSupport.parkNanos(this, remaining);
+					} else {
+						LockSupport.park(this);
+					}
+				}
+			} finally {
+				waiters.remove(current);
+			}
+		}
+	}
+
+	@Override
+	public void releaseTarget(Object target) {
+		activeCount.decrementAndGet();
+		if (closed) {
+			destroyTarget(target);
+			return;
+		}
+		idleObjects.offer(target);
+		//destroy可能在检查closed之后、放入队列之前清空了队列，再检查一次，由移除成功的一方销毁
+		if (closed && idleObjects.remove(target)) {
+			destroyTarget(target);
+			return;
+		}
+		unparkWaiter();
+	}
+
+	private void unparkWaiter() {
+		Thread waiter = waiters.poll();
+		if (waiter != null) {
+			LockSupport.unpark(waiter);
+		}
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		closed = true;
+		Object target;
+		while ((target = idleObjects.poll()) != null) {
+			destroyTarget(target);
+		}
+		Thread waiter;
+		while ((waiter = waiters.poll()) != null) {
+			LockSupport.unpark(waiter);
+		}
+	}
+
+	private void destroyTarget(Object target) {
+		createdCount.decrementAndGet();
+		destroyPrototypeInstance(target);
+	}
+
+	private void recordWait(long waitNanos) {
+		borrowCount.incrementAndGet();
+		totalWaitNanos.addAndGet(waitNanos);
+		long max;
+		while (waitNanos > (max = maxWaitNanos.get())) {
+			if (maxWaitNanos.compareAndSet(max, waitNanos)) {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * 当前借出的对象数
+	 */
+	public int getActiveCount() {
+		return activeCount.get();
+	}
+
+	/**
+	 * 当前空闲的对象数
+	 */
+	public int getIdleCount() {
+		return idleObjects.size();
+	}
+
+	/**
+	 * 已经创建且未销毁的对象数
+	 */
+	public int getCreatedCount() {
+		return createdCount.get();
+	}
+
+	public long getBorrowCount() {
+		return borrowCount.get();
+	}
+
+	/**
+	 * 借用对象的累计等待时间（毫秒）
+	 */
+	public long getTotalWaitTime() {
+		return TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get());
+	}
+
+	/**
+	 * 借用对象的平均等待时间（毫秒）
+	 */
+	public double getAverageWaitTime() {
+		long count = borrowCount.get();
+		return count == 0 ? 0 : (double) totalWaitNanos.get() / count / TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+	/**
+	 * 借用对象的最长等待时间（毫秒）
+	 */
+	public long getMaxWaitTime() {
+		return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+	}
+
+	public int getMinSize() {
+		return minSize;
+	}
+
+	public void setMinSize(int minSize) {
+		this.minSize = minSize;
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public void setMaxSize(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	public long getMaxWait() {
+		return maxWait;
+	}
+
+	public void setMaxWait(long maxWait) {
+		this.maxWait = maxWait;
+	}
+}
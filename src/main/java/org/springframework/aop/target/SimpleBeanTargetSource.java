@@ -0,0 +1,90 @@
+package org.springframework.aop.target;
+
+import org.springframework.aop.TargetSource;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.ConfigurableListableBeanFactory;
+
+/**
+ * 每次方法调用都通过BeanFactory#getBean获取目标bean的TargetSource
+ * <p>
+ * 目标bean是否复用由其作用域决定，用于作用域代理：注入的代理对象不变，每次调用使用作用域中当前的实例
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public class SimpleBeanTargetSource extends TargetSource implements BeanFactoryAware {
+
+	private String targetBeanName;
+
+	private BeanFactory beanFactory;
+
+	private volatile Class<?> targetType;
+
+	public SimpleBeanTargetSource() {
+	}
+
+	public SimpleBeanTargetSource(BeanFactory beanFactory, String targetBeanName) {
+		this.beanFactory = beanFactory;
+		this.targetBeanName = targetBeanName;
+	}
+
+	@Override
+	public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+		if (targetBeanName == null) {
+			throw new BeansException("Property 'targetBeanName' is required");
+		}
+		this.beanFactory = beanFactory;
+	}
+
+	@Override
+	public Object getTarget() {
+		return beanFactory.getBean(targetBeanName);
+	}
+
+	@Override
+	public Class<?> getTargetType() {
+		Class<?> type = this.targetType;
+		if (type == null) {
+			if (beanFactory instanceof ConfigurableListableBeanFactory) {
+				//从BeanDefinition取类型，不触发目标bean的创建
+				type = ((ConfigurableListableBeanFactory) beanFactory).getBeanDefinition(targetBeanName).getBeanClass();
+			} else {
+				type = getTarget().getClass();
+			}
+			this.targetType = type;
+		}
+		return type;
+	}
+
+	@Override
+	public boolean isStatic() {
+		return false;
+	}
+
+	public String getTargetBeanName() {
+		return targetBeanName;
+	}
+
+	public void setTargetBeanName(String targetBeanName) {
+		this.targetBeanName = targetBeanName;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (other == null || getClass() != other.getClass()) {
+			return false;
+		}
+		SimpleBeanTargetSource that = (SimpleBeanTargetSource) other;
+		return beanFactory == that.beanFactory && targetBeanName != null && targetBeanName.equals(that.targetBeanName);
+	}
+
+	@Override
+	public int hashCode() {
+		return SimpleBeanTargetSource.class.hashCode() * 13 + (targetBeanName != null ? targetBeanName.hashCode() : 0);
+	}
+}
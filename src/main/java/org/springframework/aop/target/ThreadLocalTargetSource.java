@@ -0,0 +1,173 @@
+package org.springframework.aop.target;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 每个线程一个目标对象的TargetSource
+ * <p>
+ * 多个线程共用同一个代理对象，每个线程第一次调用时由prototype的BeanDefinition创建自己的目标对象，
+ * 目标对象中的缓存、缓冲区等状态只会被一个线程访问，不需要加锁
+ * <p>
+ * 所有线程的目标对象都登记在本对象中，容器关闭时（DefaultSingletonBeanRegistry#destroySingletons）统一按BeanDefinition销毁。
+ * 所属线程已经结束的目标对象在之后任意线程第一次调用（未命中）时清理并销毁，避免线程不断更替时目标对象无限累积。
+ * 目标对象数量持续增长或者getStaleCount不为0，通常意味着线程池在不断创建新线程，可以据此发现线程泄漏
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public class ThreadLocalTargetSource extends AbstractPrototypeBasedTargetSource implements DisposableBean {
+
+	private final ThreadLocal<Object> targetInThread = new ThreadLocal<Object>() {
+		@Override
+		public String toString() {
+			return "Thread-local instance of bean '" + getTargetBeanName() + "'";
+		}
+	};
+
+	//所有线程的目标对象以及所属线程，按对象identity区分，线程用弱引用持有，不影响线程对象的回收
+	private final Map<Object, WeakReference<Thread>> targetSet = Collections.synchronizedMap(new IdentityHashMap<>());
+
+	//调用计数在所有线程的调用路径上，使用LongAdder避免多个线程争用同一个缓存行
+	private final LongAdder invocationCount = new LongAdder();
+
+	private final LongAdder hitCount = new LongAdder();
+
+	private volatile boolean destroyed;
+
+	@Override
+	public Object getTarget() {
+		if (destroyed) {
+			throw destroyedException();
+		}
+		invocationCount.increment();
+		Object target = targetInThread.get();
+		if (target == null) {
+			purgeStaleTargets();
+			target = newPrototypeInstance();
+			//与destroy互斥，销毁开始之后创建的目标对象不再登记，直接销毁
+			boolean registered;
+			synchronized (targetSet) {
+				registered = !destroyed;
+				if (registered) {
+					targetSet.put(target, new WeakReference<>(Thread.currentThread()));
+				}
+			}
+			if (!registered) {
+				destroyPrototypeInstance(target);
+				throw destroyedException();
+			}
+			targetInThread.set(target);
+		} else {
+			hitCount.increment();
+		}
+		return target;
+	}
+
+	private BeansException destroyedException() {
+		return new BeansException("ThreadLocalTargetSource for bean '" + getTargetBeanName() + "' has been destroyed");
+	}
+
+	/**
+	 * 移除并销毁所属线程已经结束的目标对象，这些目标对象不会再被使用
+	 */
+	private void purgeStaleTargets() {
+		List<Object> staleTargets = null;
+		synchronized (targetSet) {
+			Iterator<Map.Entry<Object, WeakReference<Thread>>> it = targetSet.entrySet().iterator();
+			while (it.hasNext()) {
+				Map.Entry<Object, WeakReference<Thread>> entry = it.next();
+				if (isStale(entry.getValue())) {
+					if (staleTargets == null) {
+						staleTargets = new ArrayList<>();
+					}
+					//IdentityHashMap的Entry在remove之后失效，先取出目标对象
+					staleTargets.add(entry.getKey());
+					it.remove();
+				}
+			}
+		}
+		if (staleTargets != null) {
+			for (Object target : staleTargets) {
+				destroyPrototypeInstance(target);
+			}
+		}
+	}
+
+	private static boolean isStale(WeakReference<Thread> owner) {
+		Thread thread = owner.get();
+		return thread == null || !thread.isAlive();
+	}
+
+	/**
+	 * 销毁当前线程的目标对象，线程池中的线程结束任务时可以调用，下次调用时重新创建
+	 */
+	public void releaseCurrentTarget() {
+		Object target = targetInThread.get();
+		if (target != null) {
+			targetInThread.remove();
+			if (targetSet.remove(target) != null) {
+				destroyPrototypeInstance(target);
+			}
+		}
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		//其他线程的ThreadLocal无法在这里清除，目标对象销毁后随线程结束被回收
+		List<Object> targets;
+		synchronized (targetSet) {
+			destroyed = true;
+			targets = new ArrayList<>(targetSet.keySet());
+		}
+		for (Object target : targets) {
+			if (targetSet.remove(target) != null) {
+				destroyPrototypeInstance(target);
+			}
+		}
+		targetInThread.remove();
+	}
+
+	/**
+	 * 当前存活的目标对象数，即使用过该代理且目标对象还未销毁的线程数
+	 */
+	public int getObjectCount() {
+		return targetSet.size();
+	}
+
+	/**
+	 * 所属线程已经结束的目标对象数，不为0说明有线程使用过代理后退出，而其目标对象没有被释放，
+	 * 这些目标对象会在下一次未命中的调用时销毁
+	 */
+	public int getStaleCount() {
+		int count = 0;
+		synchronized (targetSet) {
+			for (WeakReference<Thread> owner : targetSet.values()) {
+				if (isStale(owner)) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	public long getInvocationCount() {
+		return invocationCount.sum();
+	}
+
+	/**
+	 * 直接命中当前线程已有目标对象的调用次数
+	 */
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+}
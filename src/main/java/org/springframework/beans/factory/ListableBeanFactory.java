@@ -20,6 +20,14 @@ public interface ListableBeanFactory extends BeanFactory {
 	 */
 	<T> Map<String, T> getBeansOfType(Class<T> type) throws BeansException;
 
+	/**
+	 * 返回类型为type（或其子类）的所有beanName，不会创建bean
+	 *
+	 * @param type
+	 * @return
+	 */
+	String[] getBeanNamesForType(Class<?> type);
+
 	/**
 	 * 返回定义的所有bean的名称
 	 *
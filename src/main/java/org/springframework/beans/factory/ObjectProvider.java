@@ -0,0 +1,40 @@
+package org.springframework.beans.factory;
+
+import org.springframework.beans.BeansException;
+
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * 延迟获取依赖的ObjectFactory
+ * <p>
+ * 注入点声明为ObjectProvider<T>时，注入的是一个查找句柄而不是bean本身，每次调用getObject时才从容器中获取，
+ * 因此不会在注入时提前创建依赖，prototype依赖每次都能拿到新的实例
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public interface ObjectProvider<T> extends ObjectFactory<T> {
+
+	/**
+	 * 返回唯一的匹配bean，没有匹配的bean时返回null，有多个匹配的bean时抛出异常
+	 *
+	 * @return
+	 * @throws BeansException
+	 */
+	T getIfAvailable() throws BeansException;
+
+	/**
+	 * 按定义顺序返回所有匹配的bean，bean在遍历时才创建
+	 *
+	 * @return
+	 */
+	Stream<T> stream();
+
+	default void ifAvailable(Consumer<T> dependencyConsumer) throws BeansException {
+		T dependency = getIfAvailable();
+		if (dependency != null) {
+			dependencyConsumer.accept(dependency);
+		}
+	}
+}
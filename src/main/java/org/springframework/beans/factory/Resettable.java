@@ -0,0 +1,14 @@
+package org.springframework.beans.factory;
+
+/**
+ * 可重置的bean
+ * <p>
+ * pooled作用域的bean归还到池中时调用reset，清除本次使用留下的状态，下一个借用者拿到的是干净的实例
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public interface Resettable {
+
+	void reset();
+}
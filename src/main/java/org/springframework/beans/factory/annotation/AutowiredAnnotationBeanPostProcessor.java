@@ -2,15 +2,23 @@ package org.springframework.beans.factory.annotation;
 
 import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.util.TypeUtil;
+import org.springframework.aop.TargetSource;
+import org.springframework.aop.framework.ProxyFactory;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.PropertyValues;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanFactoryAware;
 import org.springframework.beans.factory.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessor;
+import org.springframework.beans.factory.support.DependencyObjectProvider;
 import org.springframework.core.convert.ConversionService;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.function.Supplier;
 
 /**
  * 处理@Autowired和@Value注解的BeanPostProcessor
@@ -66,7 +74,15 @@ public class AutowiredAnnotationBeanPostProcessor implements InstantiationAwareB
 				// 检查是不是Qualifier注解
 				Qualifier qualifierAnnotation = field.getAnnotation(Qualifier.class);
 				Object dependentBean = null;
-				if (qualifierAnnotation != null) {
+				if (fieldType == ObjectProvider.class || fieldType == ObjectFactory.class || fieldType == Supplier.class) {
+					// 注入查找句柄，使用时才从容器中获取依赖
+					dependentBean = new DependencyObjectProvider<>(beanFactory, resolveProvidedType(field),
+							qualifierAnnotation != null ? qualifierAnnotation.value() : null);
+				} else if (field.isAnnotationPresent(Lazy.class)) {
+					// 注入延迟解析的代理对象，第一次调用方法时才从容器中获取依赖
+					dependentBean = buildLazyResolutionProxy(new DependencyObjectProvider<>(beanFactory, fieldType,
+							qualifierAnnotation != null ? qualifierAnnotation.value() : null));
+				} else if (qualifierAnnotation != null) {
 					dependentBeanName = qualifierAnnotation.value();
 					dependentBean = beanFactory.getBean(dependentBeanName, fieldType);
 				} else {
@@ -81,6 +97,72 @@ public class AutowiredAnnotationBeanPostProcessor implements InstantiationAwareB
 		return pvs;
 	}
 
+	/**
+	 * 解析ObjectProvider<T>等类型中的T，无法解析时（原始类型、通配符、类型变量）直接报错，
+	 * 而不是按Object查找，匹配到任意一个bean或者报出令人困惑的“多个bean”错误
+	 */
+	private Class<?> resolveProvidedType(Field field) {
+		Type genericType = field.getGenericType();
+		if (genericType instanceof ParameterizedType) {
+			Type providedType = ((ParameterizedType) genericType).getActualTypeArguments()[0];
+			if (providedType instanceof Class) {
+				return (Class<?>) providedType;
+			}
+			if (providedType instanceof ParameterizedType) {
+				return (Class<?>) ((ParameterizedType) providedType).getRawType();
+			}
+		}
+		throw new BeansException("Cannot resolve the provided type of " + field.getType().getSimpleName() + " field '"
+				+ field.getName() + "' in " + field.getDeclaringClass().getName()
+				+ ", a concrete type argument is required");
+	}
+
+	private Object buildLazyResolutionProxy(DependencyObjectProvider<?> provider) {
+		ProxyFactory proxyFactory = new ProxyFactory();
+		proxyFactory.setTargetSource(new LazyResolutionTargetSource(provider));
+		//接口类型使用JDK动态代理，类使用cglib
+		proxyFactory.setProxyTargetClass(!provider.getType().isInterface());
+		return proxyFactory.getProxy();
+	}
+
+	/**
+	 * 每次调用都通过查找句柄获取依赖：单例依赖只是一次缓存查找，prototype依赖每次调用拿到新的实例
+	 */
+	private static class LazyResolutionTargetSource extends TargetSource {
+
+		private final DependencyObjectProvider<?> provider;
+
+		private LazyResolutionTargetSource(DependencyObjectProvider<?> provider) {
+			this.provider = provider;
+		}
+
+		@Override
+		public Object getTarget() {
+			return provider.getObject();
+		}
+
+		@Override
+		public Class<?> getTargetType() {
+			return provider.getType();
+		}
+
+		@Override
+		public Class<?>[] getTargetClass() {
+			Class<?> type = provider.getType();
+			return type.isInterface() ? new Class<?>[]{type} : type.getInterfaces();
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return this == other;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(this);
+		}
+	}
+
 	@Override
 	public Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName) throws BeansException {
 		return null;
@@ -0,0 +1,20 @@
+package org.springframework.beans.factory.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 与@Autowired一起标注在属性上，注入延迟解析的代理对象，第一次调用代理的方法时才从容器中获取依赖
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD})
+@Documented
+public @interface Lazy {
+
+}
@@ -48,6 +48,11 @@ public class BeanDefinition {
 	 */
 	private boolean lazyInit=false;
 
+	/*
+		prototype的bean是否从模板实例复制，只适用于每次填充的属性值都相同的bean
+	 */
+	private boolean templateClone = false;
+
 	public BeanDefinition(Class beanClass) {
 		this(beanClass, null);
 	}
@@ -63,6 +68,10 @@ public class BeanDefinition {
 		this.prototype = SCOPE_PROTOTYPE.equals(scope);
 	}
 
+	public String getScope() {
+		return scope;
+	}
+
 	public boolean isSingleton() {
 		return this.singleton;
 	}
@@ -123,4 +132,12 @@ public class BeanDefinition {
 	public boolean isLazyInit(){
 		return lazyInit;
 	}
+
+	public boolean isTemplateClone() {
+		return templateClone;
+	}
+
+	public void setTemplateClone(boolean templateClone) {
+		this.templateClone = templateClone;
+	}
 }
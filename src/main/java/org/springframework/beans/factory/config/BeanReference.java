@@ -10,12 +10,23 @@ public class BeanReference {
 
 	private final String beanName;
 
+	//是否延迟解析，为true且引用的是懒加载单例时注入延迟代理
+	private final boolean lazy;
 
 	public BeanReference(String beanName) {
+		this(beanName, false);
+	}
+
+	public BeanReference(String beanName, boolean lazy) {
 		this.beanName = beanName;
+		this.lazy = lazy;
 	}
 
 	public String getBeanName() {
 		return beanName;
 	}
+
+	public boolean isLazy() {
+		return lazy;
+	}
 }
@@ -20,6 +20,31 @@ public interface ConfigurableBeanFactory extends HierarchicalBeanFactory, Single
 	 */
 	void destroySingletons();
 
+	/**
+	 * 注册自定义作用域
+	 *
+	 * @param scopeName 作用域名称，不能是singleton或prototype
+	 * @param scope
+	 */
+	void registerScope(String scopeName, Scope scope);
+
+	/**
+	 * 返回已注册的作用域，不存在时返回null
+	 *
+	 * @param scopeName
+	 * @return
+	 */
+	Scope getRegisteredScope(String scopeName);
+
+	/**
+	 * 按BeanDefinition销毁一个由容器创建但不受容器管理生命周期的bean实例（例如prototype bean）
+	 * 依次执行DisposableBean#destroy和destroy-method
+	 *
+	 * @param beanName
+	 * @param beanInstance
+	 */
+	void destroyBean(String beanName, Object beanInstance);
+
 	void addEmbeddedValueResolver(StringValueResolver valueResolver);
 
 	String resolveEmbeddedValue(String value);
@@ -0,0 +1,40 @@
+package org.springframework.beans.factory.config;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ConfigurableListableBeanFactory;
+
+/**
+ * 在xml中注册自定义作用域
+ * <pre>
+ * &lt;bean class="org.springframework.beans.factory.config.CustomScopeConfigurer"&gt;
+ *     &lt;property name="scopeName" value="ttl"/&gt;
+ *     &lt;property name="scope" ref="ttlScope"/&gt;
+ * &lt;/bean&gt;
+ * </pre>
+ * BeanFactoryPostProcessor在所有普通bean实例化之前执行，保证使用该作用域的bean创建时作用域已经注册
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public class CustomScopeConfigurer implements BeanFactoryPostProcessor {
+
+	private String scopeName;
+
+	private Scope scope;
+
+	@Override
+	public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+		if (scopeName == null || scope == null) {
+			throw new BeansException("Properties 'scopeName' and 'scope' are required");
+		}
+		beanFactory.registerScope(scopeName, scope);
+	}
+
+	public void setScopeName(String scopeName) {
+		this.scopeName = scopeName;
+	}
+
+	public void setScope(Scope scope) {
+		this.scope = scope;
+	}
+}
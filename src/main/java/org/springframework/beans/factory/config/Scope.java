@@ -0,0 +1,40 @@
+package org.springframework.beans.factory.config;
+
+import org.springframework.beans.factory.ObjectFactory;
+
+/**
+ * 自定义作用域
+ * <p>
+ * singleton和prototype之外的作用域通过ConfigurableBeanFactory#registerScope注册，
+ * BeanFactory#getBean遇到这些作用域的bean时，交给对应的Scope决定复用已有实例还是通过objectFactory创建新实例
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public interface Scope {
+
+	/**
+	 * 返回作用域中名为name的对象，不存在时通过objectFactory创建并放入作用域
+	 *
+	 * @param name          beanName
+	 * @param objectFactory 创建bean的工厂
+	 * @return
+	 */
+	Object get(String name, ObjectFactory<?> objectFactory);
+
+	/**
+	 * 从作用域中移除名为name的对象，同时移除其销毁回调（不执行），不存在时返回null
+	 *
+	 * @param name
+	 * @return
+	 */
+	Object remove(String name);
+
+	/**
+	 * 注册对象的销毁回调，作用域结束时由Scope执行
+	 *
+	 * @param name
+	 * @param callback
+	 */
+	void registerDestructionCallback(String name, Runnable callback);
+}
@@ -1,21 +1,31 @@
 package org.springframework.beans.factory.support;
 
 import cn.hutool.core.bean.BeanUtil;
-import cn.hutool.core.util.ClassUtil;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.core.util.TypeUtil;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.target.LazyInitTargetSource;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.PropertyValue;
 import org.springframework.beans.PropertyValues;
 import org.springframework.beans.factory.BeanFactoryAware;
 import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.FactoryBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Lazy;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.config.*;
 import org.springframework.core.convert.ConversionService;
 
-import java.lang.reflect.Method;
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 /**
  * @author derekyi
@@ -26,6 +36,13 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 
 	private InstantiationStrategy instantiationStrategy = new SimpleInstantiationStrategy();
 
+	//懒加载单例bean的延迟代理，同一个beanName的所有引用共用一个代理对象
+	private final Map<String, Object> lazyResolutionProxies = new ConcurrentHashMap<>();
+
+	//templateClone的prototype bean的模板实例，模板实例的空白副本仍由当前的InstantiationStrategy创建
+	private final TemplateCloneInstantiationStrategy templateCloneInstantiationStrategy =
+			new TemplateCloneInstantiationStrategy(this::createBeanInstance);
+
 	@Override
 	protected Object createBean(String beanName, BeanDefinition beanDefinition) throws BeansException {
 		/*
@@ -90,6 +107,14 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 	protected Object doCreateBean(String beanName, BeanDefinition beanDefinition) {
 		Object bean;
 		try {
+			boolean templateClone = beanDefinition.isPrototype() && beanDefinition.isTemplateClone();
+			if (templateClone) {
+				// 已有模板实例时直接复制模板的字段，跳过属性填充，初始化方法和BeanPostProcessor仍然对每个副本执行
+				bean = templateCloneInstantiationStrategy.instantiateFromTemplate(beanName, beanDefinition);
+				if (bean != null) {
+					return initializeBean(beanName, bean, beanDefinition);
+				}
+			}
 			// 实例化
 			bean = createBeanInstance(beanDefinition);
 
@@ -142,6 +167,11 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 			applyBeanPostProcessorsBeforeApplyingPropertyValues(beanName, bean, beanDefinition);
 			// 为bean填充属性
 			applyPropertyValues(beanName, bean, beanDefinition);
+			if (templateClone) {
+				// 保存填充完属性、尚未初始化的副本作为模板
+				checkTemplateCloneFields(beanName, bean);
+				templateCloneInstantiationStrategy.registerTemplate(beanName, beanDefinition, bean);
+			}
 			// 执行bean的初始化方法和BeanPostProcessor的前置和后置处理方法
 			bean = initializeBean(beanName, bean, beanDefinition);
 		} catch (Exception e) {
@@ -246,6 +276,19 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 			if (bean instanceof DisposableBean || StrUtil.isNotEmpty(beanDefinition.getDestroyMethodName())) {
 				registerDisposableBean(beanName, new DisposableBeanAdapter(bean, beanName, beanDefinition));
 			}
+		} else if (!beanDefinition.isPrototype()) {
+			//自定义作用域的bean，由Scope在作用域结束时执行销毁方法
+			Scope scope = getRegisteredScope(beanDefinition.getScope());
+			if (scope != null && (bean instanceof DisposableBean || StrUtil.isNotEmpty(beanDefinition.getDestroyMethodName()))) {
+				DisposableBeanAdapter disposableBean = new DisposableBeanAdapter(bean, beanName, beanDefinition);
+				scope.registerDestructionCallback(beanName, () -> {
+					try {
+						disposableBean.destroy();
+					} catch (Exception ex) {
+						throw new BeansException("Destroy method on bean with name '" + beanName + "' threw an exception", ex);
+					}
+				});
+			}
 		}
 	}
 
@@ -273,7 +316,7 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 				if (value instanceof BeanReference) {
 					// beanA依赖beanB，先实例化beanB
 					BeanReference beanReference = (BeanReference) value;
-					value = getBean(beanReference.getBeanName());
+					value = resolveBeanReference(beanReference);
 				} else {
 					//类型转换
 					Class<?> sourceType = value.getClass();
@@ -294,6 +337,105 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 		}
 	}
 
+	/**
+	 * 解析属性中对其他bean的引用，默认直接getBean
+	 * <p>
+	 * 注入点声明了延迟解析（lazy="true"）且引用的是尚未创建的懒加载单例bean时，注入延迟代理，
+	 * 第一次调用代理的方法时才创建目标bean，避免注入导致提前创建。延迟代理是目标类的CGLIB子类：
+	 * 创建代理时目标类的构造函数会执行一次，代理对象自身的字段是空的，只能通过方法访问目标bean，
+	 * 直接读取字段或者基于字段的equals会看到代理对象的字段
+	 *
+	 * @param beanReference 对其他bean的引用
+	 * @return
+	 */
+	protected Object resolveBeanReference(BeanReference beanReference) {
+		String beanName = beanReference.getBeanName();
+		if (!beanReference.isLazy() || !containsBeanDefinition(beanName)) {
+			return getBean(beanName);
+		}
+		BeanDefinition beanDefinition = getBeanDefinition(beanName);
+		Class<?> beanClass = beanDefinition.getBeanClass();
+		if (!beanDefinition.isLazyInit() || !beanDefinition.isSingleton()
+				|| FactoryBean.class.isAssignableFrom(beanClass)) {
+			return getBean(beanName);
+		}
+		Object singleton = getSingleton(beanName);
+		if (singleton != null) {
+			return getObjectForBeanInstance(singleton, beanName);
+		}
+		Object proxy = lazyResolutionProxies.get(beanName);
+		if (proxy == null) {
+			//显式要求了延迟解析，无法生成子类时直接报错，而不是悄悄退回到提前创建
+			if (Modifier.isFinal(beanClass.getModifiers()) || !hasNonPrivateNoArgConstructor(beanClass)) {
+				throw new BeansException("Cannot create lazy resolution proxy for bean '" + beanName
+						+ "': class " + beanClass.getName() + " is final or has no non-private no-arg constructor");
+			}
+			ProxyFactory proxyFactory = new ProxyFactory();
+			proxyFactory.setTargetSource(new LazyInitTargetSource(this, beanName));
+			proxy = proxyFactory.getProxy();
+			Object existing = lazyResolutionProxies.putIfAbsent(beanName, proxy);
+			if (existing != null) {
+				proxy = existing;
+			}
+		}
+		return proxy;
+	}
+
+	private static boolean hasNonPrivateNoArgConstructor(Class<?> beanClass) {
+		try {
+			return !Modifier.isPrivate(beanClass.getDeclaredConstructor().getModifiers());
+		} catch (NoSuchMethodException ex) {
+			return false;
+		}
+	}
+
+	/**
+	 * 模板的字段被所有副本浅拷贝共享，保存模板之前检查填充完的字段：
+	 * 注解注入的依赖必须是单例bean（prototype和其他作用域的实例不能共享），集合、Map和数组等可变容器也不能共享。
+	 * 查找句柄（ObjectProvider、ObjectFactory、Supplier）和@Lazy代理每次调用时才从容器获取依赖，可以共享
+	 *
+	 * @param beanName
+	 * @param bean 填充完属性的bean
+	 */
+	private void checkTemplateCloneFields(String beanName, Object bean) throws IllegalAccessException {
+		for (Class<?> current = bean.getClass(); current != null && current != Object.class; current = current.getSuperclass()) {
+			for (Field field : current.getDeclaredFields()) {
+				if (Modifier.isStatic(field.getModifiers())) {
+					continue;
+				}
+				field.setAccessible(true);
+				Object value = field.get(bean);
+				if (value == null) {
+					continue;
+				}
+				if (value instanceof Collection || value instanceof Map || value.getClass().isArray()) {
+					throw new BeansException("Bean '" + beanName + "' with templateClone cannot have mutable field '"
+							+ field.getName() + "' of type " + value.getClass().getName() + ": clones would share the same instance");
+				}
+				boolean injected = field.isAnnotationPresent(Autowired.class) || field.isAnnotationPresent(Value.class);
+				if (injected && !field.isAnnotationPresent(Lazy.class) && !(value instanceof ObjectFactory)
+						&& !(value instanceof Supplier) && !isSimpleValue(value) && !isSingletonInstance(value)) {
+					throw new BeansException("Bean '" + beanName + "' with templateClone cannot inject non-singleton dependency into field '"
+							+ field.getName() + "': clones would share the same instance");
+				}
+			}
+		}
+	}
+
+	private static boolean isSimpleValue(Object value) {
+		return value instanceof CharSequence || value instanceof Number || value instanceof Boolean
+				|| value instanceof Character || value instanceof Enum || value instanceof Class;
+	}
+
+	/**
+	 * BeanDefinition被替换时丢弃旧的模板实例
+	 *
+	 * @param beanName
+	 */
+	protected void resetTemplateInstance(String beanName) {
+		templateCloneInstantiationStrategy.removeTemplate(beanName);
+	}
+
 	protected Object initializeBean(String beanName, Object bean, BeanDefinition beanDefinition) {
 		/*
 			Aware接口相关内容，如果bean实现了BeanFactoryAware接口
@@ -368,14 +510,14 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 		if (bean instanceof InitializingBean) {
 			((InitializingBean) bean).afterPropertiesSet();
 		}
-		//通过反射执行init-method
+		//执行init-method，方法按(类, 方法名)缓存为MethodHandle
 		String initMethodName = beanDefinition.getInitMethodName();
 		if (StrUtil.isNotEmpty(initMethodName) && !(bean instanceof InitializingBean && "afterPropertiesSet".equals(initMethodName))) {
-			Method initMethod = ClassUtil.getPublicMethod(beanDefinition.getBeanClass(), initMethodName);
+			MethodHandle initMethod = LifecycleMethods.getLifecycleMethod(beanDefinition.getBeanClass(), initMethodName);
 			if (initMethod == null) {
 				throw new BeansException("Could not find an init method named '" + initMethodName + "' on bean with name '" + beanName + "'");
 			}
-			initMethod.invoke(bean);
+			LifecycleMethods.invoke(initMethod, bean);
 		}
 	}
 
@@ -1,17 +1,23 @@
 package org.springframework.beans.factory.support;
 
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.FactoryBean;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.beans.factory.config.Scope;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.util.StringValueResolver;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author derekyi
@@ -27,6 +33,8 @@ public abstract class AbstractBeanFactory extends DefaultSingletonBeanRegistry i
 
 	private ConversionService conversionService;
 
+	private final Map<String, Scope> scopes = new ConcurrentHashMap<>(8);
+
 
 	@Override
 	public Object getBean(String name) throws BeansException {
@@ -38,6 +46,16 @@ public abstract class AbstractBeanFactory extends DefaultSingletonBeanRegistry i
 		}
 
 		BeanDefinition beanDefinition = getBeanDefinition(name);
+		if (!beanDefinition.isSingleton() && !beanDefinition.isPrototype()) {
+			//自定义作用域，由Scope决定是否复用已有实例
+			String scopeName = beanDefinition.getScope();
+			Scope scope = this.scopes.get(scopeName);
+			if (scope == null) {
+				throw new BeansException("No Scope registered for scope name '" + scopeName + "'");
+			}
+			Object scopedInstance = scope.get(name, () -> createBean(name, beanDefinition));
+			return getObjectForBeanInstance(scopedInstance, name);
+		}
 		//创建单例bean之后会把bean放入一级缓存
 		Object bean = createBean(name, beanDefinition);
 		return getObjectForBeanInstance(bean, name);
@@ -90,6 +108,55 @@ public abstract class AbstractBeanFactory extends DefaultSingletonBeanRegistry i
 
 	protected abstract BeanDefinition getBeanDefinition(String beanName) throws BeansException;
 
+	/**
+	 * 实现了DisposableBean的作用域随BeanFactory一起销毁，销毁作用域中剩余的实例
+	 * <p>
+	 * 作用域中的实例可能依赖单例bean，所以先于单例bean销毁；同一个作用域注册在多个名字下或者本身也是单例bean时只销毁一次
+	 */
+	@Override
+	public void destroySingletons() {
+		Set<Scope> destroyedScopes = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (Map.Entry<String, Scope> entry : scopes.entrySet()) {
+			if (entry.getValue() instanceof DisposableBean && destroyedScopes.add(entry.getValue())) {
+				try {
+					((DisposableBean) entry.getValue()).destroy();
+				} catch (Exception e) {
+					throw new BeansException("Destroy of scope '" + entry.getKey() + "' threw an exception", e);
+				}
+			}
+		}
+		for (String beanName : getDisposableBeanNames()) {
+			if (destroyedScopes.contains(getSingleton(beanName))) {
+				removeDisposableBean(beanName);
+			}
+		}
+		super.destroySingletons();
+	}
+
+	@Override
+	public void registerScope(String scopeName, Scope scope) {
+		if (BeanDefinition.SCOPE_SINGLETON.equals(scopeName) || BeanDefinition.SCOPE_PROTOTYPE.equals(scopeName)) {
+			throw new BeansException("Cannot replace existing scopes 'singleton' and 'prototype'");
+		}
+		this.scopes.put(scopeName, scope);
+	}
+
+	@Override
+	public Scope getRegisteredScope(String scopeName) {
+		return this.scopes.get(scopeName);
+	}
+
+	@Override
+	public void destroyBean(String beanName, Object beanInstance) {
+		try {
+			new DisposableBeanAdapter(beanInstance, beanName, getBeanDefinition(beanName)).destroy();
+		} catch (BeansException ex) {
+			throw ex;
+		} catch (Exception ex) {
+			throw new BeansException("Destroy method on bean with name '" + beanName + "' threw an exception", ex);
+		}
+	}
+
 	@Override
 	public void addBeanPostProcessor(BeanPostProcessor beanPostProcessor) {
 		//有则覆盖
@@ -1,8 +1,11 @@
 package org.springframework.beans.factory.support;
 
+import cn.hutool.core.util.StrUtil;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.PropertyValue;
 import org.springframework.beans.factory.ConfigurableListableBeanFactory;
 import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanReference;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -16,9 +19,74 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 
 	private Map<String, BeanDefinition> beanDefinitionMap = new ConcurrentHashMap<>(256);
 
+	//按类型查找beanName的缓存，注册新的BeanDefinition时清空
+	private final Map<Class<?>, String[]> allBeanNamesByType = new ConcurrentHashMap<>(64);
+
+	/**
+	 * templateClone的副本浅拷贝模板的字段，引用非单例bean的属性会被所有副本共享同一个实例，注册时拒绝。
+	 * 被引用的bean可能在之后注册，所以两个方向都要检查
+	 *
+	 * @param beanName
+	 * @param beanDefinition
+	 */
+	private void validateTemplateClone(String beanName, BeanDefinition beanDefinition) {
+		if (beanDefinition.isPrototype() && beanDefinition.isTemplateClone()) {
+			for (PropertyValue propertyValue : beanDefinition.getPropertyValues().getPropertyValues()) {
+				if (propertyValue.getValue() instanceof BeanReference) {
+					String refName = ((BeanReference) propertyValue.getValue()).getBeanName();
+					BeanDefinition refDefinition = beanDefinitionMap.get(refName);
+					if (refDefinition != null && !refDefinition.isSingleton()) {
+						throw templateCloneException(beanName, propertyValue.getName(), refName);
+					}
+				}
+			}
+		}
+		if (!beanDefinition.isSingleton()) {
+			for (Map.Entry<String, BeanDefinition> entry : beanDefinitionMap.entrySet()) {
+				BeanDefinition other = entry.getValue();
+				if (!other.isPrototype() || !other.isTemplateClone()) {
+					continue;
+				}
+				for (PropertyValue propertyValue : other.getPropertyValues().getPropertyValues()) {
+					if (propertyValue.getValue() instanceof BeanReference
+							&& beanName.equals(((BeanReference) propertyValue.getValue()).getBeanName())) {
+						throw templateCloneException(entry.getKey(), propertyValue.getName(), beanName);
+					}
+				}
+			}
+		}
+	}
+
+	private BeansException templateCloneException(String beanName, String propertyName, String refName) {
+		return new BeansException("Bean '" + beanName + "' with templateClone cannot reference non-singleton bean '"
+				+ refName + "' in property '" + propertyName + "': clones would share the same instance");
+	}
+
 	@Override
 	public void registerBeanDefinition(String beanName, BeanDefinition beanDefinition) {
+		validateLifecycleMethods(beanName, beanDefinition);
+		validateTemplateClone(beanName, beanDefinition);
 		beanDefinitionMap.put(beanName, beanDefinition);
+		allBeanNamesByType.clear();
+		resetTemplateInstance(beanName);
+	}
+
+	/**
+	 * 注册时检查init-method和destroy-method是否存在，解析结果同时缓存下来，创建和销毁bean时不再查找
+	 *
+	 * @param beanName
+	 * @param beanDefinition
+	 */
+	private void validateLifecycleMethods(String beanName, BeanDefinition beanDefinition) {
+		Class<?> beanClass = beanDefinition.getBeanClass();
+		String initMethodName = beanDefinition.getInitMethodName();
+		if (StrUtil.isNotEmpty(initMethodName) && LifecycleMethods.getLifecycleMethod(beanClass, initMethodName) == null) {
+			throw new BeansException("Could not find an init method named '" + initMethodName + "' on bean with name '" + beanName + "'");
+		}
+		String destroyMethodName = beanDefinition.getDestroyMethodName();
+		if (StrUtil.isNotEmpty(destroyMethodName) && LifecycleMethods.getLifecycleMethod(beanClass, destroyMethodName) == null) {
+			throw new BeansException("Couldn't find a destroy method named '" + destroyMethodName + "' on bean with name '" + beanName + "'");
+		}
 	}
 
 	@Override
@@ -53,32 +121,47 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	@Override
 	public <T> Map<String, T> getBeansOfType(Class<T> type) throws BeansException {
 		Map<String, T> result = new HashMap<>();
-		beanDefinitionMap.forEach((beanName, beanDefinition) -> {
-			Class beanClass = beanDefinition.getBeanClass();
-			// 检查type类能否被分配给beanClass类，即beanClass类是否是type类的子类
-			// 即所有type类的子类都会被选中
-			if (type.isAssignableFrom(beanClass)) {
-				T bean = (T) getBean(beanName);
-				result.put(beanName, bean);
-			}
-		});
+		for (String beanName : getBeanNamesForType(type)) {
+			T bean = (T) getBean(beanName);
+			result.put(beanName, bean);
+		}
 		return result;
 	}
 
-	public <T> T getBean(Class<T> requiredType) throws BeansException {
-		List<String> beanNames = new ArrayList<>();
-		for (Map.Entry<String, BeanDefinition> entry : beanDefinitionMap.entrySet()) {
-			Class beanClass = entry.getValue().getBeanClass();
-			if (requiredType.isAssignableFrom(beanClass)) {
-				beanNames.add(entry.getKey());
-			}
+	/**
+	 * 返回所有类型为type（或其子类）的beanName，结果按类型缓存，在注册新的BeanDefinition之前返回的是同一个数组实例
+	 * 调用方不应修改返回的数组
+	 *
+	 * @param type
+	 * @return
+	 */
+	@Override
+	public String[] getBeanNamesForType(Class<?> type) {
+		String[] beanNames = allBeanNamesByType.get(type);
+		if (beanNames == null) {
+			List<String> result = new ArrayList<>();
+			beanDefinitionMap.forEach((beanName, beanDefinition) -> {
+				Class beanClass = beanDefinition.getBeanClass();
+				// 检查type类能否被分配给beanClass类，即beanClass类是否是type类的子类
+				// 即所有type类的子类都会被选中
+				if (type.isAssignableFrom(beanClass)) {
+					result.add(beanName);
+				}
+			});
+			beanNames = result.toArray(new String[0]);
+			allBeanNamesByType.put(type, beanNames);
 		}
-		if (beanNames.size() == 1) {
-			return getBean(beanNames.get(0), requiredType);
+		return beanNames;
+	}
+
+	public <T> T getBean(Class<T> requiredType) throws BeansException {
+		String[] beanNames = getBeanNamesForType(requiredType);
+		if (beanNames.length == 1) {
+			return getBean(beanNames[0], requiredType);
 		}
 
 		throw new BeansException(requiredType + "expected single bean but found " +
-				beanNames.size() + ": " + beanNames);
+				beanNames.length + ": " + Arrays.toString(beanNames));
 	}
 
 	@Override
@@ -66,6 +66,26 @@ public class DefaultSingletonBeanRegistry implements SingletonBeanRegistry {
 		singletonFactories.remove(beanName); // 3
 	}
 
+	/**
+	 * 对象是否是已经创建（或者已经提前暴露）的单例bean
+	 *
+	 * @param bean
+	 * @return
+	 */
+	protected boolean isSingletonInstance(Object bean) {
+		for (Object singletonObject : singletonObjects.values()) {
+			if (singletonObject == bean) {
+				return true;
+			}
+		}
+		for (Object singletonObject : earlySingletonObjects.values()) {
+			if (singletonObject == bean) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	protected void addSingletonFactory(String beanName, ObjectFactory<?> singletonFactory) {
 		singletonFactories.put(beanName, singletonFactory);
 	}
@@ -74,6 +94,19 @@ public class DefaultSingletonBeanRegistry implements SingletonBeanRegistry {
 		disposableBeans.put(beanName, bean);
 	}
 
+	protected String[] getDisposableBeanNames() {
+		return disposableBeans.keySet().toArray(new String[0]);
+	}
+
+	/**
+	 * 移除单例bean的销毁回调，用于已经通过其他途径销毁的bean
+	 *
+	 * @param beanName
+	 */
+	protected void removeDisposableBean(String beanName) {
+		disposableBeans.remove(beanName);
+	}
+
 	public void destroySingletons() {
 		ArrayList<String> beanNames = new ArrayList<>(disposableBeans.keySet());
 		for (String beanName : beanNames) {
@@ -0,0 +1,82 @@
+package org.springframework.beans.factory.support;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * 注入到ObjectProvider/ObjectFactory/Supplier类型属性上的查找句柄
+ * <p>
+ * 按类型查找的beanName由BeanFactory#getBeanNamesForType缓存，每次获取只需按beanName取bean
+ * （单例直接命中缓存，prototype每次创建新实例），不会重复扫描BeanDefinition
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public class DependencyObjectProvider<T> implements ObjectProvider<T>, Supplier<T> {
+
+	private final ListableBeanFactory beanFactory;
+
+	private final Class<T> type;
+
+	//@Qualifier指定的beanName，为null时按类型查找
+	private final String qualifier;
+
+	public DependencyObjectProvider(ListableBeanFactory beanFactory, Class<T> type, String qualifier) {
+		this.beanFactory = beanFactory;
+		this.type = type;
+		this.qualifier = qualifier;
+	}
+
+	@Override
+	public T getObject() throws BeansException {
+		String beanName = resolveBeanName(true);
+		return beanFactory.getBean(beanName, type);
+	}
+
+	@Override
+	public T getIfAvailable() throws BeansException {
+		String beanName = resolveBeanName(false);
+		return beanName != null ? beanFactory.getBean(beanName, type) : null;
+	}
+
+	@Override
+	public Stream<T> stream() {
+		if (qualifier != null) {
+			return beanFactory.containsBean(qualifier) ? Stream.of(beanFactory.getBean(qualifier, type)) : Stream.empty();
+		}
+		return Arrays.stream(beanFactory.getBeanNamesForType(type)).map(beanName -> beanFactory.getBean(beanName, type));
+	}
+
+	@Override
+	public T get() {
+		return getObject();
+	}
+
+	public Class<T> getType() {
+		return type;
+	}
+
+	private String resolveBeanName(boolean required) {
+		if (qualifier != null) {
+			if (!required && !beanFactory.containsBean(qualifier)) {
+				return null;
+			}
+			return qualifier;
+		}
+		//按类型查找的结果由BeanFactory缓存，这里不会重新扫描BeanDefinition
+		String[] candidates = beanFactory.getBeanNamesForType(type);
+		if (candidates.length == 1) {
+			return candidates[0];
+		}
+		if (candidates.length == 0 && !required) {
+			return null;
+		}
+		throw new BeansException(type + " expected single bean but found " +
+				candidates.length + ": " + Arrays.toString(candidates));
+	}
+}
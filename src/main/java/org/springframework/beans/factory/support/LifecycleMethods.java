@@ -0,0 +1,90 @@
+package org.springframework.beans.factory.support;
+
+import cn.hutool.core.util.ClassUtil;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.WrongMethodTypeException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * init-method和destroy-method的解析缓存
+ * <p>
+ * 每个类的每个方法名只通过ClassUtil#getPublicMethod查找一次，结果转换为(Object)void的MethodHandle缓存起来（静态方法忽略bean参数），
+ * 不存在的方法也会缓存，prototype bean每次创建和销毁时不再重复反射查找
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public final class LifecycleMethods {
+
+	private static final MethodType CALLBACK_TYPE = MethodType.methodType(void.class, Object.class);
+
+	//方法不存在时缓存的占位对象
+	private static final Object NO_METHOD = new Object();
+
+	private static final ClassValue<Map<String, Object>> CACHE = new ClassValue<Map<String, Object>>() {
+		@Override
+		protected Map<String, Object> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<>(4);
+		}
+	};
+
+	private LifecycleMethods() {
+	}
+
+	/**
+	 * 返回type上名为methodName的无参public方法
+	 *
+	 * @return (Object)void类型的MethodHandle，方法不存在时返回null
+	 */
+	public static MethodHandle getLifecycleMethod(Class<?> type, String methodName) {
+		Map<String, Object> methods = CACHE.get(type);
+		Object handle = methods.get(methodName);
+		if (handle == null) {
+			handle = resolve(type, methodName);
+			methods.putIfAbsent(methodName, handle);
+		}
+		return handle != NO_METHOD ? (MethodHandle) handle : null;
+	}
+
+	private static Object resolve(Class<?> type, String methodName) {
+		Method method = ClassUtil.getPublicMethod(type, methodName);
+		if (method == null) {
+			return NO_METHOD;
+		}
+		try {
+			//非public类的public方法也需要能调用
+			method.setAccessible(true);
+		} catch (RuntimeException ex) {
+			//模块未开放时退回到普通的访问检查
+		}
+		try {
+			MethodHandle handle = MethodHandles.lookup().unreflect(method);
+			if (Modifier.isStatic(method.getModifiers())) {
+				//静态方法没有接收者参数，补一个被忽略的bean参数
+				handle = MethodHandles.dropArguments(handle, 0, Object.class);
+			}
+			return handle.asType(CALLBACK_TYPE);
+		} catch (IllegalAccessException | WrongMethodTypeException ex) {
+			return NO_METHOD;
+		}
+	}
+
+	/**
+	 * 执行生命周期方法，抛出方法本身的异常
+	 */
+	public static void invoke(MethodHandle method, Object bean) throws Exception {
+		try {
+			method.invokeExact(bean);
+		} catch (Exception | Error ex) {
+			throw ex;
+		} catch (Throwable ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package org.springframework.beans.factory.support;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanDefinition;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 从模板实例复制prototype bean的实例化策略
+ * <p>
+ * 属性值全部来自xml的property和@Value占位符的prototype bean，每次创建填充出来的状态都一样。
+ * 第一次创建时按正常流程填充属性，保存一份填充完成、尚未初始化的副本作为模板；
+ * 之后由委托的InstantiationStrategy创建空白实例，再复制模板的所有字段，
+ * 不再重复执行applyPropertyValues、类型转换和占位符解析
+ * <p>
+ * 每个类的字段复制逻辑只生成一次：每个字段的getter和setter组合成一个(Object, Object)void的MethodHandle，
+ * 复制时不需要反射查找字段，基本类型也不会装箱。
+ * <p>
+ * 字段是浅拷贝：模板保存的是@Autowired、@Value和property全部注入之后的状态，副本跳过
+ * InstantiationAwareBeanPostProcessor#postProcessAfterInstantiation、属性注入以及这些注入过程中的任何副作用（例如setter中的逻辑），
+ * 引用类型的字段和模板指向同一个对象，模板中的集合等可变对象会被所有副本共享。
+ * 因此只适合属性都是不可变值或者单例bean的prototype bean：property引用非单例bean的BeanDefinition在注册时被拒绝
+ * （DefaultListableBeanFactory#registerBeanDefinition），@Autowired、@Value注入了非单例bean或者字段持有集合、Map、数组的，
+ * 在保存模板之前被拒绝（AbstractAutowireCapableBeanFactory#checkTemplateCloneFields）；初始化方法和BeanPostProcessor仍然对每个副本执行
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public class TemplateCloneInstantiationStrategy implements InstantiationStrategy {
+
+	private static final MethodType COPY_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+	private static final ClassValue<MethodHandle[]> FIELD_COPIERS = new ClassValue<MethodHandle[]>() {
+		@Override
+		protected MethodHandle[] computeValue(Class<?> type) {
+			return buildFieldCopiers(type);
+		}
+	};
+
+	private final InstantiationStrategy delegate;
+
+	private final Map<String, Object> templates = new ConcurrentHashMap<>();
+
+	public TemplateCloneInstantiationStrategy(InstantiationStrategy delegate) {
+		this.delegate = delegate;
+	}
+
+	@Override
+	public Object instantiate(BeanDefinition beanDefinition) throws BeansException {
+		return delegate.instantiate(beanDefinition);
+	}
+
+	/**
+	 * 复制模板实例
+	 *
+	 * @return 模板实例的副本，还没有模板时返回null
+	 */
+	public Object instantiateFromTemplate(String beanName, BeanDefinition beanDefinition) throws BeansException {
+		Object template = templates.get(beanName);
+		if (template == null) {
+			return null;
+		}
+		Object bean = delegate.instantiate(beanDefinition);
+		if (bean.getClass() != template.getClass()) {
+			//BeanDefinition的beanClass被修改过，模板失效
+			templates.remove(beanName, template);
+			return null;
+		}
+		copyFields(template, bean);
+		return bean;
+	}
+
+	/**
+	 * 保存已经填充完属性的bean的副本作为模板，bean本身交给调用方继续初始化
+	 */
+	public void registerTemplate(String beanName, BeanDefinition beanDefinition, Object populatedBean) throws BeansException {
+		Object template = delegate.instantiate(beanDefinition);
+		if (template.getClass() != populatedBean.getClass()) {
+			return;
+		}
+		copyFields(populatedBean, template);
+		templates.putIfAbsent(beanName, template);
+	}
+
+	public void removeTemplate(String beanName) {
+		templates.remove(beanName);
+	}
+
+	private static void copyFields(Object source, Object target) {
+		try {
+			for (MethodHandle copier : FIELD_COPIERS.get(source.getClass())) {
+				copier.invokeExact(target, source);
+			}
+		} catch (Throwable ex) {
+			throw new BeansException("Failed to copy template instance of [" + source.getClass().getName() + "]", ex);
+		}
+	}
+
+	private static MethodHandle[] buildFieldCopiers(Class<?> type) {
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+		List<MethodHandle> copiers = new ArrayList<>();
+		for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+			for (Field field : current.getDeclaredFields()) {
+				if (Modifier.isStatic(field.getModifiers())) {
+					continue;
+				}
+				try {
+					field.setAccessible(true);
+					MethodHandle getter = lookup.unreflectGetter(field);
+					MethodHandle setter = lookup.unreflectSetter(field);
+					//(target, source) -> target.field = source.field
+					copiers.add(MethodHandles.filterArguments(setter, 1, getter).asType(COPY_TYPE));
+				} catch (Exception ex) {
+					throw new BeansException("Cannot copy field [" + field + "] of template instance", ex);
+				}
+			}
+		}
+		return copiers.toArray(new MethodHandle[0]);
+	}
+}
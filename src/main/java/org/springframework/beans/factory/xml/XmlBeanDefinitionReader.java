@@ -36,10 +36,12 @@ public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
 	public static final String CLASS_ATTRIBUTE = "class";
 	public static final String VALUE_ATTRIBUTE = "value";
 	public static final String REF_ATTRIBUTE = "ref";
+	public static final String LAZY_ATTRIBUTE = "lazy";
 	public static final String INIT_METHOD_ATTRIBUTE = "init-method";
 	public static final String DESTROY_METHOD_ATTRIBUTE = "destroy-method";
 	public static final String SCOPE_ATTRIBUTE = "scope";
 	public static final String LAZYINIT_ATTRIBUTE = "lazyInit";
+	public static final String TEMPLATE_CLONE_ATTRIBUTE = "templateClone";
 	public static final String BASE_PACKAGE_ATTRIBUTE = "base-package";
 	public static final String COMPONENT_SCAN_ELEMENT = "component-scan";
 
@@ -133,6 +135,7 @@ public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
 			String destroyMethodName = bean.attributeValue(DESTROY_METHOD_ATTRIBUTE);	// 销毁方法
 			String beanScope = bean.attributeValue(SCOPE_ATTRIBUTE);	// 是否单例
 			String lazyInit = bean.attributeValue(LAZYINIT_ATTRIBUTE);	// 懒加载（即类加载时不直接创建实例）
+			String templateClone = bean.attributeValue(TEMPLATE_CLONE_ATTRIBUTE);	// prototype从模板实例复制
 			Class<?> clazz;
 			try {
 				// 通过反射获取类
@@ -151,6 +154,7 @@ public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
 			beanDefinition.setInitMethodName(initMethodName);
 			beanDefinition.setDestroyMethodName(destroyMethodName);
 			beanDefinition.setLazyInit(Boolean.parseBoolean(lazyInit));
+			beanDefinition.setTemplateClone(Boolean.parseBoolean(templateClone));
 			if (StrUtil.isNotEmpty(beanScope)) {
 				beanDefinition.setScope(beanScope);
 			}
@@ -172,7 +176,8 @@ public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
 
 				Object value = propertyValueAttribute;
 				if (StrUtil.isNotEmpty(propertyRefAttribute)) {
-					value = new BeanReference(propertyRefAttribute);
+					//<property name="car" ref="car" lazy="true"/>：引用懒加载单例时注入延迟代理
+					value = new BeanReference(propertyRefAttribute, Boolean.parseBoolean(property.attributeValue(LAZY_ATTRIBUTE)));
 				}
 				PropertyValue propertyValue = new PropertyValue(propertyNameAttribute, value);
 				beanDefinition.getPropertyValues().addPropertyValue(propertyValue);
@@ -25,4 +25,28 @@ public interface ConfigurableApplicationContext extends ApplicationContext {
 	 */
 	void registerShutdownHook();
 
+	/**
+	 * 注册事件监听器，事件发布者创建之前注册的监听器在registerListeners时加入
+	 *
+	 * @param listener
+	 */
+	void addApplicationListener(ApplicationListener<?> listener);
+
+	/**
+	 * 在运行时启用或停用某个Advisor，对已经创建的代理和之后创建的代理都生效
+	 *
+	 * @param advisorBeanName Advisor的beanName
+	 * @param enabled         是否启用
+	 * @throws BeansException 容器中没有自动代理创建器时抛出
+	 */
+	void setAdvisorEnabled(String advisorBeanName, boolean enabled) throws BeansException;
+
+	/**
+	 * Advisor是否处于启用状态
+	 *
+	 * @param advisorBeanName Advisor的beanName
+	 * @return 容器中没有自动代理创建器时返回true
+	 */
+	boolean isAdvisorEnabled(String advisorBeanName);
+
 }
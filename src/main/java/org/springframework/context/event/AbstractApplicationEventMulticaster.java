@@ -3,30 +3,470 @@ package org.springframework.context.event;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationListener;
+import org.springframework.core.Ordered;
 
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
+ * 事件监听器的注册和检索
+ * <p>
+ * 注册的监听器保存为不可变的快照数组，添加或删除监听器时复制一份、按Ordered排序后整体替换（copy-on-write），
+ * 发布事件读取快照时不需要加锁，也不会遇到ConcurrentModificationException。
+ * 监听器监听的事件类型在注册时沿类型层次解析一次，发布事件时按事件类型缓存匹配的监听器数组，
+ * 缓存属于快照，发布事件只需要一次map查找
+ * <p>
+ * BatchingApplicationListener收到的事件先放入该监听器的EventBatcher，按时间窗口或批次大小在后台线程池上批量交付，
+ * 每个监听器的批次依次交付，不同监听器之间互不阻塞。destroy时交付所有缓存的事件，之后的事件在发布线程上同步交付
+ * <p>
+ * 通过addApplicationListener(listener, capacity, overflowPolicy)注册的监听器拥有自己的有界邮箱（ListenerMailbox），
+ * 事件放入邮箱后由mailboxExecutor异步交给监听器，邮箱满时按OverflowPolicy处理。
+ * 邮箱中监听器抛出的异常交给handleListenerError，事件放入邮箱即视为该监听器已经完成发布
+ * <p>
+ * 订阅了路由key的监听器（RoutedApplicationListener，或者通过addApplicationListener(listener, routingKeys)注册）
+ * 只收到路由key匹配的RoutableEvent。有订阅者的路由key在创建快照时建立索引，
+ * 发布带路由key的事件时按(路由key, 事件类型)缓存匹配的监听器，没有订阅者的路由key直接使用按事件类型缓存的结果
+ *
  * @author derekyi
  * @date 2020/12/5
  */
-public abstract class AbstractApplicationEventMulticaster implements ApplicationEventMulticaster, BeanFactoryAware {
+public abstract class AbstractApplicationEventMulticaster implements ApplicationEventMulticaster, BeanFactoryAware, DisposableBean {
 
-	public final Set<ApplicationListener<ApplicationEvent>> applicationListeners = new HashSet<>();
+	private static final ApplicationListener<ApplicationEvent>[] NO_LISTENERS = castListener(new ApplicationListener<?>[0]);
+
+	//注册的监听器快照，修改时在registryLock中创建新的快照整体替换，发布事件时无锁读取
+	private volatile ListenerRegistry registry = new ListenerRegistry(NO_LISTENERS, Collections.emptyMap());
+
+	private final Object registryLock = new Object();
+
+	//监听器在注册时解析出的事件类型，无法解析时（例如lambda）为ApplicationEvent
+	private final Map<ApplicationListener<?>, Class<?>> listenerEventTypes = new ConcurrentHashMap<>();
+
+	//BatchingApplicationListener -> 该监听器的事件缓存
+	private final Map<ApplicationListener<?>, EventBatcher> batchers = new ConcurrentHashMap<>();
+
+	private volatile ScheduledExecutorService batchScheduler;
+
+	//监听器 -> 该监听器的有界邮箱
+	private final Map<ApplicationListener<?>, ListenerMailbox> mailboxes = new ConcurrentHashMap<>();
+
+	//没有邮箱时发布事件不需要查找mailboxes
+	private volatile boolean hasMailboxes;
+
+	//处理邮箱的执行器，没有设置时使用内部的守护线程池
+	private Executor mailboxExecutor;
+
+	private ExecutorService defaultMailboxExecutor;
 
 	private BeanFactory beanFactory;
 
 	@Override
 	public void addApplicationListener(ApplicationListener<?> listener) {
-		applicationListeners.add((ApplicationListener<ApplicationEvent>) listener);
+		Collection<String> routingKeys = null;
+		if (listener instanceof RoutedApplicationListener) {
+			routingKeys = ((RoutedApplicationListener<?>) listener).getRoutingKeys();
+		}
+		addApplicationListener(listener, routingKeys);
+	}
+
+	/**
+	 * 注册只订阅部分路由key的监听器，重复注册时以最后一次的路由key为准
+	 *
+	 * @param listener
+	 * @param routingKeys 订阅的路由key，为空时收到所有事件
+	 */
+	public void addApplicationListener(ApplicationListener<?> listener, Collection<String> routingKeys) {
+		Class<?> eventType = resolveDeclaredEventType(listener.getClass());
+		if (listener instanceof BatchingApplicationListener) {
+			batchers.computeIfAbsent(listener, key ->
+					new EventBatcher(castListener(listener), getBatchScheduler(), this::handleListenerError));
+		}
+		synchronized (this.registryLock) {
+			listenerEventTypes.put(listener, eventType);
+			ListenerRegistry current = this.registry;
+			List<ApplicationListener<ApplicationEvent>> listeners = new ArrayList<>(Arrays.asList(current.listeners));
+			if (!listeners.contains(listener)) {
+				listeners.add(castListener(listener));
+			}
+			Map<ApplicationListener<?>, Set<String>> listenerRoutingKeys = new HashMap<>(current.listenerRoutingKeys);
+			if (routingKeys != null && !routingKeys.isEmpty()) {
+				listenerRoutingKeys.put(listener, Collections.unmodifiableSet(new HashSet<>(routingKeys)));
+			} else {
+				listenerRoutingKeys.remove(listener);
+			}
+			this.registry = new ListenerRegistry(sortListeners(listeners), listenerRoutingKeys);
+		}
+	}
+
+	/**
+	 * 注册带有界邮箱的监听器
+	 *
+	 * @param listener
+	 * @param capacity       邮箱容量
+	 * @param overflowPolicy 邮箱满时的处理方式
+	 * @return 监听器的邮箱，可以读取队列深度和丢弃计数
+	 */
+	public ListenerMailbox addApplicationListener(ApplicationListener<?> listener, int capacity, ListenerMailbox.OverflowPolicy overflowPolicy) {
+		ListenerMailbox mailbox = new ListenerMailbox(castListener(listener), capacity,
+				overflowPolicy, getMailboxExecutor(), this::doInvokeListener, this::handleListenerError);
+		mailboxes.put(listener, mailbox);
+		hasMailboxes = true;
+		addApplicationListener(listener);
+		return mailbox;
+	}
+
+	/**
+	 * 返回监听器的邮箱，没有邮箱时返回null
+	 */
+	public ListenerMailbox getListenerMailbox(ApplicationListener<?> listener) {
+		return mailboxes.get(listener);
 	}
 
 	@Override
 	public void removeApplicationListener(ApplicationListener<?> listener) {
-		applicationListeners.remove(listener);
+		synchronized (this.registryLock) {
+			ListenerRegistry current = this.registry;
+			List<ApplicationListener<ApplicationEvent>> listeners = new ArrayList<>(Arrays.asList(current.listeners));
+			listeners.remove(listener);
+			Map<ApplicationListener<?>, Set<String>> listenerRoutingKeys = new HashMap<>(current.listenerRoutingKeys);
+			listenerRoutingKeys.remove(listener);
+			this.registry = new ListenerRegistry(listeners.toArray(NO_LISTENERS), listenerRoutingKeys);
+			listenerEventTypes.remove(listener);
+		}
+		mailboxes.remove(listener);
+		EventBatcher batcher = batchers.remove(listener);
+		if (batcher != null) {
+			try {
+				batcher.close(TimeUnit.SECONDS.toMillis(10));
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * 返回当前注册的所有监听器，按Ordered排序
+	 */
+	public List<ApplicationListener<ApplicationEvent>> getApplicationListeners() {
+		return Collections.unmodifiableList(Arrays.asList(registry.listeners));
+	}
+
+	/**
+	 * 返回监听该事件的监听器
+	 *
+	 * @param event
+	 * @return
+	 */
+	protected ApplicationListener<ApplicationEvent>[] getApplicationListeners(ApplicationEvent event) {
+		ListenerRegistry current = this.registry;
+		Class<?> eventType = event.getClass();
+		if (!current.subscribedRoutingKeys.isEmpty() && event instanceof RoutableEvent) {
+			String routingKey = ((RoutableEvent) event).getRoutingKey();
+			//没有订阅者的路由key与不带路由key的事件一样，只交给没有订阅路由key的监听器
+			if (routingKey != null && current.subscribedRoutingKeys.contains(routingKey)) {
+				Map<Class<?>, ApplicationListener<ApplicationEvent>[]> listenersByType =
+						current.routedRetrieverCache.computeIfAbsent(routingKey, key -> new ConcurrentHashMap<>(4));
+				ApplicationListener<ApplicationEvent>[] listeners = listenersByType.get(eventType);
+				if (listeners == null) {
+					listeners = retrieveApplicationListeners(current, eventType, routingKey);
+					listenersByType.put(eventType, listeners);
+				}
+				return listeners;
+			}
+		}
+		//缓存属于快照，快照替换之后旧的缓存随之失效，这里不需要加锁
+		ApplicationListener<ApplicationEvent>[] listeners = current.retrieverCache.get(eventType);
+		if (listeners == null) {
+			listeners = retrieveApplicationListeners(current, eventType, null);
+			current.retrieverCache.put(eventType, listeners);
+		}
+		return listeners;
+	}
+
+	/**
+	 * 按快照中的顺序返回监听该类型事件的监听器，订阅了路由key的监听器只在routingKey是其订阅的key时返回
+	 */
+	private ApplicationListener<ApplicationEvent>[] retrieveApplicationListeners(ListenerRegistry registry, Class<?> eventType, String routingKey) {
+		List<ApplicationListener<ApplicationEvent>> matched = new ArrayList<>();
+		for (ApplicationListener<ApplicationEvent> listener : registry.listeners) {
+			Set<String> subscribedKeys = registry.listenerRoutingKeys.get(listener);
+			if (subscribedKeys != null && (routingKey == null || !subscribedKeys.contains(routingKey))) {
+				continue;
+			}
+			if (supportsEventType(listener, eventType)) {
+				matched.add(listener);
+			}
+		}
+		return matched.toArray(NO_LISTENERS);
+	}
+
+	/**
+	 * 按Ordered排序，顺序相同的监听器保持注册顺序
+	 */
+	private static ApplicationListener<ApplicationEvent>[] sortListeners(List<ApplicationListener<ApplicationEvent>> listeners) {
+		listeners.sort(Comparator.comparingInt(listener ->
+				listener instanceof Ordered ? ((Ordered) listener).getOrder() : Ordered.LOWEST_PRECEDENCE));
+		return listeners.toArray(NO_LISTENERS);
+	}
+
+	/**
+	 * 监听器是否监听该类型的事件
+	 *
+	 * @param listener
+	 * @param eventType
+	 * @return
+	 */
+	protected boolean supportsEventType(ApplicationListener<?> listener, Class<?> eventType) {
+		if (listener instanceof SmartApplicationListener) {
+			return ((SmartApplicationListener) listener).supportsEventType(eventType);
+		}
+		Class<?> declaredEventType = listenerEventTypes.get(listener);
+		if (declaredEventType == null) {
+			declaredEventType = resolveDeclaredEventType(listener.getClass());
+		}
+		return declaredEventType.isAssignableFrom(eventType);
+	}
+
+	/**
+	 * 执行监听器
+	 * <p>
+	 * 无法解析事件类型的监听器（例如lambda）会收到所有事件，事件类型不匹配导致的ClassCastException忽略
+	 *
+	 * @param listener
+	 * @param event
+	 */
+	protected void invokeListener(ApplicationListener<ApplicationEvent> listener, ApplicationEvent event) {
+		if (hasMailboxes) {
+			ListenerMailbox mailbox = mailboxes.get(listener);
+			if (mailbox != null) {
+				mailbox.offer(event);
+				return;
+			}
+		}
+		doInvokeListener(listener, event);
+	}
+
+	private void doInvokeListener(ApplicationListener<ApplicationEvent> listener, ApplicationEvent event) {
+		if (listener instanceof BatchingApplicationListener) {
+			EventBatcher batcher = batchers.get(listener);
+			if (batcher != null) {
+				batcher.add(event);
+				return;
+			}
+		}
+		try {
+			listener.onApplicationEvent(event);
+		} catch (ClassCastException ex) {
+			if (listener instanceof SmartApplicationListener || listenerEventTypes.get(listener) != ApplicationEvent.class
+					|| !matchesEventClass(ex.getMessage(), event.getClass())) {
+				throw ex;
+			}
+		}
+	}
+
+	/**
+	 * 处理在后台线程上执行的监听器（例如邮箱中的监听器）抛出的异常，默认交给当前线程的UncaughtExceptionHandler
+	 *
+	 * @param ex
+	 */
+	protected void handleListenerError(Throwable ex) {
+		Thread thread = Thread.currentThread();
+		thread.getUncaughtExceptionHandler().uncaughtException(thread, ex);
+	}
+
+	private synchronized Executor getMailboxExecutor() {
+		if (mailboxExecutor != null) {
+			return mailboxExecutor;
+		}
+		if (defaultMailboxExecutor == null) {
+			defaultMailboxExecutor = Executors.newCachedThreadPool(runnable -> {
+				Thread thread = new Thread(runnable, "event-mailbox");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return defaultMailboxExecutor;
+	}
+
+	public void setMailboxExecutor(Executor mailboxExecutor) {
+		this.mailboxExecutor = mailboxExecutor;
+	}
+
+	private ScheduledExecutorService getBatchScheduler() {
+		ScheduledExecutorService result = this.batchScheduler;
+		if (result == null) {
+			synchronized (this) {
+				result = this.batchScheduler;
+				if (result == null) {
+					AtomicInteger threadCount = new AtomicInteger();
+					int poolSize = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+					ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(poolSize, runnable -> {
+						Thread thread = new Thread(runnable, "event-batch-delivery-" + threadCount.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					});
+					//关闭后不再执行定时交付，剩余的事件由destroy交付
+					executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+					result = executor;
+					this.batchScheduler = result;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * 处理完邮箱中的事件，交付所有缓存的批次并停止后台线程
+	 */
+	@Override
+	public void destroy() throws Exception {
+		//等待邮箱中的事件处理完
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		for (ListenerMailbox mailbox : mailboxes.values()) {
+			mailbox.awaitIdle(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+		}
+		synchronized (this) {
+			if (defaultMailboxExecutor != null) {
+				defaultMailboxExecutor.shutdown();
+			}
+		}
+		//等待每个监听器正在进行的交付结束，剩余的批次在当前线程上交付
+		for (EventBatcher batcher : batchers.values()) {
+			batcher.close(TimeUnit.NANOSECONDS.toMillis(Math.max(0, deadline - System.nanoTime())));
+		}
+		ScheduledExecutorService scheduler = this.batchScheduler;
+		if (scheduler != null) {
+			scheduler.shutdown();
+			scheduler.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+		}
+	}
+
+	/**
+	 * 监听器统一按监听ApplicationEvent的类型保存和调用，分发之前已经由supportsEventType检查过事件类型，
+	 * 泛型的强制转换都集中在这里
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> T castListener(Object listener) {
+		return (T) listener;
+	}
+
+	/**
+	 * 监听器的不可变快照以及基于该快照的检索缓存
+	 */
+	private static final class ListenerRegistry {
+
+		private final ApplicationListener<ApplicationEvent>[] listeners;
+
+		//订阅了路由key的监听器 -> 订阅的路由key
+		private final Map<ApplicationListener<?>, Set<String>> listenerRoutingKeys;
+
+		//有订阅者的路由key
+		private final Set<String> subscribedRoutingKeys = new HashSet<>();
+
+		//事件类型 -> 监听该事件的监听器
+		private final Map<Class<?>, ApplicationListener<ApplicationEvent>[]> retrieverCache = new ConcurrentHashMap<>(64);
+
+		//路由key -> (事件类型 -> 监听该事件的监听器)
+		private final Map<String, Map<Class<?>, ApplicationListener<ApplicationEvent>[]>> routedRetrieverCache = new ConcurrentHashMap<>();
+
+		private ListenerRegistry(ApplicationListener<ApplicationEvent>[] listeners, Map<ApplicationListener<?>, Set<String>> listenerRoutingKeys) {
+			this.listeners = listeners;
+			this.listenerRoutingKeys = listenerRoutingKeys;
+			for (Set<String> keys : listenerRoutingKeys.values()) {
+				subscribedRoutingKeys.addAll(keys);
+			}
+		}
+	}
+
+	private static boolean matchesEventClass(String message, Class<?> eventClass) {
+		if (message == null) {
+			return false;
+		}
+		//Java 8: "X cannot be cast to Y"，Java 9之后: "class X cannot be cast to class Y"
+		return message.startsWith(eventClass.getName()) || message.startsWith("class " + eventClass.getName());
+	}
+
+	/**
+	 * 沿监听器的父类和接口解析ApplicationListener的泛型参数，支持继承自泛型抽象监听器以及通过子接口指定事件类型的情况
+	 *
+	 * @param listenerClass
+	 * @return 监听的事件类型，无法解析时返回ApplicationEvent
+	 */
+	protected static Class<?> resolveDeclaredEventType(Class<?> listenerClass) {
+		Type resolved = resolveEventType(listenerClass, new HashMap<>());
+		return resolved instanceof Class ? (Class<?>) resolved : ApplicationEvent.class;
+	}
+
+	private static Type resolveEventType(Type type, Map<TypeVariable<?>, Type> bindings) {
+		Class<?> rawClass;
+		if (type instanceof ParameterizedType) {
+			ParameterizedType parameterizedType = (ParameterizedType) type;
+			rawClass = (Class<?>) parameterizedType.getRawType();
+			//记录当前类型的泛型参数绑定，子类指定的实际类型传给父类型
+			TypeVariable<?>[] typeParameters = rawClass.getTypeParameters();
+			Type[] arguments = parameterizedType.getActualTypeArguments();
+			bindings = new HashMap<>(bindings);
+			for (int i = 0; i < typeParameters.length; i++) {
+				bindings.put(typeParameters[i], resolveVariable(arguments[i], bindings));
+			}
+			if (rawClass == ApplicationListener.class) {
+				return bindings.get(typeParameters[0]);
+			}
+		} else if (type instanceof Class) {
+			rawClass = (Class<?>) type;
+			if (rawClass == ApplicationListener.class) {
+				//没有泛型参数
+				return null;
+			}
+		} else {
+			return null;
+		}
+		for (Type genericInterface : rawClass.getGenericInterfaces()) {
+			Type resolved = resolveEventType(genericInterface, bindings);
+			if (resolved instanceof Class) {
+				return resolved;
+			}
+		}
+		Type superclass = rawClass.getGenericSuperclass();
+		return superclass != null ? resolveEventType(superclass, bindings) : null;
+	}
+
+	private static Type resolveVariable(Type type, Map<TypeVariable<?>, Type> bindings) {
+		if (type instanceof TypeVariable) {
+			Type bound = bindings.get(type);
+			if (bound != null) {
+				return bound;
+			}
+			//未绑定的泛型参数取其上界
+			Type[] bounds = ((TypeVariable<?>) type).getBounds();
+			return bounds.length > 0 ? resolveVariable(bounds[0], bindings) : null;
+		}
+		if (type instanceof ParameterizedType) {
+			return ((ParameterizedType) type).getRawType();
+		}
+		return type;
 	}
 
 	@Override
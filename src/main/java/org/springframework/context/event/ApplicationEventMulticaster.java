@@ -3,6 +3,8 @@ package org.springframework.context.event;
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationListener;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * @author derekyi
  * @date 2020/12/5
@@ -15,4 +17,21 @@ public interface ApplicationEventMulticaster {
 
 	void multicastEvent(ApplicationEvent event);
 
+	/**
+	 * 发布事件，返回的future在所有监听器执行完成后完成，有监听器抛出异常时以第一个异常完成
+	 *
+	 * @param event
+	 * @return
+	 */
+	default CompletableFuture<Void> multicastEventAsync(ApplicationEvent event) {
+		CompletableFuture<Void> future = new CompletableFuture<>();
+		try {
+			multicastEvent(event);
+			future.complete(null);
+		} catch (Throwable ex) {
+			future.completeExceptionally(ex);
+		}
+		return future;
+	}
+
 }
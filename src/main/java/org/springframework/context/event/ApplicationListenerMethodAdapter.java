@@ -0,0 +1,356 @@
+package org.springframework.context.event;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.core.Ordered;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 把@EventListener标注的方法适配为ApplicationListener
+ * <p>
+ * public类的public方法通过LambdaMetafactory生成调用类，调用开销与直接调用接口方法相同；
+ * 其他方法退回到MethodHandle调用，都不经过反射。
+ * 监听的事件类型通过SmartApplicationListener#supportsEventType交给事件发布者缓存，
+ * condition在注册时解析并绑定属性的MethodHandle，条件不成立的事件不会调用方法；
+ * routingKeys由事件发布者建立索引，路由key不匹配的事件不会交给该监听器
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public class ApplicationListenerMethodAdapter implements SmartApplicationListener, RoutedApplicationListener<ApplicationEvent>, Ordered {
+
+	//[event.]property ==|!= 'literal'
+	private static final Pattern CONDITION_PATTERN =
+			Pattern.compile("^\\s*(?:event\\.)?([A-Za-z_$][\\w$]*)\\s*(==|!=)\\s*'([^']*)'\\s*$");
+
+	private static final MethodType INVOKER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+	private final String beanName;
+
+	private final Object bean;
+
+	private final Method method;
+
+	private final BeanFactory beanFactory;
+
+	private final Class<?>[] eventTypes;
+
+	private final Invoker invoker;
+
+	//没有condition时为null
+	private final EventCondition condition;
+
+	private final List<String> routingKeys;
+
+	private final int order;
+
+	//实际调用的对象，第一次分发时确定
+	private volatile Object target;
+
+	public ApplicationListenerMethodAdapter(String beanName, Object bean, Method method, BeanFactory beanFactory) {
+		this.beanName = beanName;
+		this.bean = bean;
+		this.method = method;
+		this.beanFactory = beanFactory;
+		EventListener annotation = method.getAnnotation(EventListener.class);
+		if (annotation == null) {
+			throw new BeansException("Method " + method + " is not annotated with @EventListener");
+		}
+		this.eventTypes = resolveEventTypes(method, annotation);
+		this.invoker = createInvoker(method);
+		this.condition = annotation.condition().isEmpty() ? null : new EventCondition(method, annotation.condition(), eventTypes);
+		this.routingKeys = Collections.unmodifiableList(Arrays.asList(annotation.routingKeys()));
+		this.order = annotation.order();
+	}
+
+	@Override
+	public boolean supportsEventType(Class<?> eventType) {
+		for (Class<?> declaredEventType : eventTypes) {
+			if (declaredEventType.isAssignableFrom(eventType)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public Collection<String> getRoutingKeys() {
+		return routingKeys;
+	}
+
+	@Override
+	public int getOrder() {
+		return order;
+	}
+
+	@Override
+	public void onApplicationEvent(ApplicationEvent event) {
+		if (condition != null && !condition.matches(event)) {
+			return;
+		}
+		try {
+			invoker.invoke(getTarget(), event);
+		} catch (RuntimeException | Error ex) {
+			throw ex;
+		} catch (Throwable ex) {
+			throw new BeansException("Failed to invoke event listener method " + method, ex);
+		}
+	}
+
+	/**
+	 * 优先使用容器中的bean（可能是代理对象），代理对象不是方法所在类的实例时（例如jdk动态代理）使用原始对象
+	 */
+	private Object getTarget() {
+		Object result = this.target;
+		if (result == null) {
+			result = bean;
+			if (beanFactory != null) {
+				Object candidate = beanFactory.getBean(beanName);
+				if (method.getDeclaringClass().isInstance(candidate)) {
+					result = candidate;
+				}
+			}
+			this.target = result;
+		}
+		return result;
+	}
+
+	public String getBeanName() {
+		return beanName;
+	}
+
+	public Method getMethod() {
+		return method;
+	}
+
+	public Class<?>[] getEventTypes() {
+		return eventTypes.clone();
+	}
+
+	@Override
+	public String toString() {
+		return "ApplicationListenerMethodAdapter[" + beanName + "." + method.getName() + "]";
+	}
+
+	private static Class<?>[] resolveEventTypes(Method method, EventListener annotation) {
+		Class<?>[] parameterTypes = method.getParameterTypes();
+		if (parameterTypes.length > 1) {
+			throw new BeansException("Event listener method " + method + " must have at most one parameter");
+		}
+		if (parameterTypes.length == 1 && !ApplicationEvent.class.isAssignableFrom(parameterTypes[0])) {
+			throw new BeansException("Parameter of event listener method " + method + " must be an ApplicationEvent");
+		}
+		Class<?>[] declared = annotation.value();
+		if (declared.length == 0) {
+			if (parameterTypes.length == 0) {
+				throw new BeansException("Event listener method " + method + " without parameter must specify event types");
+			}
+			return new Class<?>[]{parameterTypes[0]};
+		}
+		if (parameterTypes.length == 1) {
+			for (Class<?> eventType : declared) {
+				if (!parameterTypes[0].isAssignableFrom(eventType)) {
+					throw new BeansException("Event type " + eventType.getName()
+							+ " is not assignable to parameter of event listener method " + method);
+				}
+			}
+		}
+		return declared.clone();
+	}
+
+	private static Invoker createInvoker(Method method) {
+		if (Modifier.isStatic(method.getModifiers())) {
+			throw new BeansException("Event listener method " + method + " must not be static");
+		}
+		if (isLambdaAccessible(method)) {
+			try {
+				return createLambdaInvoker(method);
+			} catch (Throwable ex) {
+				//生成失败时使用MethodHandle调用
+			}
+		}
+		try {
+			//非public方法也需要能调用
+			method.setAccessible(true);
+		} catch (RuntimeException ex) {
+			//模块未开放时退回到普通的访问检查
+		}
+		try {
+			MethodHandle handle = MethodHandles.lookup().unreflect(method);
+			if (method.getParameterCount() == 0) {
+				handle = MethodHandles.dropArguments(handle, 1, Object.class);
+			}
+			MethodHandle invoker = handle.asType(INVOKER_TYPE);
+			return (bean, event) -> {
+				invoker.invokeExact(bean, event);
+			};
+		} catch (IllegalAccessException ex) {
+			throw new BeansException("Cannot access event listener method " + method, ex);
+		}
+	}
+
+	/**
+	 * 生成的调用类定义在本类的类加载器中，要求方法可以公开访问并且方法所在类对本类的类加载器可见
+	 */
+	private static boolean isLambdaAccessible(Method method) {
+		Class<?> declaringClass = method.getDeclaringClass();
+		if (!Modifier.isPublic(method.getModifiers()) || !Modifier.isPublic(declaringClass.getModifiers())) {
+			return false;
+		}
+		try {
+			return Class.forName(declaringClass.getName(), false, ApplicationListenerMethodAdapter.class.getClassLoader()) == declaringClass;
+		} catch (ClassNotFoundException ex) {
+			return false;
+		}
+	}
+
+	private static Invoker createLambdaInvoker(Method method) throws Throwable {
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+		MethodHandle implementation = lookup.unreflect(method);
+		Class<?> declaringClass = method.getDeclaringClass();
+		if (method.getParameterCount() == 0) {
+			CallSite callSite = LambdaMetafactory.metafactory(lookup, "invoke", MethodType.methodType(NoArgInvoker.class),
+					MethodType.methodType(void.class, Object.class), implementation,
+					MethodType.methodType(void.class, declaringClass));
+			NoArgInvoker noArgInvoker = (NoArgInvoker) callSite.getTarget().invoke();
+			return (bean, event) -> noArgInvoker.invoke(bean);
+		}
+		CallSite callSite = LambdaMetafactory.metafactory(lookup, "invoke", MethodType.methodType(Invoker.class),
+				INVOKER_TYPE, implementation,
+				MethodType.methodType(void.class, declaringClass, method.getParameterTypes()[0]));
+		return (Invoker) callSite.getTarget().invoke();
+	}
+
+	@FunctionalInterface
+	interface Invoker {
+
+		void invoke(Object bean, Object event) throws Throwable;
+	}
+
+	@FunctionalInterface
+	interface NoArgInvoker {
+
+		void invoke(Object bean) throws Throwable;
+	}
+
+	/**
+	 * 解析后的condition，按事件的实际类型缓存属性的MethodHandle
+	 */
+	private static final class EventCondition {
+
+		private final String property;
+
+		private final boolean negate;
+
+		private final String literal;
+
+		private final Map<Class<?>, MethodHandle> accessors = new ConcurrentHashMap<>(4);
+
+		EventCondition(Method method, String expression, Class<?>[] eventTypes) {
+			Matcher matcher = CONDITION_PATTERN.matcher(expression);
+			if (!matcher.matches()) {
+				throw new BeansException("Invalid condition '" + expression + "' on event listener method " + method
+						+ ", expected: [event.]property ==|!= 'value'");
+			}
+			this.property = matcher.group(1);
+			this.negate = "!=".equals(matcher.group(2));
+			this.literal = matcher.group(3);
+			//注册时检查所有声明的事件类型都有该属性
+			for (Class<?> eventType : eventTypes) {
+				if (getAccessor(eventType) == null) {
+					throw new BeansException("Event type " + eventType.getName() + " has no property '" + property
+							+ "' used in condition of event listener method " + method + ", declared event types: "
+							+ Arrays.toString(eventTypes));
+				}
+			}
+		}
+
+		boolean matches(ApplicationEvent event) {
+			MethodHandle accessor = getAccessor(event.getClass());
+			if (accessor == null) {
+				return false;
+			}
+			Object value;
+			try {
+				value = accessor.invokeExact((Object) event);
+			} catch (RuntimeException | Error ex) {
+				throw ex;
+			} catch (Throwable ex) {
+				throw new BeansException("Failed to read property '" + property + "' of " + event.getClass().getName(), ex);
+			}
+			return literal.equals(String.valueOf(value)) != negate;
+		}
+
+		private MethodHandle getAccessor(Class<?> eventType) {
+			MethodHandle accessor = accessors.get(eventType);
+			if (accessor == null) {
+				accessor = resolveAccessor(eventType, property);
+				if (accessor == null) {
+					return null;
+				}
+				accessors.putIfAbsent(eventType, accessor);
+			}
+			return accessor;
+		}
+
+		private static MethodHandle resolveAccessor(Class<?> eventType, String property) {
+			String suffix = Character.toUpperCase(property.charAt(0)) + property.substring(1);
+			MethodType accessorType = MethodType.methodType(Object.class, Object.class);
+			try {
+				for (String methodName : new String[]{"get" + suffix, "is" + suffix}) {
+					Method getter = findGetter(eventType, methodName);
+					if (getter != null) {
+						trySetAccessible(getter);
+						return MethodHandles.lookup().unreflect(getter).asType(accessorType);
+					}
+				}
+				for (Class<?> type = eventType; type != null && type != Object.class; type = type.getSuperclass()) {
+					for (Field field : type.getDeclaredFields()) {
+						if (field.getName().equals(property) && !Modifier.isStatic(field.getModifiers())) {
+							trySetAccessible(field);
+							return MethodHandles.lookup().unreflectGetter(field).asType(accessorType);
+						}
+					}
+				}
+			} catch (IllegalAccessException ex) {
+				throw new BeansException("Cannot access property '" + property + "' of " + eventType.getName(), ex);
+			}
+			return null;
+		}
+
+		private static Method findGetter(Class<?> eventType, String methodName) {
+			try {
+				Method getter = eventType.getMethod(methodName);
+				return getter.getReturnType() != void.class && !Modifier.isStatic(getter.getModifiers()) ? getter : null;
+			} catch (NoSuchMethodException ex) {
+				return null;
+			}
+		}
+
+		private static void trySetAccessible(AccessibleObject accessibleObject) {
+			try {
+				accessibleObject.setAccessible(true);
+			} catch (RuntimeException ex) {
+				//模块未开放时退回到普通的访问检查
+			}
+		}
+	}
+}
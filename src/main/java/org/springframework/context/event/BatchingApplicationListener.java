@@ -0,0 +1,59 @@
+package org.springframework.context.event;
+
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 批量接收事件的监听器
+ * <p>
+ * 事件发布者为每个这样的监听器缓存事件，从第一个事件开始经过getBatchWindowMillis毫秒，
+ * 或者缓存的事件达到getMaxBatchSize个时，在后台线程上把缓存的事件一次交给onApplicationEvents。
+ * getCoalescingKey返回非null时，同一个key只保留最新的一个事件，适用于“配置项变更”“缓存失效”这类只关心最终状态的事件
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public interface BatchingApplicationListener<E extends ApplicationEvent> extends ApplicationListener<E> {
+
+	/**
+	 * 处理一批事件，按（合并后的）发布顺序排列
+	 *
+	 * @param events
+	 */
+	void onApplicationEvents(List<E> events);
+
+	/**
+	 * 缓存事件的时间窗口（毫秒）
+	 */
+	default long getBatchWindowMillis() {
+		return 10;
+	}
+
+	/**
+	 * 一批最多的事件数
+	 */
+	default int getMaxBatchSize() {
+		return 1000;
+	}
+
+	/**
+	 * 事件的合并key，key相同的事件只保留最新的一个，返回null表示不合并
+	 *
+	 * @param event
+	 * @return
+	 */
+	default Object getCoalescingKey(E event) {
+		return null;
+	}
+
+	/**
+	 * 直接调用时作为只有一个事件的批次处理
+	 */
+	@Override
+	default void onApplicationEvent(E event) {
+		onApplicationEvents(Collections.singletonList(event));
+	}
+}
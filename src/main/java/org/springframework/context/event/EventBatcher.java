@@ -0,0 +1,169 @@
+package org.springframework.context.event;
+
+import org.springframework.context.ApplicationEvent;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 为一个BatchingApplicationListener缓存事件
+ * <p>
+ * 缓存的事件保存在LinkedHashMap中，需要合并的事件以合并key为key，先删除再放入，保证按最后一次发布的顺序排列；
+ * 不需要合并的事件各自使用一个新的key。
+ * <p>
+ * 每个监听器是scheduler线程池上的一条串行通道：同一时刻最多有一个线程在交付该监听器的批次（delivering），
+ * 交付期间新缓存的事件由这个线程在交付完当前批次后继续交付，不同监听器的批次可以在不同线程上并行交付。
+ * 关闭之后不再使用scheduler，新的事件直接在发布线程上交付，仍然遵守串行通道。
+ * 监听器抛出的异常交给事件发布者的错误处理
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+class EventBatcher {
+
+	private final BatchingApplicationListener<ApplicationEvent> listener;
+
+	private final ScheduledExecutorService scheduler;
+
+	//处理监听器抛出的异常，由事件发布者提供
+	private final Consumer<Throwable> errorHandler;
+
+	private Map<Object, ApplicationEvent> pending = new LinkedHashMap<>();
+
+	//是否已经安排了一次定时交付
+	private boolean timerScheduled;
+
+	//是否有线程正在交付（或者已经提交了交付任务）
+	private boolean delivering;
+
+	private boolean closed;
+
+	EventBatcher(BatchingApplicationListener<ApplicationEvent> listener, ScheduledExecutorService scheduler,
+					Consumer<Throwable> errorHandler) {
+		this.listener = listener;
+		this.scheduler = scheduler;
+		this.errorHandler = errorHandler;
+	}
+
+	void add(ApplicationEvent event) {
+		Object key = listener.getCoalescingKey(event);
+		boolean deliverOnCaller = false;
+		synchronized (this) {
+			if (key != null) {
+				pending.remove(key);
+			} else {
+				key = new Object();
+			}
+			pending.put(key, event);
+			if (delivering) {
+				//正在交付的线程会继续交付新缓存的事件
+				return;
+			}
+			if (closed) {
+				delivering = true;
+				deliverOnCaller = true;
+			} else if (pending.size() >= listener.getMaxBatchSize()) {
+				//达到批次上限，立即交付
+				delivering = true;
+				deliverOnCaller = !submit(this::drain, 0);
+			} else if (!timerScheduled) {
+				timerScheduled = submit(this::onTimer, listener.getBatchWindowMillis());
+				if (!timerScheduled) {
+					delivering = true;
+					deliverOnCaller = true;
+				}
+			}
+		}
+		if (deliverOnCaller) {
+			drain();
+		}
+	}
+
+	/**
+	 * 提交到scheduler，scheduler已经关闭时返回false
+	 */
+	private boolean submit(Runnable task, long delayMillis) {
+		try {
+			if (delayMillis > 0) {
+				scheduler.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+			} else {
+				scheduler.execute(task);
+			}
+			return true;
+		} catch (RejectedExecutionException ex) {
+			return false;
+		}
+	}
+
+	private void onTimer() {
+		synchronized (this) {
+			timerScheduled = false;
+			if (delivering || pending.isEmpty()) {
+				return;
+			}
+			delivering = true;
+		}
+		drain();
+	}
+
+	/**
+	 * 交付缓存的事件直到没有新的事件，调用之前必须已经把delivering设为true
+	 */
+	private void drain() {
+		for (; ; ) {
+			List<ApplicationEvent> batch;
+			synchronized (this) {
+				if (pending.isEmpty()) {
+					delivering = false;
+					notifyAll();
+					return;
+				}
+				batch = new ArrayList<>(pending.values());
+				pending = new LinkedHashMap<>();
+			}
+			deliver(batch);
+		}
+	}
+
+	private void deliver(List<ApplicationEvent> batch) {
+		//交付之前可能又缓存了更多事件，按批次上限拆分
+		int maxBatchSize = Math.max(1, listener.getMaxBatchSize());
+		for (int from = 0; from < batch.size(); from += maxBatchSize) {
+			try {
+				listener.onApplicationEvents(batch.subList(from, Math.min(from + maxBatchSize, batch.size())));
+			} catch (Throwable ex) {
+				errorHandler.accept(ex);
+			}
+		}
+	}
+
+	/**
+	 * 关闭并交付所有缓存的事件：等待正在进行的交付结束，剩余的事件在调用线程上交付。
+	 * 关闭之后发布的事件在发布线程上同步交付
+	 *
+	 * @param timeoutMillis 等待正在进行的交付的最长时间
+	 */
+	void close(long timeoutMillis) throws InterruptedException {
+		synchronized (this) {
+			closed = true;
+			long deadline = System.currentTimeMillis() + timeoutMillis;
+			long remaining = timeoutMillis;
+			while (delivering && remaining > 0) {
+				wait(remaining);
+				remaining = deadline - System.currentTimeMillis();
+			}
+			if (delivering) {
+				//交付线程仍在执行，剩余的事件由它交付
+				return;
+			}
+			delivering = true;
+		}
+		drain();
+	}
+}
@@ -0,0 +1,51 @@
+package org.springframework.context.event;
+
+import org.springframework.context.ApplicationEvent;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 事件的二进制编解码器，用于把事件写入EventJournal以及重放时还原事件
+ * <p>
+ * encode直接写入日志文件映射的内存，decode直接读取映射的内存，中间不经过byte数组
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public interface EventCodec<E extends ApplicationEvent> {
+
+	/**
+	 * 写入日志的类型id，在同一个日志中唯一，写入之后不能再修改
+	 */
+	int getTypeId();
+
+	/**
+	 * 处理的事件类型，事件类型的子类也使用该编解码器
+	 */
+	Class<E> getEventType();
+
+	/**
+	 * 编码后的字节数
+	 *
+	 * @param event
+	 * @return
+	 */
+	int getEncodedSize(E event);
+
+	/**
+	 * 把事件写入buffer，buffer的position为0，remaining为getEncodedSize返回的字节数
+	 *
+	 * @param event
+	 * @param buffer
+	 */
+	void encode(E event, ByteBuffer buffer);
+
+	/**
+	 * 从buffer中还原事件，buffer中只有一条记录的内容
+	 *
+	 * @param buffer
+	 * @param source 还原的事件的source，一般是当前容器
+	 * @return
+	 */
+	E decode(ByteBuffer buffer, Object source);
+}
@@ -0,0 +1,337 @@
+package org.springframework.context.event;
+
+import org.springframework.beans.BeansException;
+import org.springframework.context.ApplicationEvent;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * 基于内存映射文件的只追加事件日志
+ * <p>
+ * 日志由目录下固定大小的段文件组成，文件名是段序号。每条记录是 [长度][校验和][类型id][内容]，
+ * 内容由EventCodec直接写入映射的内存；先写内容、类型id和校验和，最后写长度，长度为0的位置就是日志的末尾。
+ * 操作系统写回映射内存的顺序不确定，掉电时可能只有长度落盘，所以读取时还要检查类型id和内容的CRC32校验和，
+ * 第一条不完整的记录就是该段的末尾。open时把最后一个段末尾之后的内容清零，
+ * 之后追加的记录不会和写了一半的旧记录残留的字节拼在一起被读出。当前段放不下一条记录时创建下一个段（段滚动）
+ * <p>
+ * 映射的内存由操作系统写回文件，进程崩溃不会丢失已经追加的记录；需要在机器掉电时也不丢失时调用flush。
+ * 段滚动、close以及replay读完一个段时显式释放映射，不等待GC回收，所以replay交出的内容都是复制到堆内存中的副本
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public class EventJournal {
+
+	private static final String SEGMENT_SUFFIX = ".journal";
+
+	//长度 + 校验和 + 类型id
+	private static final int HEADER_SIZE = 12;
+
+	//类型id的位置，校验和覆盖类型id和内容
+	private static final int TYPE_ID_OFFSET = 8;
+
+	private static final Object UNSAFE;
+
+	private static final Method INVOKE_CLEANER;
+
+	static {
+		Object unsafe = null;
+		Method invokeCleaner = null;
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+			Field field = unsafeClass.getDeclaredField("theUnsafe");
+			field.setAccessible(true);
+			unsafe = field.get(null);
+		} catch (ReflectiveOperationException | RuntimeException ex) {
+			//Java 8没有invokeCleaner
+			invokeCleaner = null;
+		}
+		UNSAFE = unsafe;
+		INVOKE_CLEANER = invokeCleaner;
+	}
+
+	private final File directory;
+
+	private final int segmentSize;
+
+	//当前写入的段
+	private MappedByteBuffer writeBuffer;
+
+	private long writeSegment;
+
+	private int writePosition;
+
+	private long appendCount;
+
+	public EventJournal(File directory, int segmentSize) {
+		if (segmentSize <= HEADER_SIZE) {
+			throw new IllegalArgumentException("segmentSize must be greater than " + HEADER_SIZE);
+		}
+		this.directory = directory;
+		this.segmentSize = segmentSize;
+	}
+
+	/**
+	 * 打开日志，从最后一个段的末尾继续追加
+	 */
+	public synchronized void open() {
+		if (writeBuffer != null) {
+			return;
+		}
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new BeansException("Cannot create event journal directory " + directory);
+		}
+		List<Long> segments = listSegments();
+		writeSegment = segments.isEmpty() ? 0 : segments.get(segments.size() - 1);
+		writeBuffer = map(writeSegment, true);
+		writePosition = findEnd(writeBuffer, writeBuffer.capacity());
+		clearTail(writeBuffer, writePosition);
+	}
+
+	/**
+	 * 追加一条记录
+	 *
+	 * @param codec
+	 * @param event
+	 */
+	public synchronized <E extends ApplicationEvent> void append(EventCodec<E> codec, E event) {
+		if (writeBuffer == null) {
+			throw new BeansException("Event journal " + directory + " is not open");
+		}
+		int size = codec.getEncodedSize(event);
+		int recordSize = HEADER_SIZE + size;
+		if (size <= 0 || recordSize > segmentSize) {
+			throw new BeansException("Invalid encoded size " + size + " of " + event.getClass().getName()
+					+ ", segment size: " + segmentSize);
+		}
+		if (writeBuffer.capacity() - writePosition < recordSize) {
+			roll();
+		}
+		ByteBuffer payload = slice(writeBuffer, writePosition + HEADER_SIZE, size);
+		codec.encode(event, payload);
+		writeBuffer.putInt(writePosition + TYPE_ID_OFFSET, codec.getTypeId());
+		writeBuffer.putInt(writePosition + 4, checksum(writeBuffer, writePosition, size));
+		//最后写长度，长度可见时记录已经完整
+		writeBuffer.putInt(writePosition, size);
+		writePosition += recordSize;
+		appendCount++;
+	}
+
+	/**
+	 * 按追加顺序读取所有记录
+	 * <p>
+	 * 读取期间持有日志的锁，其他线程的append等待读取完成，适合在启动时重建状态，不适合在运行中频繁调用。
+	 * 读完一个段后映射即被释放，handler收到的payload是复制出来的堆内存，可以在onRecord之外保留
+	 *
+	 * @param handler
+	 * @return 读取的记录数
+	 */
+	public synchronized long replay(RecordHandler handler) {
+		long count = 0;
+		//只读取开始时已经追加的记录，handler中追加的记录不会在本次读取
+		long lastSegment = writeBuffer != null ? writeSegment : Long.MAX_VALUE;
+		int lastPosition = writePosition;
+		for (long segment : listSegments()) {
+			if (segment > lastSegment) {
+				break;
+			}
+			MappedByteBuffer buffer = map(segment, false);
+			try {
+				int end = findEnd(buffer, segment == lastSegment ? lastPosition : buffer.capacity());
+				int position = 0;
+				while (position < end) {
+					int size = buffer.getInt(position);
+					ByteBuffer payload = ByteBuffer.allocate(size);
+					payload.put(slice(buffer, position + HEADER_SIZE, size));
+					((Buffer) payload).flip();
+					handler.onRecord(buffer.getInt(position + TYPE_ID_OFFSET), payload);
+					position += HEADER_SIZE + size;
+					count++;
+				}
+			} finally {
+				unmap(buffer);
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * 把当前段映射的内存写回文件
+	 */
+	public synchronized void flush() {
+		if (writeBuffer != null) {
+			writeBuffer.force();
+		}
+	}
+
+	public synchronized void close() {
+		if (writeBuffer == null) {
+			return;
+		}
+		writeBuffer.force();
+		unmap(writeBuffer);
+		writeBuffer = null;
+	}
+
+	/**
+	 * 本次打开之后追加的记录数
+	 */
+	public synchronized long getAppendCount() {
+		return appendCount;
+	}
+
+	public int getSegmentCount() {
+		return listSegments().size();
+	}
+
+	public File getDirectory() {
+		return directory;
+	}
+
+	private void roll() {
+		writeBuffer.force();
+		unmap(writeBuffer);
+		writeSegment++;
+		writeBuffer = map(writeSegment, true);
+		writePosition = 0;
+	}
+
+	/**
+	 * 返回limit之前最后一条完整记录的末尾
+	 */
+	private static int findEnd(ByteBuffer buffer, int limit) {
+		int position = 0;
+		while (position + HEADER_SIZE <= limit) {
+			int size = buffer.getInt(position);
+			if (size <= 0 || size > limit - position - HEADER_SIZE
+					|| buffer.getInt(position + 4) != checksum(buffer, position, size)) {
+				break;
+			}
+			position += HEADER_SIZE + size;
+		}
+		return position;
+	}
+
+	/**
+	 * 记录的类型id和内容的CRC32
+	 */
+	private static int checksum(ByteBuffer buffer, int position, int size) {
+		CRC32 crc = new CRC32();
+		crc.update(slice(buffer, position + TYPE_ID_OFFSET, HEADER_SIZE - TYPE_ID_OFFSET + size));
+		return (int) crc.getValue();
+	}
+
+	/**
+	 * 把from之后的内容清零，已经是0的位置不写，避免弄脏没有用到的页
+	 */
+	private static void clearTail(MappedByteBuffer buffer, int from) {
+		int capacity = buffer.capacity();
+		int position = from;
+		while (position < capacity && (position & 7) != 0) {
+			if (buffer.get(position) != 0) {
+				buffer.put(position, (byte) 0);
+			}
+			position++;
+		}
+		for (; position + 8 <= capacity; position += 8) {
+			if (buffer.getLong(position) != 0) {
+				buffer.putLong(position, 0);
+			}
+		}
+		for (; position < capacity; position++) {
+			if (buffer.get(position) != 0) {
+				buffer.put(position, (byte) 0);
+			}
+		}
+		buffer.force();
+	}
+
+	/**
+	 * 释放映射的内存，释放之后不能再访问该buffer以及它的视图。
+	 * Java 9及以上通过Unsafe.invokeCleaner，Java 8通过DirectBuffer的cleaner，都不可用时交给GC回收
+	 */
+	private static void unmap(MappedByteBuffer buffer) {
+		try {
+			if (INVOKE_CLEANER != null) {
+				INVOKE_CLEANER.invoke(UNSAFE, buffer);
+				return;
+			}
+			Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+			cleanerMethod.setAccessible(true);
+			Object cleaner = cleanerMethod.invoke(buffer);
+			if (cleaner != null) {
+				cleaner.getClass().getMethod("clean").invoke(cleaner);
+			}
+		} catch (ReflectiveOperationException | RuntimeException ex) {
+			//无法显式释放，交给GC回收
+		}
+	}
+
+	private MappedByteBuffer map(long segment, boolean writable) {
+		File file = new File(directory, String.format("%020d", segment) + SEGMENT_SUFFIX);
+		//映射建立之后关闭channel不影响映射的内存
+		try (FileChannel channel = writable
+				? FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)
+				: FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			//按文件的实际大小映射，修改segmentSize之后已有的段仍然可以完整读取
+			if (!writable) {
+				return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			}
+			return channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(segmentSize, channel.size()));
+		} catch (IOException ex) {
+			throw new BeansException("Cannot map event journal segment " + file, ex);
+		}
+	}
+
+	private List<Long> listSegments() {
+		List<Long> segments = new ArrayList<>();
+		File[] files = directory.listFiles((dir, name) -> name.endsWith(SEGMENT_SUFFIX));
+		if (files != null) {
+			for (File file : files) {
+				String name = file.getName();
+				try {
+					segments.add(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+				} catch (NumberFormatException ex) {
+					//不是段文件
+				}
+			}
+		}
+		Collections.sort(segments);
+		return segments;
+	}
+
+	/**
+	 * 返回buffer中[offset, offset + length)的视图，通过Buffer调用position和limit以兼容Java 8
+	 */
+	private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+		ByteBuffer duplicate = buffer.duplicate();
+		((Buffer) duplicate).limit(offset + length);
+		((Buffer) duplicate).position(offset);
+		return duplicate.slice();
+	}
+
+	/**
+	 * 日志记录的处理者
+	 */
+	public interface RecordHandler {
+
+		/**
+		 * @param typeId  记录的类型id
+		 * @param payload 记录的内容
+		 */
+		void onRecord(int typeId, ByteBuffer payload);
+	}
+}
@@ -0,0 +1,18 @@
+package org.springframework.context.event;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 解析事件的顺序key，异步发布时key相同的事件进入同一条串行通道，按发布顺序处理
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public interface EventKeyResolver {
+
+	/**
+	 * @param event
+	 * @return 事件的key，返回null表示该事件不需要保证顺序
+	 */
+	Object resolveKey(ApplicationEvent event);
+}
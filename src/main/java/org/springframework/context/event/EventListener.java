@@ -0,0 +1,46 @@
+package org.springframework.context.event;
+
+import org.springframework.context.ApplicationEvent;
+import org.springframework.core.Ordered;
+
+import java.lang.annotation.*;
+
+/**
+ * 将bean的方法注册为事件监听器，由EventListenerMethodProcessor在容器刷新时检测
+ * <p>
+ * 方法可以没有参数（此时必须通过value指定事件类型），或者只有一个事件类型的参数。
+ * 同一个bean上可以有多个监听方法，分别监听不同类型的事件
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface EventListener {
+
+	/**
+	 * 监听的事件类型，为空时使用方法参数的类型
+	 */
+	Class<? extends ApplicationEvent>[] value() default {};
+
+	/**
+	 * 分发之前判断的条件，条件不成立时不调用方法，例如：
+	 * <pre>
+	 * event.tenant == 'tenant-42'
+	 * status != 'DELETED'
+	 * </pre>
+	 * 左边是事件的属性（getter、is方法或者字段），右边是单引号括起来的字面值，按字符串比较；为空时总是调用
+	 */
+	String condition() default "";
+
+	/**
+	 * 订阅的路由key，不为空时只收到路由key（RoutableEvent#getRoutingKey）在其中的事件
+	 */
+	String[] routingKeys() default {};
+
+	/**
+	 * 同一个事件的监听器之间的顺序，越小越先执行
+	 */
+	int order() default Ordered.LOWEST_PRECEDENCE;
+}
@@ -0,0 +1,86 @@
+package org.springframework.context.event;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 检测单例bean上@EventListener标注的方法，为每个方法创建ApplicationListenerMethodAdapter并注册到容器
+ * <p>
+ * 每个类的监听方法只扫描一次，没有监听方法的类之后只需要一次ClassValue查找
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public class EventListenerMethodProcessor implements BeanPostProcessor {
+
+	private static final Method[] NO_METHODS = new Method[0];
+
+	private static final ClassValue<Method[]> LISTENER_METHODS = new ClassValue<Method[]>() {
+		@Override
+		protected Method[] computeValue(Class<?> type) {
+			return findListenerMethods(type);
+		}
+	};
+
+	private final ConfigurableApplicationContext applicationContext;
+
+	private final ConfigurableListableBeanFactory beanFactory;
+
+	public EventListenerMethodProcessor(ConfigurableApplicationContext applicationContext, ConfigurableListableBeanFactory beanFactory) {
+		this.applicationContext = applicationContext;
+		this.beanFactory = beanFactory;
+	}
+
+	@Override
+	public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+		return bean;
+	}
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+		Method[] methods = LISTENER_METHODS.get(bean.getClass());
+		if (methods.length == 0) {
+			return bean;
+		}
+		//prototype等非单例bean每次创建都注册会导致监听器无限增长
+		if (!beanFactory.containsBean(beanName) || !beanFactory.getBeanDefinition(beanName).isSingleton()) {
+			return bean;
+		}
+		for (Method method : methods) {
+			applicationContext.addApplicationListener(new ApplicationListenerMethodAdapter(beanName, bean, method, beanFactory));
+		}
+		return bean;
+	}
+
+	/**
+	 * 沿类层次查找@EventListener标注的方法，子类覆盖的方法只取子类的
+	 */
+	private static Method[] findListenerMethods(Class<?> type) {
+		List<Method> result = new ArrayList<>();
+		Set<String> signatures = new HashSet<>();
+		for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+			for (Method method : current.getDeclaredMethods()) {
+				if (method.isBridge() || method.isSynthetic()) {
+					continue;
+				}
+				String signature = method.getName() + Arrays.toString(method.getParameterTypes());
+				if (!signatures.add(signature)) {
+					continue;
+				}
+				if (method.isAnnotationPresent(EventListener.class)) {
+					result.add(method);
+				}
+			}
+		}
+		return result.isEmpty() ? NO_METHODS : result.toArray(NO_METHODS);
+	}
+}
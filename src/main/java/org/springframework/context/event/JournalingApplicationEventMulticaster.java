@@ -0,0 +1,310 @@
+package org.springframework.context.event;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 把事件写入EventJournal的事件发布者装饰器
+ * <p>
+ * 有EventCodec的事件先追加到日志再交给delegate发布，其他事件直接交给delegate。
+ * 编解码器可以通过addCodec注册，也可以定义为容器中的bean，第一次发布事件时自动查找。
+ * replayOnRefresh为true时，收到ContextRefreshedEvent之前先把日志中的事件依次交给监听器，
+ * 监听器据此重建缓存、计数器等内存状态，不需要查询下游系统。重放的事件通过delegate的multicastEventAsync发布，
+ * 等这些事件处理完才结束重放；重放期间（不论在哪个线程上）发布的事件都不会写入日志，
+ * 所以delegate异步执行监听器时，监听器在重放中发布的事件同样不会再写入日志
+ * <p>
+ * 定义为名为applicationEventMulticaster的bean即可替换容器默认的事件发布者：
+ * <pre>
+ * &lt;bean id="applicationEventMulticaster" class="org.springframework.context.event.JournalingApplicationEventMulticaster"&gt;
+ *     &lt;property name="directory" value="data/events"/&gt;
+ * &lt;/bean&gt;
+ * </pre>
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public class JournalingApplicationEventMulticaster implements ApplicationEventMulticaster, BeanFactoryAware, DisposableBean {
+
+	//没有编解码器的事件类型缓存的占位对象
+	private static final Object NO_CODEC = new Object();
+
+	//重放时累积的future超过该数量时清理已经完成的
+	private static final int MAX_PENDING_REPLAYS = 1024;
+
+	private ApplicationEventMulticaster delegate;
+
+	//delegate是否由本对象创建，容器中定义的delegate由容器销毁
+	private boolean delegateCreated;
+
+	private String directory;
+
+	//段文件大小，默认64MB
+	private int segmentSize = 64 * 1024 * 1024;
+
+	private boolean replayOnRefresh = true;
+
+	private BeanFactory beanFactory;
+
+	private final List<EventCodec<?>> codecs = new ArrayList<>();
+
+	private final Map<Integer, EventCodec<?>> codecsByTypeId = new ConcurrentHashMap<>();
+
+	//事件类型 -> 编解码器或者NO_CODEC
+	private final Map<Class<?>, Object> codecsByEventType = new ConcurrentHashMap<>();
+
+	private final AtomicBoolean replayed = new AtomicBoolean();
+
+	//正在进行的重放数，大于0时不写入日志
+	private final AtomicInteger replaying = new AtomicInteger();
+
+	private volatile EventJournal journal;
+
+	@Override
+	public void addApplicationListener(ApplicationListener<?> listener) {
+		getDelegate().addApplicationListener(listener);
+	}
+
+	@Override
+	public void removeApplicationListener(ApplicationListener<?> listener) {
+		getDelegate().removeApplicationListener(listener);
+	}
+
+	@Override
+	public void multicastEvent(ApplicationEvent event) {
+		replayOnRefreshIfNecessary(event);
+		append(event);
+		getDelegate().multicastEvent(event);
+	}
+
+	@Override
+	public CompletableFuture<Void> multicastEventAsync(ApplicationEvent event) {
+		replayOnRefreshIfNecessary(event);
+		append(event);
+		return getDelegate().multicastEventAsync(event);
+	}
+
+	/**
+	 * 把日志中的事件依次交给监听器，等待所有重放的事件处理完才返回，监听器抛出的第一个异常在最后抛出
+	 *
+	 * @param source 还原的事件的source
+	 * @return 重放的事件数
+	 */
+	public long replay(Object source) {
+		EventJournal current = getJournal();
+		ApplicationEventMulticaster target = getDelegate();
+		List<CompletableFuture<Void>> pending = new ArrayList<>();
+		replaying.incrementAndGet();
+		try {
+			long count = current.replay((typeId, payload) -> {
+				EventCodec<?> codec = codecsByTypeId.get(typeId);
+				if (codec == null) {
+					throw new BeansException("No EventCodec registered for type id " + typeId + " in event journal " + current.getDirectory());
+				}
+				pending.add(target.multicastEventAsync(codec.decode(payload, source)));
+				if (pending.size() >= MAX_PENDING_REPLAYS) {
+					//只保留未完成和失败的future
+					pending.removeIf(future -> future.isDone() && !future.isCompletedExceptionally());
+				}
+			});
+			awaitAll(pending);
+			return count;
+		} finally {
+			replaying.decrementAndGet();
+		}
+	}
+
+	/**
+	 * 是否正在重放日志，监听器可以据此跳过发送通知等外部副作用
+	 */
+	public boolean isReplaying() {
+		return replaying.get() > 0;
+	}
+
+	private static void awaitAll(List<CompletableFuture<Void>> futures) {
+		Throwable firstError = null;
+		for (CompletableFuture<Void> future : futures) {
+			try {
+				future.join();
+			} catch (CompletionException | CancellationException ex) {
+				if (firstError == null) {
+					firstError = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+				}
+			}
+		}
+		if (firstError instanceof RuntimeException) {
+			throw (RuntimeException) firstError;
+		}
+		if (firstError instanceof Error) {
+			throw (Error) firstError;
+		}
+		if (firstError != null) {
+			throw new BeansException("Failed to replay event journal", firstError);
+		}
+	}
+
+	/**
+	 * 注册编解码器，类型id不能重复
+	 *
+	 * @param codec
+	 */
+	public synchronized void addCodec(EventCodec<?> codec) {
+		EventCodec<?> existing = codecsByTypeId.putIfAbsent(codec.getTypeId(), codec);
+		if (existing != null && existing != codec) {
+			throw new BeansException("Duplicate event codec type id " + codec.getTypeId() + ": "
+					+ existing.getClass().getName() + " and " + codec.getClass().getName());
+		}
+		if (existing == null) {
+			codecs.add(codec);
+			codecsByEventType.clear();
+		}
+	}
+
+	private void replayOnRefreshIfNecessary(ApplicationEvent event) {
+		if (replayOnRefresh && event instanceof ContextRefreshedEvent && replayed.compareAndSet(false, true)) {
+			replay(event.getSource());
+		}
+	}
+
+	private void append(ApplicationEvent event) {
+		if (isReplaying()) {
+			return;
+		}
+		EventCodec<ApplicationEvent> codec = getCodec(event.getClass());
+		if (codec != null) {
+			getJournal().append(codec, event);
+		}
+	}
+
+	private EventCodec<ApplicationEvent> getCodec(Class<?> eventType) {
+		Object codec = codecsByEventType.get(eventType);
+		if (codec == null) {
+			getJournal();
+			codec = NO_CODEC;
+			synchronized (this) {
+				for (EventCodec<?> candidate : codecs) {
+					if (candidate.getEventType().isAssignableFrom(eventType)) {
+						codec = candidate;
+						break;
+					}
+				}
+			}
+			codecsByEventType.put(eventType, codec);
+		}
+		if (codec == NO_CODEC) {
+			return null;
+		}
+		//按事件类型查找到的编解码器一定能处理该类型的事件
+		@SuppressWarnings("unchecked")
+		EventCodec<ApplicationEvent> result = (EventCodec<ApplicationEvent>) codec;
+		return result;
+	}
+
+	/**
+	 * 第一次使用时打开日志，并注册容器中定义的编解码器
+	 */
+	private EventJournal getJournal() {
+		EventJournal result = this.journal;
+		if (result == null) {
+			synchronized (this) {
+				result = this.journal;
+				if (result == null) {
+					if (directory == null) {
+						throw new BeansException("Property 'directory' is required");
+					}
+					if (beanFactory instanceof ListableBeanFactory) {
+						for (EventCodec<?> codec : ((ListableBeanFactory) beanFactory).getBeansOfType(EventCodec.class).values()) {
+							addCodec(codec);
+						}
+					}
+					result = new EventJournal(new File(directory), segmentSize);
+					result.open();
+					this.journal = result;
+				}
+			}
+		}
+		return result;
+	}
+
+	private ApplicationEventMulticaster getDelegate() {
+		ApplicationEventMulticaster result = this.delegate;
+		if (result == null) {
+			synchronized (this) {
+				result = this.delegate;
+				if (result == null) {
+					result = new SimpleApplicationEventMulticaster();
+					if (beanFactory != null) {
+						((SimpleApplicationEventMulticaster) result).setBeanFactory(beanFactory);
+					}
+					this.delegate = result;
+					this.delegateCreated = true;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * 把日志写回文件
+	 */
+	public void flush() {
+		EventJournal current = this.journal;
+		if (current != null) {
+			current.flush();
+		}
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		EventJournal current = this.journal;
+		if (current != null) {
+			current.close();
+		}
+		if (delegateCreated && delegate instanceof DisposableBean) {
+			((DisposableBean) delegate).destroy();
+		}
+	}
+
+	@Override
+	public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+		this.beanFactory = beanFactory;
+		if (delegate instanceof BeanFactoryAware) {
+			((BeanFactoryAware) delegate).setBeanFactory(beanFactory);
+		}
+	}
+
+	public EventJournal getEventJournal() {
+		return getJournal();
+	}
+
+	public void setDelegate(ApplicationEventMulticaster delegate) {
+		this.delegate = delegate;
+	}
+
+	public void setDirectory(String directory) {
+		this.directory = directory;
+	}
+
+	public void setSegmentSize(int segmentSize) {
+		this.segmentSize = segmentSize;
+	}
+
+	public void setReplayOnRefresh(boolean replayOnRefresh) {
+		this.replayOnRefresh = replayOnRefresh;
+	}
+}
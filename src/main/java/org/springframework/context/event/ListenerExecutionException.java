@@ -0,0 +1,29 @@
+package org.springframework.context.event;
+
+import org.springframework.beans.BeansException;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 并行执行监听器时多个监听器抛出的异常，第一个异常作为cause，其余的作为suppressed
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public class ListenerExecutionException extends BeansException {
+
+	private final List<Throwable> listenerExceptions;
+
+	public ListenerExecutionException(String msg, List<Throwable> listenerExceptions) {
+		super(msg, listenerExceptions.get(0));
+		this.listenerExceptions = Collections.unmodifiableList(listenerExceptions);
+		for (int i = 1; i < listenerExceptions.size(); i++) {
+			addSuppressed(listenerExceptions.get(i));
+		}
+	}
+
+	public List<Throwable> getListenerExceptions() {
+		return listenerExceptions;
+	}
+}
@@ -0,0 +1,233 @@
+package org.springframework.context.event;
+
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * 一个监听器的有界邮箱
+ * <p>
+ * 发布的事件先放入邮箱，由执行器上的一个任务按顺序交给监听器，慢的监听器只会让自己的邮箱变满，不会拖慢发布线程和其他监听器。
+ * 邮箱满时按OverflowPolicy处理：
+ * <ul>
+ *     <li>BLOCK：发布线程等待，直到邮箱有空位（监听器自己发布事件到自己的邮箱时会死锁，不要这样使用）</li>
+ *     <li>DROP_OLDEST：丢弃邮箱中最早的事件</li>
+ *     <li>DROP_NEWEST：丢弃当前发布的事件</li>
+ *     <li>CALLER_RUNS：在发布线程上直接执行监听器，该事件可能先于邮箱中的事件处理</li>
+ * </ul>
+ * 通过getQueueDepth和各计数器可以观察监听器是否跟得上发布速度。
+ * <p>
+ * 监听器抛出的异常交给事件发布者的错误处理（SimpleApplicationEventMulticaster的errorHandler）。
+ * 执行器拒绝任务时（例如事件发布者destroy之后），邮箱中的事件在发布线程上依次处理，不会滞留在邮箱中。
+ * 事件放入邮箱即视为发布完成，multicastEventAsync返回的future不等待邮箱中的事件被处理
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public class ListenerMailbox implements Runnable {
+
+	public enum OverflowPolicy {
+		BLOCK, DROP_OLDEST, DROP_NEWEST, CALLER_RUNS
+	}
+
+	private final ApplicationListener<ApplicationEvent> listener;
+
+	private final int capacity;
+
+	private final OverflowPolicy overflowPolicy;
+
+	private final BlockingQueue<ApplicationEvent> queue;
+
+	private final Executor executor;
+
+	//实际执行监听器的方法，由事件发布者提供
+	private final BiConsumer<ApplicationListener<ApplicationEvent>, ApplicationEvent> invoker;
+
+	//处理监听器抛出的异常，由事件发布者提供
+	private final Consumer<Throwable> errorHandler;
+
+	//邮箱处理完时通知awaitIdle
+	private final Object idleMonitor = new Object();
+
+	//是否已经有任务在处理邮箱
+	private final AtomicBoolean scheduled = new AtomicBoolean();
+
+	private final AtomicLong deliveredCount = new AtomicLong();
+
+	private final AtomicLong droppedCount = new AtomicLong();
+
+	private final AtomicLong callerRunsCount = new AtomicLong();
+
+	ListenerMailbox(ApplicationListener<ApplicationEvent> listener, int capacity, OverflowPolicy overflowPolicy,
+					Executor executor, BiConsumer<ApplicationListener<ApplicationEvent>, ApplicationEvent> invoker,
+					Consumer<Throwable> errorHandler) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Mailbox capacity must be positive: " + capacity);
+		}
+		this.listener = listener;
+		this.capacity = capacity;
+		this.overflowPolicy = overflowPolicy;
+		this.queue = new ArrayBlockingQueue<>(capacity);
+		this.executor = executor;
+		this.invoker = invoker;
+		this.errorHandler = errorHandler;
+	}
+
+	void offer(ApplicationEvent event) {
+		if (!queue.offer(event)) {
+			switch (overflowPolicy) {
+				case BLOCK:
+					//先确保有任务在处理邮箱，再等待空位
+					schedule();
+					try {
+						queue.put(event);
+					} catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+						droppedCount.incrementAndGet();
+						return;
+					}
+					break;
+				case DROP_OLDEST:
+					while (!queue.offer(event)) {
+						if (queue.poll() != null) {
+							droppedCount.incrementAndGet();
+						}
+					}
+					break;
+				case DROP_NEWEST:
+					droppedCount.incrementAndGet();
+					return;
+				default:
+					callerRunsCount.incrementAndGet();
+					invoke(event);
+					return;
+			}
+		}
+		schedule();
+	}
+
+	private void schedule() {
+		while (!queue.isEmpty() && scheduled.compareAndSet(false, true)) {
+			try {
+				executor.execute(this);
+				return;
+			} catch (RejectedExecutionException ex) {
+				//执行器已经关闭，在当前线程上处理，仍然持有scheduled保证同一时刻只有一个线程处理邮箱
+				try {
+					drain();
+				} finally {
+					release();
+				}
+			}
+		}
+	}
+
+	@Override
+	public void run() {
+		try {
+			drain();
+		} finally {
+			release();
+			//释放标志之后可能有新事件入队
+			schedule();
+		}
+	}
+
+	private void drain() {
+		ApplicationEvent event;
+		while ((event = queue.poll()) != null) {
+			invoke(event);
+		}
+	}
+
+	private void release() {
+		scheduled.set(false);
+		synchronized (idleMonitor) {
+			idleMonitor.notifyAll();
+		}
+	}
+
+	private void invoke(ApplicationEvent event) {
+		try {
+			invoker.accept(listener, event);
+			deliveredCount.incrementAndGet();
+		} catch (Throwable ex) {
+			errorHandler.accept(ex);
+		}
+	}
+
+	/**
+	 * 邮箱为空且没有正在处理的事件
+	 */
+	boolean isIdle() {
+		return queue.isEmpty() && !scheduled.get();
+	}
+
+	/**
+	 * 等待邮箱中的事件处理完
+	 *
+	 * @return 超时之前是否处理完
+	 */
+	boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		synchronized (idleMonitor) {
+			while (!isIdle()) {
+				long remaining = deadline - System.nanoTime();
+				if (remaining <= 0) {
+					return false;
+				}
+				TimeUnit.NANOSECONDS.timedWait(idleMonitor, remaining);
+			}
+			return true;
+		}
+	}
+
+	public ApplicationListener<ApplicationEvent> getListener() {
+		return listener;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public OverflowPolicy getOverflowPolicy() {
+		return overflowPolicy;
+	}
+
+	/**
+	 * 邮箱中等待处理的事件数
+	 */
+	public int getQueueDepth() {
+		return queue.size();
+	}
+
+	/**
+	 * 已经交给监听器的事件数，包括在发布线程上执行的
+	 */
+	public long getDeliveredCount() {
+		return deliveredCount.get();
+	}
+
+	/**
+	 * 因为邮箱满而丢弃的事件数
+	 */
+	public long getDroppedCount() {
+		return droppedCount.get();
+	}
+
+	/**
+	 * 因为邮箱满而在发布线程上执行的事件数
+	 */
+	public long getCallerRunsCount() {
+		return callerRunsCount.get();
+	}
+}
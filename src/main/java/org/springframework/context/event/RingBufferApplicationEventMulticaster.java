@@ -0,0 +1,404 @@
+package org.springframework.context.event;
+
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.util.ErrorHandler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 基于环形缓冲区的事件发布者
+ * <p>
+ * 适用于每秒发布大量事件的场景（指标、缓存失效通知）：发布线程只负责把事件放入预先分配好的环形数组，
+ * 由一个专门的分发线程执行监听器，发布线程不再逐个调用监听器。
+ * <p>
+ * 发布时通过AtomicLong#getAndIncrement领取序号，写入对应的槽位后把序号写入该槽位的发布标记，全程不加锁；
+ * 分发线程按序号顺序读取，每次取走所有已发布的连续事件作为一批处理（最多maxBatchSize个），
+ * 实现了EndOfBatchListener的监听器在每批结束时收到回调，可以在这里批量刷新。
+ * 缓冲区满时发布线程等待分发线程，等待方式由WaitStrategy决定：BUSY_SPIN延迟最低但占满一个核，
+ * YIELD让出CPU，PARK挂起一小段时间，最省CPU但延迟最高
+ * <p>
+ * 监听器在分发线程上按发布顺序执行，multicastEvent在事件入队后即返回。
+ * 监听器在分发线程上再发布的事件直接在分发线程上执行（与同步发布一致），否则缓冲区满时分发线程会等待自己。
+ * <p>
+ * 领取序号和关闭通过同一个AtomicLong完成：关闭时CAS置上最高位，之后不能再领取序号，
+ * 分发线程据此知道关闭前一共领取了多少个序号，处理完这些事件后退出，不会丢失关闭前领取的事件。
+ * 关闭后发布的事件等分发线程退出后在发布线程上执行，多个发布线程之间串行，仍然只有一个线程在执行监听器
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public class RingBufferApplicationEventMulticaster extends AbstractApplicationEventMulticaster {
+
+	public enum WaitStrategy {
+		BUSY_SPIN, YIELD, PARK
+	}
+
+	/**
+	 * 需要在每批事件处理完之后收到通知的监听器
+	 */
+	public interface EndOfBatchListener {
+
+		void onEndOfBatch();
+	}
+
+	private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+	//claimSequence的最高位，置上之后表示已经关闭
+	private static final long CLOSED = Long.MIN_VALUE;
+
+	//关闭时等待分发线程处理完剩余事件的最长时间
+	private static final long CLOSE_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+	//缓冲区大小，必须是2的幂
+	private int bufferSize = 1024;
+
+	private int maxBatchSize = 256;
+
+	private WaitStrategy waitStrategy = WaitStrategy.YIELD;
+
+	private ErrorHandler errorHandler;
+
+	private ApplicationEvent[] entries;
+
+	private CompletableFuture<?>[] completions;
+
+	//每个槽位最后一次发布的序号，等于当前要读取的序号时表示该槽位已经写入
+	private AtomicLongArray published;
+
+	private int mask;
+
+	//下一个可领取的序号，最高位为关闭标记
+	private final AtomicLong claimSequence = new AtomicLong();
+
+	//分发线程已经处理完的最大序号
+	private volatile long consumedSequence = -1;
+
+	private volatile boolean started;
+
+	private volatile Thread dispatcher;
+
+	//关闭后在发布线程上执行监听器时串行
+	private final Object closedDispatchLock = new Object();
+
+	private volatile EndOfBatchListener[] endOfBatchListeners = new EndOfBatchListener[0];
+
+	private final Object endOfBatchLock = new Object();
+
+	@Override
+	public void addApplicationListener(ApplicationListener<?> listener, Collection<String> routingKeys) {
+		super.addApplicationListener(listener, routingKeys);
+		refreshEndOfBatchListeners();
+	}
+
+	@Override
+	public void removeApplicationListener(ApplicationListener<?> listener) {
+		super.removeApplicationListener(listener);
+		refreshEndOfBatchListeners();
+	}
+
+	private void refreshEndOfBatchListeners() {
+		//加锁保证最后写入的是最新的监听器快照
+		synchronized (this.endOfBatchLock) {
+			List<EndOfBatchListener> listeners = new ArrayList<>();
+			for (ApplicationListener<ApplicationEvent> listener : getApplicationListeners()) {
+				if (listener instanceof EndOfBatchListener) {
+					listeners.add((EndOfBatchListener) listener);
+				}
+			}
+			endOfBatchListeners = listeners.toArray(new EndOfBatchListener[0]);
+		}
+	}
+
+	@Override
+	public void multicastEvent(ApplicationEvent event) {
+		publish(event, null);
+	}
+
+	@Override
+	public CompletableFuture<Void> multicastEventAsync(ApplicationEvent event) {
+		CompletableFuture<Void> future = new CompletableFuture<>();
+		publish(event, future);
+		return future;
+	}
+
+	private void publish(ApplicationEvent event, CompletableFuture<?> completion) {
+		if (Thread.currentThread() == dispatcher) {
+			//监听器在分发线程上发布事件，直接执行，批结束的回调由外层的批处理负责
+			dispatchInline(event, completion, false);
+			return;
+		}
+		if (!started) {
+			start();
+		}
+		long sequence = claim();
+		if (sequence < 0) {
+			dispatchAfterClose(event, completion);
+			return;
+		}
+		//缓冲区已满时等待分发线程腾出槽位
+		long wrapPoint = sequence - bufferSize;
+		int spins = 0;
+		while (wrapPoint > consumedSequence) {
+			if (!dispatcher.isAlive()) {
+				//分发线程已经异常退出，不会再腾出槽位
+				throw new IllegalStateException("Event dispatcher thread terminated unexpectedly");
+			}
+			spins = await(spins);
+		}
+		int index = (int) sequence & mask;
+		entries[index] = event;
+		completions[index] = completion;
+		//发布标记写入之后分发线程才会读取槽位，lazySet保证前面的写入先于标记可见
+		published.lazySet(index, sequence);
+	}
+
+	/**
+	 * 第一次发布时分配缓冲区并启动分发线程，已经关闭时不再启动
+	 */
+	private synchronized void start() {
+		if (started || claimSequence.get() < 0) {
+			return;
+		}
+		entries = new ApplicationEvent[bufferSize];
+		completions = new CompletableFuture<?>[bufferSize];
+		published = new AtomicLongArray(bufferSize);
+		for (int i = 0; i < bufferSize; i++) {
+			published.set(i, -1);
+		}
+		mask = bufferSize - 1;
+		Thread thread = new Thread(this::dispatchLoop, "event-ring-buffer-dispatcher");
+		thread.setDaemon(true);
+		dispatcher = thread;
+		thread.start();
+		//线程启动之后才标记，其他发布线程等待槽位时可以通过isAlive判断分发线程是否异常退出
+		started = true;
+	}
+
+	/**
+	 * 领取一个序号，已经关闭时返回-1
+	 */
+	private long claim() {
+		while (true) {
+			long current = claimSequence.get();
+			if (current < 0) {
+				return -1;
+			}
+			if (claimSequence.compareAndSet(current, current + 1)) {
+				return current;
+			}
+		}
+	}
+
+	/**
+	 * 关闭后发布的事件：等分发线程处理完关闭前领取的事件并退出，再在发布线程上串行执行。
+	 * 分发线程在CLOSE_TIMEOUT_MILLIS内没有退出（例如监听器卡住）时不执行该事件，抛出IllegalStateException
+	 */
+	private void dispatchAfterClose(ApplicationEvent event, CompletableFuture<?> completion) {
+		Thread thread = this.dispatcher;
+		if (thread != null) {
+			boolean interrupted = false;
+			long deadline = System.currentTimeMillis() + CLOSE_TIMEOUT_MILLIS;
+			long remaining;
+			while (thread.isAlive() && (remaining = deadline - System.currentTimeMillis()) > 0) {
+				try {
+					thread.join(remaining);
+				} catch (InterruptedException ex) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+			if (thread.isAlive()) {
+				IllegalStateException ex = new IllegalStateException(
+						"Event dispatcher thread did not terminate within " + CLOSE_TIMEOUT_MILLIS + " ms after close");
+				if (completion == null) {
+					throw ex;
+				}
+				completion.completeExceptionally(ex);
+				return;
+			}
+		}
+		synchronized (this.closedDispatchLock) {
+			dispatchInline(event, completion, true);
+		}
+	}
+
+	private void dispatchLoop() {
+		long next = consumedSequence + 1;
+		int spins = 0;
+		while (true) {
+			int index = (int) next & mask;
+			if (published.get(index) != next) {
+				long claimed = claimSequence.get();
+				if (claimed < 0 && next >= (claimed & ~CLOSED)) {
+					//已经关闭且关闭前领取的序号都处理完
+					return;
+				}
+				spins = await(spins);
+				continue;
+			}
+			spins = 0;
+			//取走所有已发布的连续事件作为一批
+			int batchSize = 0;
+			do {
+				ApplicationEvent event = entries[index];
+				CompletableFuture<?> completion = completions[index];
+				entries[index] = null;
+				completions[index] = null;
+				Throwable error = invokeListeners(event);
+				if (completion != null) {
+					//先推进消费进度再完成future，等待future的调用方看到的getBacklog已经不包含该事件
+					consumedSequence = next;
+					complete(completion, error);
+				}
+				next++;
+				batchSize++;
+				index = (int) next & mask;
+			} while (batchSize < maxBatchSize && published.get(index) == next);
+			consumedSequence = next - 1;
+			notifyEndOfBatch();
+		}
+	}
+
+	private Throwable invokeListeners(ApplicationEvent event) {
+		Throwable firstError = null;
+		for (ApplicationListener<ApplicationEvent> listener : getApplicationListeners(event)) {
+			try {
+				invokeListener(listener, event);
+			} catch (Throwable ex) {
+				handleListenerError(ex);
+				if (firstError == null) {
+					firstError = ex;
+				}
+			}
+		}
+		return firstError;
+	}
+
+	private void dispatchInline(ApplicationEvent event, CompletableFuture<?> completion, boolean endOfBatch) {
+		Throwable error = invokeListeners(event);
+		if (completion != null) {
+			complete(completion, error);
+		}
+		if (endOfBatch) {
+			notifyEndOfBatch();
+		}
+	}
+
+	private static void complete(CompletableFuture<?> completion, Throwable error) {
+		if (error == null) {
+			completion.complete(null);
+		} else {
+			completion.completeExceptionally(error);
+		}
+	}
+
+	private void notifyEndOfBatch() {
+		for (EndOfBatchListener listener : endOfBatchListeners) {
+			try {
+				listener.onEndOfBatch();
+			} catch (Throwable ex) {
+				handleListenerError(ex);
+			}
+		}
+	}
+
+	/**
+	 * 分发线程、邮箱和批量投递中监听器的异常都交给errorHandler，
+	 * errorHandler本身抛出的异常交给UncaughtExceptionHandler，不会终止分发线程
+	 */
+	@Override
+	protected void handleListenerError(Throwable ex) {
+		ErrorHandler handler = this.errorHandler;
+		if (handler != null) {
+			try {
+				handler.handleError(ex);
+				return;
+			} catch (Throwable handlerEx) {
+				ex = handlerEx;
+			}
+		}
+		try {
+			Thread thread = Thread.currentThread();
+			thread.getUncaughtExceptionHandler().uncaughtException(thread, ex);
+		} catch (Throwable ignored) {
+			//UncaughtExceptionHandler也失败时只能丢弃
+		}
+	}
+
+	private int await(int spins) {
+		switch (waitStrategy) {
+			case BUSY_SPIN:
+				return spins + 1;
+			case YIELD:
+				Thread.yield();
+				return spins + 1;
+			default:
+				//先自旋一小段时间，仍然等不到再挂起
+				if (spins < 100) {
+					return spins + 1;
+				}
+				LockSupport.parkNanos(this, PARK_NANOS);
+				return spins;
+		}
+	}
+
+	/**
+	 * 处理完已经发布的事件后停止分发线程
+	 */
+	@Override
+	public void destroy() throws Exception {
+		Thread thread;
+		synchronized (this) {
+			long current;
+			do {
+				current = claimSequence.get();
+			} while (current >= 0 && !claimSequence.compareAndSet(current, current | CLOSED));
+			thread = this.dispatcher;
+		}
+		if (thread != null && thread != Thread.currentThread()) {
+			thread.join(CLOSE_TIMEOUT_MILLIS);
+		}
+		super.destroy();
+	}
+
+	/**
+	 * 已经发布但分发线程还未处理的事件数
+	 */
+	public long getBacklog() {
+		return (claimSequence.get() & ~CLOSED) - 1 - consumedSequence;
+	}
+
+	/**
+	 * 设置缓冲区大小，必须是2的幂，只在第一次发布之前生效
+	 *
+	 * @param bufferSize
+	 */
+	public void setBufferSize(int bufferSize) {
+		if (bufferSize <= 0 || Integer.bitCount(bufferSize) != 1) {
+			throw new IllegalArgumentException("bufferSize must be a power of 2: " + bufferSize);
+		}
+		this.bufferSize = bufferSize;
+	}
+
+	public void setMaxBatchSize(int maxBatchSize) {
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	public void setWaitStrategy(WaitStrategy waitStrategy) {
+		this.waitStrategy = waitStrategy;
+	}
+
+	public void setErrorHandler(ErrorHandler errorHandler) {
+		this.errorHandler = errorHandler;
+	}
+}
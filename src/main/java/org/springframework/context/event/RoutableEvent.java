@@ -0,0 +1,17 @@
+package org.springframework.context.event;
+
+/**
+ * 带路由key的事件，例如租户、主题、聚合根id
+ * <p>
+ * 事件发布者按路由key在索引中直接找到订阅了该key的监听器，不需要逐个判断所有订阅者
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public interface RoutableEvent {
+
+	/**
+	 * @return 路由key，返回null时只交给没有订阅路由key的监听器
+	 */
+	String getRoutingKey();
+}
@@ -0,0 +1,23 @@
+package org.springframework.context.event;
+
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+
+import java.util.Collection;
+
+/**
+ * 只订阅部分路由key的监听器
+ * <p>
+ * 只收到路由key（RoutableEvent#getRoutingKey）在getRoutingKeys中的事件，事件类型仍然按泛型参数匹配。
+ * 路由key在注册时读取一次，之后的变化不会生效
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public interface RoutedApplicationListener<E extends ApplicationEvent> extends ApplicationListener<E> {
+
+	/**
+	 * @return 订阅的路由key，为空时收到所有事件
+	 */
+	Collection<String> getRoutingKeys();
+}
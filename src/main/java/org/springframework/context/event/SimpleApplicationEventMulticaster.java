@@ -1,30 +1,128 @@
 package org.springframework.context.event;
 
-import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationListener;
+import org.springframework.util.ErrorHandler;
 
-import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
+ * 默认的事件发布者
+ * <p>
+ * 没有设置taskExecutor时在发布线程上依次执行监听器；设置之后每个监听器作为一个任务提交给taskExecutor，
+ * 发布线程不再等待慢的监听器。设置eventKeyResolver之后，key相同的事件进入同一条串行通道，
+ * 一个事件的所有监听器在通道中依次执行，同一个key的事件按发布顺序处理。taskExecutor拒绝任务时（例如已经关闭）在发布线程上执行。
+ * <p>
+ * 监听器抛出的异常交给errorHandler处理；没有设置errorHandler时，同步发布直接抛出，
+ * 异步发布交给执行线程的UncaughtExceptionHandler。有邮箱的监听器抛出的异常同样交给errorHandler。
+ * multicastEventAsync返回的future同时反映执行结果；对有邮箱的监听器，事件放入邮箱（或者被丢弃）时就算完成，
+ * future不等待邮箱中的事件被处理，也不反映其中的异常
+ * <p>
+ * 同步发布时如果设置了parallelExecutor，监听器数不少于parallelThreshold的事件在fork-join池中并行执行，
+ * 发布线程等待所有监听器执行完才返回，适用于监听器多且是CPU密集型的事件（例如容器刷新时重建索引、预热缓存）。
+ * 并行执行时监听器之间没有先后顺序，多个监听器抛出的异常汇总为ListenerExecutionException；
+ * 监听器较少时直接在发布线程上执行，避免任务交接的开销
+ *
  * @author derekyi
  * @date 2020/12/5
  */
 public class SimpleApplicationEventMulticaster extends AbstractApplicationEventMulticaster {
 
+	private Executor taskExecutor;
+
+	private ErrorHandler errorHandler;
+
+	private EventKeyResolver eventKeyResolver;
+
+	//串行通道数，key按hash分配到通道，不同的key可能共用一条通道
+	private int laneCount = 16;
+
+	private volatile SerialLane[] lanes;
+
+	private ForkJoinPool parallelExecutor;
+
+	//监听器数达到该值才并行执行
+	private int parallelThreshold = 4;
+
+	public SimpleApplicationEventMulticaster() {
+	}
+
 	public SimpleApplicationEventMulticaster(BeanFactory beanFactory) {
 		setBeanFactory(beanFactory);
 	}
 
 	@Override
 	public void multicastEvent(ApplicationEvent event) {
-		for (ApplicationListener<ApplicationEvent> applicationListener : applicationListeners) {
-			if (supportsEvent(applicationListener, event)) {
-				applicationListener.onApplicationEvent(event);
+		if (taskExecutor == null) {
+			//匹配的监听器按事件类型缓存，这里只有一次map查找
+			ApplicationListener<ApplicationEvent>[] listeners = getApplicationListeners(event);
+			if (parallelExecutor != null && listeners.length >= parallelThreshold) {
+				invokeInParallel(listeners, event);
+				return;
 			}
+			for (ApplicationListener<ApplicationEvent> applicationListener : listeners) {
+				if (errorHandler == null) {
+					invokeListener(applicationListener, event);
+				} else {
+					invokeAndHandle(applicationListener, event);
+				}
+			}
+			return;
 		}
+		multicastEventAsync(event);
+	}
+
+	@Override
+	public CompletableFuture<Void> multicastEventAsync(ApplicationEvent event) {
+		ApplicationListener<ApplicationEvent>[] listeners = getApplicationListeners(event);
+		CompletableFuture<Void> future = new CompletableFuture<>();
+		Executor executor = this.taskExecutor;
+		if (executor == null) {
+			complete(future, invokeAll(listeners, event));
+			return future;
+		}
+		if (listeners.length == 0) {
+			future.complete(null);
+			return future;
+		}
+		Object key = eventKeyResolver != null ? eventKeyResolver.resolveKey(event) : null;
+		if (key != null) {
+			//同一个key的事件在同一条通道中依次执行
+			getLane(key).execute(() -> complete(future, invokeAll(listeners, event)));
+			return future;
+		}
+		AtomicInteger remaining = new AtomicInteger(listeners.length);
+		AtomicReference<Throwable> firstError = new AtomicReference<>();
+		for (ApplicationListener<ApplicationEvent> listener : listeners) {
+			Runnable task = () -> {
+				Throwable error = invokeAndHandle(listener, event);
+				if (error != null) {
+					firstError.compareAndSet(null, error);
+				}
+				if (remaining.decrementAndGet() == 0) {
+					complete(future, firstError.get());
+				}
+			};
+			try {
+				executor.execute(task);
+			} catch (RejectedExecutionException ex) {
+				//执行器已经关闭或者饱和，在发布线程上执行，保证future能够完成
+				task.run();
+			}
+		}
+		return future;
 	}
 
 	/**
@@ -35,24 +133,196 @@ public class SimpleApplicationEventMulticaster extends AbstractApplicationEventM
 	 * @return
 	 */
 	protected boolean supportsEvent(ApplicationListener<ApplicationEvent> applicationListener, ApplicationEvent event) {
-		/*
-			获取事件监听器所实现的接口，一个事件监听器的格式如下：
-				public class ContextRefreshedEventListener implements ApplicationListener<ContextRefreshedEvent> {
-			实现的接口应该是ApplicationListener<E>
-			[0]表示获取实现的第一个接口，这里实际上就实现了一个接口（一个类是可以实现多个接口的）
-		 */
-		Type type = applicationListener.getClass().getGenericInterfaces()[0];
-		//获取监听器实现的第一个泛型
-		Type actualTypeArgument = ((ParameterizedType) type).getActualTypeArguments()[0];
-		String className = actualTypeArgument.getTypeName();
-		Class<?> eventClassName;
+		//监听器监听的事件类型在注册时已经解析
+		return supportsEventType(applicationListener, event.getClass());
+	}
+
+	/**
+	 * 在parallelExecutor中并行执行监听器，所有监听器执行完之后返回
+	 */
+	private void invokeInParallel(ApplicationListener<ApplicationEvent>[] listeners, ApplicationEvent event) {
+		Throwable[] errors = new Throwable[listeners.length];
+		ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[listeners.length];
+		for (int i = 0; i < listeners.length; i++) {
+			int index = i;
+			tasks[i] = ForkJoinTask.adapt(() -> {
+				try {
+					invokeListener(listeners[index], event);
+				} catch (Throwable ex) {
+					errors[index] = ex;
+				}
+			});
+		}
+		if (ForkJoinTask.getPool() == parallelExecutor) {
+			//已经在池中（例如监听器里又发布了事件），直接fork，避免占用一个线程阻塞等待
+			ForkJoinTask.invokeAll(tasks);
+		} else {
+			parallelExecutor.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+		}
+
+		List<Throwable> failures = new ArrayList<>();
+		for (Throwable error : errors) {
+			if (error != null) {
+				failures.add(error);
+			}
+		}
+		if (failures.isEmpty()) {
+			return;
+		}
+		if (errorHandler != null) {
+			failures.forEach(errorHandler::handleError);
+		} else if (failures.size() == 1 && failures.get(0) instanceof RuntimeException) {
+			throw (RuntimeException) failures.get(0);
+		} else if (failures.size() == 1 && failures.get(0) instanceof Error) {
+			throw (Error) failures.get(0);
+		} else {
+			throw new ListenerExecutionException(failures.size() + " listeners failed for event " + event.getClass().getName(), failures);
+		}
+	}
+
+	/**
+	 * 依次执行监听器，返回第一个异常
+	 */
+	private Throwable invokeAll(ApplicationListener<ApplicationEvent>[] listeners, ApplicationEvent event) {
+		Throwable firstError = null;
+		for (ApplicationListener<ApplicationEvent> listener : listeners) {
+			Throwable error = invokeAndHandle(listener, event);
+			if (firstError == null) {
+				firstError = error;
+			}
+		}
+		return firstError;
+	}
+
+	private Throwable invokeAndHandle(ApplicationListener<ApplicationEvent> listener, ApplicationEvent event) {
 		try {
-			//获取监听器泛型的那个类
-			eventClassName = Class.forName(className);
-		} catch (ClassNotFoundException e) {
-			throw new BeansException("wrong event class name: " + className);
+			invokeListener(listener, event);
+			return null;
+		} catch (Throwable ex) {
+			ErrorHandler handler = this.errorHandler;
+			if (handler != null) {
+				handler.handleError(ex);
+			} else if (taskExecutor != null) {
+				Thread thread = Thread.currentThread();
+				thread.getUncaughtExceptionHandler().uncaughtException(thread, ex);
+			}
+			return ex;
+		}
+	}
+
+	@Override
+	protected void handleListenerError(Throwable ex) {
+		ErrorHandler handler = this.errorHandler;
+		if (handler != null) {
+			handler.handleError(ex);
+		} else {
+			super.handleListenerError(ex);
+		}
+	}
+
+	private static void complete(CompletableFuture<Void> future, Throwable error) {
+		if (error == null) {
+			future.complete(null);
+		} else {
+			future.completeExceptionally(error);
+		}
+	}
+
+	private SerialLane getLane(Object key) {
+		SerialLane[] current = this.lanes;
+		if (current == null) {
+			synchronized (this) {
+				current = this.lanes;
+				if (current == null) {
+					current = new SerialLane[laneCount];
+					for (int i = 0; i < current.length; i++) {
+						current[i] = new SerialLane();
+					}
+					this.lanes = current;
+				}
+			}
+		}
+		int hash = key.hashCode();
+		return current[Math.floorMod(hash ^ (hash >>> 16), current.length)];
+	}
+
+	public void setTaskExecutor(Executor taskExecutor) {
+		this.taskExecutor = taskExecutor;
+	}
+
+	public Executor getTaskExecutor() {
+		return taskExecutor;
+	}
+
+	public void setErrorHandler(ErrorHandler errorHandler) {
+		this.errorHandler = errorHandler;
+	}
+
+	public void setEventKeyResolver(EventKeyResolver eventKeyResolver) {
+		this.eventKeyResolver = eventKeyResolver;
+	}
+
+	public void setParallelExecutor(ForkJoinPool parallelExecutor) {
+		this.parallelExecutor = parallelExecutor;
+	}
+
+	public void setParallelThreshold(int parallelThreshold) {
+		this.parallelThreshold = parallelThreshold;
+	}
+
+	public void setLaneCount(int laneCount) {
+		if (laneCount < 1) {
+			throw new IllegalArgumentException("laneCount must be positive");
+		}
+		this.laneCount = laneCount;
+	}
+
+	/**
+	 * 串行通道：任务放入无锁队列，同一时刻最多一个任务在taskExecutor中执行通道里的任务
+	 */
+	private class SerialLane implements Runnable {
+
+		private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+		private final AtomicBoolean scheduled = new AtomicBoolean();
+
+		private void execute(Runnable task) {
+			tasks.offer(task);
+			schedule();
+		}
+
+		private void schedule() {
+			while (!tasks.isEmpty() && scheduled.compareAndSet(false, true)) {
+				try {
+					taskExecutor.execute(this);
+					return;
+				} catch (RejectedExecutionException ex) {
+					//执行器已经关闭或者饱和，在当前线程上处理，仍然持有scheduled保证通道中的任务依次执行
+					try {
+						drain();
+					} finally {
+						scheduled.set(false);
+					}
+				}
+			}
+		}
+
+		@Override
+		public void run() {
+			try {
+				drain();
+			} finally {
+				scheduled.set(false);
+				//释放标志之后可能有新任务入队
+				schedule();
+			}
+		}
+
+		private void drain() {
+			Runnable task;
+			while ((task = tasks.poll()) != null) {
+				task.run();
+			}
 		}
-		//判断当前事件监听器监听的是否是当前事件
-		return eventClassName.isAssignableFrom(event.getClass());
 	}
 }
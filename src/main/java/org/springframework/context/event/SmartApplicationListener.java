@@ -0,0 +1,23 @@
+package org.springframework.context.event;
+
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+
+/**
+ * 自己判断监听哪些事件类型的监听器，用于无法从泛型参数解析事件类型的情况（例如一个监听器监听多种事件）
+ * <p>
+ * 事件发布者按事件类型缓存匹配结果，supportsEventType对每个事件类型只调用一次
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public interface SmartApplicationListener extends ApplicationListener<ApplicationEvent> {
+
+	/**
+	 * 是否监听该类型的事件
+	 *
+	 * @param eventType
+	 * @return
+	 */
+	boolean supportsEventType(Class<?> eventType);
+}
@@ -1,7 +1,9 @@
 package org.springframework.context.support;
 
+import org.springframework.aop.framework.autoproxy.DefaultAdvisorAutoProxyCreator;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.context.ApplicationEvent;
@@ -10,11 +12,14 @@ import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.event.ApplicationEventMulticaster;
 import org.springframework.context.event.ContextClosedEvent;
 import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListenerMethodProcessor;
 import org.springframework.context.event.SimpleApplicationEventMulticaster;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.core.io.DefaultResourceLoader;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -31,16 +36,26 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
 
 	private ApplicationEventMulticaster applicationEventMulticaster;
 
+	//事件发布者创建之前注册的监听器
+	private final List<ApplicationListener<?>> earlyApplicationListeners = new ArrayList<>();
+
 	@Override
 	public void refresh() throws BeansException {
 		// 创建BeanFactory，并加载BeanDefinition
 		refreshBeanFactory();
 		ConfigurableListableBeanFactory beanFactory = getBeanFactory();
 
+		// 注册内置的线程作用域和对象池作用域
+		beanFactory.registerScope(SimpleThreadScope.SCOPE_THREAD, new SimpleThreadScope());
+		beanFactory.registerScope(PooledScope.SCOPE_POOLED, new PooledScope(beanFactory));
+
 		// 添加ApplicationContextAwareProcessor，让继承自ApplicationContextAware的bean能感知bean
 		// Aware 接口相关内容
 		beanFactory.addBeanPostProcessor(new ApplicationContextAwareProcessor(this));
 
+		// 添加EventListenerMethodProcessor，将单例bean上@EventListener标注的方法注册为事件监听器
+		beanFactory.addBeanPostProcessor(new EventListenerMethodProcessor(this, beanFactory));
+
 		/*
 			在bean实例化之前，执行BeanFactoryPostProcessor
 
@@ -130,10 +145,14 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
 	}
 
 	/**
-	 * 初始化事件发布者
+	 * 初始化事件发布者，优先使用用户定义的applicationEventMulticaster bean（例如配置了taskExecutor的异步发布者）
 	 */
 	protected void initApplicationEventMulticaster() {
 		ConfigurableListableBeanFactory beanFactory = getBeanFactory();
+		if (beanFactory.containsBean(APPLICATION_EVENT_MULTICASTER_BEAN_NAME)) {
+			applicationEventMulticaster = beanFactory.getBean(APPLICATION_EVENT_MULTICASTER_BEAN_NAME, ApplicationEventMulticaster.class);
+			return;
+		}
 		applicationEventMulticaster = new SimpleApplicationEventMulticaster(beanFactory);
 		beanFactory.addSingleton(APPLICATION_EVENT_MULTICASTER_BEAN_NAME, applicationEventMulticaster);
 	}
@@ -142,12 +161,55 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
 	 * 注册事件监听器
 	 */
 	protected void registerListeners() {
+		synchronized (earlyApplicationListeners) {
+			for (ApplicationListener<?> listener : earlyApplicationListeners) {
+				applicationEventMulticaster.addApplicationListener(listener);
+			}
+			earlyApplicationListeners.clear();
+		}
 		Collection<ApplicationListener> applicationListeners = getBeansOfType(ApplicationListener.class).values();
 		for (ApplicationListener applicationListener : applicationListeners) {
 			applicationEventMulticaster.addApplicationListener(applicationListener);
 		}
 	}
 
+	@Override
+	public void addApplicationListener(ApplicationListener<?> listener) {
+		synchronized (earlyApplicationListeners) {
+			if (applicationEventMulticaster == null) {
+				earlyApplicationListeners.add(listener);
+				return;
+			}
+		}
+		applicationEventMulticaster.addApplicationListener(listener);
+	}
+
+	@Override
+	public void setAdvisorEnabled(String advisorBeanName, boolean enabled) throws BeansException {
+		for (DefaultAdvisorAutoProxyCreator autoProxyCreator : getAutoProxyCreators()) {
+			autoProxyCreator.setAdvisorEnabled(advisorBeanName, enabled);
+		}
+	}
+
+	@Override
+	public boolean isAdvisorEnabled(String advisorBeanName) {
+		//没有自动代理创建器时没有Advisor被禁用
+		for (DefaultAdvisorAutoProxyCreator autoProxyCreator : getBeansOfType(DefaultAdvisorAutoProxyCreator.class).values()) {
+			if (!autoProxyCreator.isAdvisorEnabled(advisorBeanName)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private Collection<DefaultAdvisorAutoProxyCreator> getAutoProxyCreators() {
+		Collection<DefaultAdvisorAutoProxyCreator> autoProxyCreators = getBeansOfType(DefaultAdvisorAutoProxyCreator.class).values();
+		if (autoProxyCreators.isEmpty()) {
+			throw new BeansException("No DefaultAdvisorAutoProxyCreator defined in application context");
+		}
+		return autoProxyCreators;
+	}
+
 	/**
 	 * 发布容器刷新完成事件
 	 */
@@ -175,6 +237,11 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
 		return getBeanFactory().getBeansOfType(type);
 	}
 
+	@Override
+	public String[] getBeanNamesForType(Class<?> type) {
+		return getBeanFactory().getBeanNamesForType(type);
+	}
+
 	public <T> T getBean(Class<T> requiredType) throws BeansException {
 		return getBeanFactory().getBean(requiredType);
 	}
@@ -208,6 +275,16 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
 		//发布容器关闭事件
 		publishEvent(new ContextClosedEvent(this));
 
+		//默认的事件发布者不是容器中定义的bean，在销毁bean之前交付缓存的批次事件
+		if (!getBeanFactory().containsBean(APPLICATION_EVENT_MULTICASTER_BEAN_NAME)
+				&& applicationEventMulticaster instanceof DisposableBean) {
+			try {
+				((DisposableBean) applicationEventMulticaster).destroy();
+			} catch (Exception e) {
+				throw new BeansException("Failed to close application event multicaster", e);
+			}
+		}
+
 		//执行单例bean的销毁方法
 		destroyBeans();
 	}
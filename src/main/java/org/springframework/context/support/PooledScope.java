@@ -0,0 +1,237 @@
+package org.springframework.context.support;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.Resettable;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.beans.factory.config.Scope;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 对象池作用域，回收使用完的bean实例
+ * <p>
+ * prototype的bean每次getBean都要完整走一遍实例化、BeanPostProcessor、属性注入和初始化方法，
+ * 调用频繁时开销大且产生大量垃圾。pooled作用域的bean在getBean时优先借出池中已经初始化好的实例，
+ * 使用完通过release归还，只有池中没有空闲实例时才创建新实例。归还时如果bean实现了Resettable，先调用reset清除状态
+ * <p>
+ * 每个bean的空闲实例分散在多个无锁栈（Treiber stack）中，栈的数量是不小于CPU核数的2的幂，
+ * 线程按线程id选择自己的栈，自己的栈为空时再从其他栈借，减少多个线程在同一个栈顶上的CAS竞争。
+ * 每个bean最多保留maxIdle个空闲实例，超出的实例在归还时直接销毁
+ * <p>
+ * 实例通过BeanFactory#destroyBean按beanName销毁（执行DisposableBean#destroy和destroy-method），作用域不保存每个实例的销毁回调，
+ * 也不持有借出的实例：借出后没有归还的实例与prototype的bean一样由调用方负责，作用域销毁时只销毁空闲实例。
+ * 没有BeanFactory时只执行DisposableBean#destroy
+ * <p>
+ * ApplicationContext刷新时以"pooled"为名自动注册，需要调整maxIdle时通过CustomScopeConfigurer注册新的实例覆盖
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public class PooledScope implements Scope, BeanFactoryAware, DisposableBean {
+
+	public static final String SCOPE_POOLED = "pooled";
+
+	private static final int STRIPES = stripeCount();
+
+	//每个bean最多保留的空闲实例数
+	private int maxIdle = 64;
+
+	private final Map<String, Pool> pools = new ConcurrentHashMap<>();
+
+	private final AtomicLong createdCount = new AtomicLong();
+
+	private final AtomicLong borrowCount = new AtomicLong();
+
+	private volatile ConfigurableBeanFactory beanFactory;
+
+	public PooledScope() {
+	}
+
+	public PooledScope(ConfigurableBeanFactory beanFactory) {
+		this.beanFactory = beanFactory;
+	}
+
+	@Override
+	public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+		if (this.beanFactory == null && beanFactory instanceof ConfigurableBeanFactory) {
+			this.beanFactory = (ConfigurableBeanFactory) beanFactory;
+		}
+	}
+
+	@Override
+	public Object get(String name, ObjectFactory<?> objectFactory) {
+		borrowCount.incrementAndGet();
+		Object bean = pools.computeIfAbsent(name, key -> new Pool()).poll();
+		if (bean != null) {
+			return bean;
+		}
+		//池中没有空闲实例，完整创建一个
+		bean = objectFactory.getObject();
+		createdCount.incrementAndGet();
+		return bean;
+	}
+
+	/**
+	 * 归还借出的实例，归还之后调用方不能再使用该实例
+	 *
+	 * @param name beanName
+	 * @param bean 通过getBean借出的实例
+	 */
+	public void release(String name, Object bean) {
+		if (bean instanceof Resettable) {
+			try {
+				((Resettable) bean).reset();
+			} catch (RuntimeException ex) {
+				//无法重置的实例不再放回池中
+				destroyInstance(name, bean);
+				throw new BeansException("Failed to reset pooled bean '" + name + "'", ex);
+			}
+		}
+		Pool pool = pools.get(name);
+		if (pool == null || !pool.offer(bean, maxIdle)) {
+			destroyInstance(name, bean);
+		}
+	}
+
+	/**
+	 * 丢弃该bean的所有空闲实例（不执行销毁回调），池中的实例没有唯一对应的对象，总是返回null
+	 */
+	@Override
+	public Object remove(String name) {
+		pools.remove(name);
+		return null;
+	}
+
+	@Override
+	public void registerDestructionCallback(String name, Runnable callback) {
+		//销毁回调绑定了具体的实例，保存下来会一直持有借出未归还的实例，销毁时改为按beanName通过BeanFactory销毁
+	}
+
+	/**
+	 * 销毁所有空闲实例，借出未归还的实例由调用方负责
+	 */
+	@Override
+	public void destroy() throws Exception {
+		List<Map.Entry<String, Pool>> entries = new ArrayList<>(pools.entrySet());
+		pools.clear();
+		for (Map.Entry<String, Pool> entry : entries) {
+			Object bean;
+			while ((bean = entry.getValue().poll()) != null) {
+				destroyInstance(entry.getKey(), bean);
+			}
+		}
+	}
+
+	private void destroyInstance(String name, Object bean) {
+		ConfigurableBeanFactory beanFactory = this.beanFactory;
+		try {
+			if (beanFactory != null) {
+				beanFactory.destroyBean(name, bean);
+			} else if (bean instanceof DisposableBean) {
+				((DisposableBean) bean).destroy();
+			}
+		} catch (BeansException ex) {
+			throw ex;
+		} catch (Exception ex) {
+			throw new BeansException("Destroy method on bean with name '" + name + "' threw an exception", ex);
+		}
+	}
+
+	/**
+	 * 当前空闲的实例数
+	 */
+	public int getIdleCount(String name) {
+		Pool pool = pools.get(name);
+		return pool != null ? pool.idleCount.get() : 0;
+	}
+
+	/**
+	 * 完整创建实例的次数
+	 */
+	public long getCreatedCount() {
+		return createdCount.get();
+	}
+
+	public long getBorrowCount() {
+		return borrowCount.get();
+	}
+
+	public int getMaxIdle() {
+		return maxIdle;
+	}
+
+	public void setMaxIdle(int maxIdle) {
+		this.maxIdle = maxIdle;
+	}
+
+	private static int stripeCount() {
+		int processors = Runtime.getRuntime().availableProcessors();
+		int count = 1;
+		while (count < processors) {
+			count <<= 1;
+		}
+		return count;
+	}
+
+	/**
+	 * 一个bean的空闲实例
+	 */
+	private static class Pool {
+
+		//每个元素是一个栈的栈顶
+		private final AtomicReferenceArray<Node> stacks = new AtomicReferenceArray<>(STRIPES);
+
+		private final AtomicInteger idleCount = new AtomicInteger();
+
+		private Object poll() {
+			int start = (int) Thread.currentThread().getId() & (STRIPES - 1);
+			for (int i = 0; i < STRIPES; i++) {
+				int stack = (start + i) & (STRIPES - 1);
+				Node head;
+				while ((head = stacks.get(stack)) != null) {
+					if (stacks.compareAndSet(stack, head, head.next)) {
+						idleCount.decrementAndGet();
+						return head.item;
+					}
+				}
+			}
+			return null;
+		}
+
+		private boolean offer(Object bean, int maxIdle) {
+			if (idleCount.incrementAndGet() > maxIdle) {
+				idleCount.decrementAndGet();
+				return false;
+			}
+			int stack = (int) Thread.currentThread().getId() & (STRIPES - 1);
+			Node node = new Node(bean);
+			Node head;
+			do {
+				head = stacks.get(stack);
+				node.next = head;
+			} while (!stacks.compareAndSet(stack, head, node));
+			return true;
+		}
+	}
+
+	private static class Node {
+
+		private final Object item;
+
+		private Node next;
+
+		private Node(Object item) {
+			this.item = item;
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package org.springframework.context.support;
+
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.config.Scope;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 线程作用域，每个线程持有自己的bean实例
+ * <p>
+ * 实例和销毁回调都保存在当前线程的ThreadLocal中，只会被本线程访问，获取实例时不需要任何同步。
+ * 适用于非线程安全但希望在线程内复用的bean（例如格式化器、缓冲区）。
+ * ApplicationContext刷新时以"thread"为名自动注册，xml中通过scope="thread"使用
+ * <p>
+ * 线程池中的线程不会结束，任务结束时可以调用destroyCurrentThread销毁本线程的实例
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public class SimpleThreadScope implements Scope {
+
+	public static final String SCOPE_THREAD = "thread";
+
+	private final ThreadLocal<Map<String, Object>> threadScope = ThreadLocal.withInitial(HashMap::new);
+
+	//按注册顺序保存销毁回调
+	private final ThreadLocal<Map<String, Runnable>> destructionCallbacks = ThreadLocal.withInitial(LinkedHashMap::new);
+
+	@Override
+	public Object get(String name, ObjectFactory<?> objectFactory) {
+		Map<String, Object> scope = threadScope.get();
+		Object scopedObject = scope.get(name);
+		if (scopedObject == null) {
+			scopedObject = objectFactory.getObject();
+			scope.put(name, scopedObject);
+		}
+		return scopedObject;
+	}
+
+	@Override
+	public Object remove(String name) {
+		destructionCallbacks.get().remove(name);
+		return threadScope.get().remove(name);
+	}
+
+	@Override
+	public void registerDestructionCallback(String name, Runnable callback) {
+		destructionCallbacks.get().put(name, callback);
+	}
+
+	/**
+	 * 销毁当前线程的所有实例，下次获取时重新创建
+	 */
+	public void destroyCurrentThread() {
+		Map<String, Runnable> callbacks = destructionCallbacks.get();
+		destructionCallbacks.remove();
+		threadScope.remove();
+		for (Runnable callback : callbacks.values()) {
+			callback.run();
+		}
+	}
+}
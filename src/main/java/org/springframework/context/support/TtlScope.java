@@ -0,0 +1,278 @@
+package org.springframework.context.support;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.config.Scope;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 带过期时间的作用域
+ * <p>
+ * 适用于外部状态的快照（配置、查找表等）：实例缓存ttl毫秒，过期后第一次访问触发后台线程重新创建，
+ * 重新创建完成之前调用方继续拿到旧实例，不会阻塞在创建上；新实例替换旧实例之后，
+ * 旧实例再经过destroyDelay毫秒的宽限期才通过其销毁回调（DisposableBeanAdapter，即DisposableBean#destroy和destroy-method）销毁，
+ * 替换之前已经拿到旧实例的调用（例如作用域代理上正在执行的方法）可以在宽限期内正常结束。
+ * 宽限期应大于单次调用的最长耗时，调用超过宽限期时可能用到已经销毁的实例。容器关闭时还在宽限期内的旧实例立即销毁。
+ * 重新创建失败时保留旧实例，过一个ttl之后再次尝试，失败原因通过getLastRefreshFailure查看
+ * <p>
+ * 单例bean注入该作用域的bean时应使用ScopedProxyFactoryBean，否则单例bean一直持有第一次注入的实例。
+ * 通过CustomScopeConfigurer注册：
+ * <pre>
+ * &lt;bean id="ttlScope" class="org.springframework.context.support.TtlScope"&gt;
+ *     &lt;property name="ttl" value="300000"/&gt;
+ * &lt;/bean&gt;
+ * &lt;bean class="org.springframework.beans.factory.config.CustomScopeConfigurer"&gt;
+ *     &lt;property name="scopeName" value="ttl"/&gt;
+ *     &lt;property name="scope" ref="ttlScope"/&gt;
+ * &lt;/bean&gt;
+ * </pre>
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public class TtlScope implements Scope, DisposableBean {
+
+	//实例的存活时间（毫秒）
+	private long ttl = TimeUnit.MINUTES.toMillis(5);
+
+	private final Map<String, ScopedInstance> instances = new ConcurrentHashMap<>();
+
+	private final AtomicLong refreshCount = new AtomicLong();
+
+	private final AtomicLong refreshFailureCount = new AtomicLong();
+
+	//旧实例被替换之后延迟销毁的时间（毫秒）
+	private long destroyDelay = TimeUnit.SECONDS.toMillis(10);
+
+	//还在宽限期内、等待销毁的旧实例的销毁回调
+	private final Set<Runnable> pendingDestructions = ConcurrentHashMap.newKeySet();
+
+	//销毁作用域时等待正在进行的重新创建的最长时间（毫秒），与ttl无关，避免关闭容器被长时间阻塞
+	private long shutdownTimeout = TimeUnit.SECONDS.toMillis(5);
+
+	private volatile Throwable lastRefreshFailure;
+
+	private volatile ScheduledExecutorService executor;
+
+	private volatile boolean destroyed;
+
+	public TtlScope() {
+	}
+
+	public TtlScope(long ttl) {
+		this.ttl = ttl;
+	}
+
+	@Override
+	public Object get(String name, ObjectFactory<?> objectFactory) {
+		ScopedInstance scopedInstance = instances.computeIfAbsent(name, ScopedInstance::new);
+		Object current = scopedInstance.instance;
+		if (current == null) {
+			//第一次获取时同步创建
+			synchronized (scopedInstance) {
+				current = scopedInstance.instance;
+				if (current == null) {
+					current = scopedInstance.create(objectFactory);
+				}
+			}
+			return current;
+		}
+		if (System.currentTimeMillis() >= scopedInstance.expiresAt && !destroyed
+				&& scopedInstance.refreshing.compareAndSet(false, true)) {
+			getExecutor().execute(() -> refresh(scopedInstance, objectFactory));
+		}
+		return current;
+	}
+
+	private void refresh(ScopedInstance scopedInstance, ObjectFactory<?> objectFactory) {
+		try {
+			Runnable staleCallback = scopedInstance.destructionCallback;
+			synchronized (scopedInstance) {
+				scopedInstance.create(objectFactory);
+			}
+			if (staleCallback != null) {
+				scheduleDestruction(staleCallback);
+			}
+			refreshCount.incrementAndGet();
+		} catch (RuntimeException ex) {
+			//在后台线程抛出的异常只会到达线程的UncaughtExceptionHandler，这里记录下来
+			refreshFailureCount.incrementAndGet();
+			lastRefreshFailure = new BeansException("Failed to refresh bean '" + scopedInstance.name + "' in ttl scope", ex);
+			scopedInstance.expiresAt = System.currentTimeMillis() + ttl;
+		} finally {
+			scopedInstance.refreshing.set(false);
+		}
+	}
+
+	/**
+	 * 宽限期之后销毁旧实例，由本对象或者destroy负责执行，只执行一次
+	 */
+	private void scheduleDestruction(Runnable staleCallback) {
+		pendingDestructions.add(staleCallback);
+		try {
+			getExecutor().schedule(() -> {
+				if (pendingDestructions.remove(staleCallback)) {
+					staleCallback.run();
+				}
+			}, destroyDelay, TimeUnit.MILLISECONDS);
+		} catch (RejectedExecutionException ex) {
+			//作用域正在关闭，由destroy销毁
+		}
+	}
+
+	@Override
+	public Object remove(String name) {
+		ScopedInstance scopedInstance = instances.remove(name);
+		return scopedInstance != null ? scopedInstance.instance : null;
+	}
+
+	@Override
+	public void registerDestructionCallback(String name, Runnable callback) {
+		//创建实例的过程中注册，先暂存，实例创建完成后与实例一起替换
+		ScopedInstance scopedInstance = instances.get(name);
+		if (scopedInstance != null) {
+			scopedInstance.pendingCallback = callback;
+		}
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		destroyed = true;
+		ScheduledExecutorService executor = this.executor;
+		if (executor != null) {
+			//等待正在进行的重新创建结束，还没到期的延迟销毁任务直接取消，下面立即销毁
+			executor.shutdown();
+			executor.awaitTermination(shutdownTimeout, TimeUnit.MILLISECONDS);
+		}
+		for (Runnable staleCallback : new ArrayList<>(pendingDestructions)) {
+			if (pendingDestructions.remove(staleCallback)) {
+				staleCallback.run();
+			}
+		}
+		List<ScopedInstance> scopedInstances = new ArrayList<>(instances.values());
+		instances.clear();
+		for (ScopedInstance scopedInstance : scopedInstances) {
+			Runnable callback = scopedInstance.destructionCallback;
+			if (callback != null) {
+				callback.run();
+			}
+		}
+	}
+
+	private ScheduledExecutorService getExecutor() {
+		ScheduledExecutorService result = this.executor;
+		if (result == null) {
+			synchronized (this) {
+				result = this.executor;
+				if (result == null) {
+					ScheduledThreadPoolExecutor scheduledExecutor = new ScheduledThreadPoolExecutor(1, runnable -> {
+						Thread thread = new Thread(runnable, "ttl-scope-refresh");
+						thread.setDaemon(true);
+						return thread;
+					});
+					scheduledExecutor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+					result = scheduledExecutor;
+					this.executor = result;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * 后台重新创建成功的次数
+	 */
+	public long getRefreshCount() {
+		return refreshCount.get();
+	}
+
+	/**
+	 * 后台重新创建失败的次数
+	 */
+	public long getRefreshFailureCount() {
+		return refreshFailureCount.get();
+	}
+
+	/**
+	 * 最近一次后台重新创建失败的原因，没有失败过时返回null
+	 */
+	public Throwable getLastRefreshFailure() {
+		return lastRefreshFailure;
+	}
+
+	/**
+	 * 还在宽限期内、等待销毁的旧实例数
+	 */
+	public int getPendingDestructionCount() {
+		return pendingDestructions.size();
+	}
+
+	public long getDestroyDelay() {
+		return destroyDelay;
+	}
+
+	public void setDestroyDelay(long destroyDelay) {
+		this.destroyDelay = destroyDelay;
+	}
+
+	public long getShutdownTimeout() {
+		return shutdownTimeout;
+	}
+
+	public void setShutdownTimeout(long shutdownTimeout) {
+		this.shutdownTimeout = shutdownTimeout;
+	}
+
+	public long getTtl() {
+		return ttl;
+	}
+
+	public void setTtl(long ttl) {
+		this.ttl = ttl;
+	}
+
+	/**
+	 * 作用域中的一个bean，实例和过期时间都是volatile的，读取不加锁；创建在该对象上同步，同一个bean同时只有一个线程在创建
+	 */
+	private class ScopedInstance {
+
+		private final String name;
+
+		private final AtomicBoolean refreshing = new AtomicBoolean();
+
+		private volatile Object instance;
+
+		private volatile Runnable destructionCallback;
+
+		private volatile long expiresAt;
+
+		//正在创建的实例注册的销毁回调
+		private volatile Runnable pendingCallback;
+
+		private ScopedInstance(String name) {
+			this.name = name;
+		}
+
+		private Object create(ObjectFactory<?> objectFactory) {
+			pendingCallback = null;
+			Object created = objectFactory.getObject();
+			this.destructionCallback = pendingCallback;
+			this.expiresAt = System.currentTimeMillis() + ttl;
+			this.instance = created;
+			pendingCallback = null;
+			return created;
+		}
+	}
+}
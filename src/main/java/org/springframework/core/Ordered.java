@@ -0,0 +1,16 @@
+package org.springframework.core;
+
+/**
+ * 有先后顺序的对象，getOrder越小越靠前，没有实现该接口的对象排在最后
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public interface Ordered {
+
+	int HIGHEST_PRECEDENCE = Integer.MIN_VALUE;
+
+	int LOWEST_PRECEDENCE = Integer.MAX_VALUE;
+
+	int getOrder();
+}
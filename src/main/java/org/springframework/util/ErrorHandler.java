@@ -0,0 +1,12 @@
+package org.springframework.util;
+
+/**
+ * 处理异步任务中抛出的异常
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public interface ErrorHandler {
+
+	void handleError(Throwable t);
+}
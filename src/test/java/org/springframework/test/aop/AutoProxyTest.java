@@ -1,10 +1,21 @@
 package org.springframework.test.aop;
 
+import java.lang.reflect.Method;
+import java.util.List;
+
 import org.junit.Test;
+import org.springframework.aop.AdvisedSupport;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aop.framework.autoproxy.DefaultAdvisorAutoProxyCreator;
+import org.springframework.beans.BeansException;
 import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.test.bean.Car;
+import org.springframework.test.common.CountingBeforeAdvice;
 import org.springframework.test.service.WorldService;
+import org.springframework.test.service.WorldServiceImpl;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * @author derekyi
@@ -153,4 +164,79 @@ public class AutoProxyTest {
 		worldService.explode();
 		assertThat(worldService.getName()).isEqualTo("earth");
 	}
+
+	@Test
+	public void testAdvisorIndex() throws Exception {
+		/*
+			DefaultAdvisorAutoProxyCreator只解析一次Advisor列表，并按切点表达式中声明类型的包名前缀建立索引
+			每个bean只检查索引中可能匹配的Advisor，以及无法建立索引的Advisor（例如声明类型以通配符开头）
+		 */
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:advisor-index.xml");
+
+		WorldService worldService = applicationContext.getBean("worldService", WorldService.class);
+		assertThat(worldService.getClass()).isNotEqualTo(WorldServiceImpl.class);
+
+		Car car = applicationContext.getBean("car", Car.class);
+		assertThat(car.getClass()).isNotEqualTo(Car.class);
+		assertThat(car.getBrand()).isEqualTo("porsche");
+	}
+
+	@Test
+	public void testAdvisorToggle() throws Exception {
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:advisor-toggle.xml");
+		DefaultAdvisorAutoProxyCreator autoProxyCreator = applicationContext.getBean(DefaultAdvisorAutoProxyCreator.class);
+		CountingBeforeAdvice advice = applicationContext.getBean("countingAdvice", CountingBeforeAdvice.class);
+		WorldService worldService = applicationContext.getBean("worldService", WorldService.class);
+
+		assertThat(worldService.getName()).isEqualTo("earth");
+		assertThat(advice.getCount()).isEqualTo(1);
+
+		//通过应用上下文停用，停用后不再执行增强，代理对象本身不变
+		applicationContext.setAdvisorEnabled("diagnosticAdvisor", false);
+		assertThat(applicationContext.isAdvisorEnabled("diagnosticAdvisor")).isFalse();
+		assertThat(autoProxyCreator.isAdvisorEnabled("diagnosticAdvisor")).isFalse();
+		assertThat(worldService.getName()).isEqualTo("earth");
+		assertThat(advice.getCount()).isEqualTo(1);
+
+		applicationContext.setAdvisorEnabled("diagnosticAdvisor", true);
+		assertThat(applicationContext.isAdvisorEnabled("diagnosticAdvisor")).isTrue();
+		assertThat(worldService.getName()).isEqualTo("earth");
+		assertThat(advice.getCount()).isEqualTo(2);
+
+		//直接通过自动代理创建器切换，效果相同
+		autoProxyCreator.setAdvisorEnabled("diagnosticAdvisor", false);
+		assertThat(applicationContext.isAdvisorEnabled("diagnosticAdvisor")).isFalse();
+		assertThat(worldService.getName()).isEqualTo("earth");
+		assertThat(advice.getCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void testAdvisorToggleWithoutAutoProxyCreator() throws Exception {
+		//容器中没有自动代理创建器时无法切换Advisor
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:event-listener-annotation.xml");
+		assertThatThrownBy(() -> applicationContext.setAdvisorEnabled("pointcutAdvisor", false)).isInstanceOf(BeansException.class);
+		//只读的查询不抛出异常
+		assertThat(applicationContext.isAdvisorEnabled("pointcutAdvisor")).isTrue();
+	}
+
+	@Test
+	public void testFusedChainThreshold() throws Exception {
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:fused-chain.xml");
+		DefaultAdvisorAutoProxyCreator autoProxyCreator = applicationContext.getBean(DefaultAdvisorAutoProxyCreator.class);
+		CountingBeforeAdvice advice = applicationContext.getBean("countingAdvice", CountingBeforeAdvice.class);
+		WorldService worldService = applicationContext.getBean("worldService", WorldService.class);
+		assertThat(autoProxyCreator.getFusedChainThreshold()).isEqualTo(2);
+
+		//通过DefaultAdvisorAutoProxyCreator设置的阈值应用到自动创建的代理上
+		AdvisedSupport advised = AopProxyUtils.getAdvised(worldService);
+		assertThat(advised.getFusedChainThreshold()).isEqualTo(2);
+		for (int i = 0; i < 3; i++) {
+			assertThat(worldService.getName()).isEqualTo("earth");
+		}
+		assertThat(advice.getCount()).isEqualTo(3);
+		//默认使用CGLIB代理，拦截器链按实现类的方法缓存
+		Method getName = WorldServiceImpl.class.getMethod("getName");
+		List<Object> chain = advised.getInterceptorsAndDynamicInterceptionAdvice(getName, WorldServiceImpl.class);
+		assertThat(advised.getFusedInterceptorChain(getName, chain)).isNotNull();
+	}
 }
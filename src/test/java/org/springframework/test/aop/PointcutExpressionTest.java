@@ -3,8 +3,16 @@ package org.springframework.test.aop;
 import org.junit.Test;
 import org.springframework.aop.aspectj.AspectJExpressionPointcut;
 import org.springframework.test.service.HelloService;
+import org.springframework.test.service.WorldService;
+import org.springframework.test.service.WorldServiceImpl;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -28,4 +36,51 @@ public class PointcutExpressionTest {
 		assertThat(pointcut.matches(clazz)).isTrue();
 		assertThat(pointcut.matches(method, clazz)).isTrue();
 	}
+
+	@Test
+	public void testCachedPointcutMatching() throws Exception {
+		String expression = "execution(* org.springframework.test.service.WorldService.explode(..))";
+		AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut(expression);
+		AspectJExpressionPointcut samePointcut = new AspectJExpressionPointcut(expression);
+		Method explode = WorldService.class.getDeclaredMethod("explode");
+		Method getName = WorldService.class.getDeclaredMethod("getName");
+
+		//相同表达式只解析一次，两个切点共享同一个解析结果
+		assertThat(samePointcut.getPointcutExpression()).isSameAs(pointcut.getPointcutExpression());
+		assertThat(new AspectJExpressionPointcut("execution(* org.springframework.test.service.WorldService.getName(..))")
+				.getPointcutExpression()).isNotSameAs(pointcut.getPointcutExpression());
+
+		//匹配结果按方法缓存，重复匹配结果保持一致
+		for (int i = 0; i < 3; i++) {
+			assertThat(pointcut.matches(WorldServiceImpl.class)).isTrue();
+			assertThat(pointcut.matches(explode, WorldServiceImpl.class)).isTrue();
+			assertThat(pointcut.matches(getName, WorldServiceImpl.class)).isFalse();
+			assertThat(samePointcut.matches(explode, WorldServiceImpl.class)).isTrue();
+		}
+		assertThat(pointcut.matches(HelloService.class)).isFalse();
+	}
+
+	@Test
+	public void testSharedPointcutExpressionConcurrentMatching() throws Exception {
+		//多个线程通过各自的切点同时匹配共享的解析结果
+		String expression = "execution(* org.springframework.test.service.WorldService.explode(..))";
+		Method explode = WorldService.class.getDeclaredMethod("explode");
+		Method getName = WorldService.class.getDeclaredMethod("getName");
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Boolean>> results = new ArrayList<>();
+			for (int i = 0; i < 64; i++) {
+				results.add(executor.submit(() -> {
+					AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut(expression);
+					return pointcut.matches(WorldServiceImpl.class) && pointcut.matches(explode, WorldServiceImpl.class)
+							&& !pointcut.matches(getName, WorldServiceImpl.class) && !pointcut.matches(HelloService.class);
+				}));
+			}
+			for (Future<Boolean> result : results) {
+				assertThat(result.get(10, TimeUnit.SECONDS)).isTrue();
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
 }
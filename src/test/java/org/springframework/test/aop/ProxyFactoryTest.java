@@ -2,16 +2,30 @@ package org.springframework.test.aop;
 
 import org.junit.Test;
 
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.aopalliance.aop.Advice;
+import org.springframework.aop.AfterReturningAdvice;
+import org.springframework.aop.MethodBeforeAdvice;
 import org.springframework.aop.TargetSource;
 import org.springframework.aop.aspectj.AspectJExpressionPointcutAdvisor;
+import org.springframework.aop.framework.FusedInterceptorChain;
 import org.springframework.aop.framework.ProxyFactory;
 import org.springframework.aop.framework.adapter.AfterReturningAdviceInterceptor;
 import org.springframework.aop.framework.adapter.MethodBeforeAdviceInterceptor;
+import org.springframework.test.common.CountingBeforeAdvice;
 import org.springframework.test.common.WorldServiceAfterReturnAdvice;
 import org.springframework.test.common.WorldServiceBeforeAdvice;
+import org.springframework.test.common.WorldServiceInterceptor;
 import org.springframework.test.service.WorldService;
 import org.springframework.test.service.WorldServiceImpl;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 public class ProxyFactoryTest {
 	@Test
 	public void testAdvisor() throws Exception {
@@ -39,4 +53,171 @@ public class ProxyFactoryTest {
 		WorldService proxy = (WorldService) factory.getProxy();
 		proxy.explode();
 	}
+
+	@Test
+	public void testFusedInterceptorChain() throws Exception {
+		testFusedInterceptorChain(true);
+		testFusedInterceptorChain(false);
+	}
+
+	private void testFusedInterceptorChain(boolean proxyTargetClass) throws Exception {
+		WorldServiceImpl worldService = new WorldServiceImpl();
+		worldService.setName("earth");
+		List<String> log = new ArrayList<>();
+
+		String expression = "execution(* org.springframework.test.service.WorldService.getName(..))";
+		MethodBeforeAdvice before1 = (method, args, target) -> log.add("before1");
+		AfterReturningAdvice after = new AfterReturningAdvice() {
+			@Override
+			public void afterReturning(Object returnValue, Method method, Object[] args, Object target) {
+				log.add("after:" + returnValue);
+			}
+		};
+		MethodBeforeAdvice before2 = (method, args, target) -> log.add("before2");
+		ProxyFactory factory = new ProxyFactory();
+		factory.setTargetSource(new TargetSource(worldService));
+		factory.setProxyTargetClass(proxyTargetClass);
+		factory.setFusedChainThreshold(2);
+		factory.addAdvisor(advisor(expression, new MethodBeforeAdviceInterceptor(before1)));
+		factory.addAdvisor(advisor(expression, new AfterReturningAdviceInterceptor(after)));
+		factory.addAdvisor(advisor(expression, new MethodBeforeAdviceInterceptor(before2)));
+		WorldService proxy = (WorldService) factory.getProxy();
+
+		Method getName = WorldService.class.getMethod("getName");
+		Class<?> targetClass = proxyTargetClass ? WorldServiceImpl.class : WorldService.class;
+		Method method = proxyTargetClass ? WorldServiceImpl.class.getMethod("getName") : getName;
+		for (int i = 0; i < 3; i++) {
+			assertThat(proxy.getName()).isEqualTo("earth");
+			//融合前后增强的执行顺序一致
+			assertThat(log).containsExactly("before1", "before2", "after:earth");
+			log.clear();
+		}
+		List<Object> chain = factory.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass);
+		FusedInterceptorChain fusedChain = factory.getFusedInterceptorChain(method, chain);
+		assertThat(fusedChain).isNotNull();
+
+		//相同方法、相同增强类型的拦截器链共用一个生成类，增强对象通过构造函数绑定
+		WorldServiceImpl otherWorldService = new WorldServiceImpl();
+		otherWorldService.setName("mars");
+		ProxyFactory sameChainFactory = new ProxyFactory();
+		sameChainFactory.setTargetSource(new TargetSource(otherWorldService));
+		sameChainFactory.setProxyTargetClass(proxyTargetClass);
+		sameChainFactory.setFusedChainThreshold(1);
+		sameChainFactory.addAdvisor(advisor(expression, new MethodBeforeAdviceInterceptor(before1)));
+		sameChainFactory.addAdvisor(advisor(expression, new AfterReturningAdviceInterceptor(after)));
+		sameChainFactory.addAdvisor(advisor(expression, new MethodBeforeAdviceInterceptor(before2)));
+		WorldService sameChainProxy = (WorldService) sameChainFactory.getProxy();
+		assertThat(sameChainProxy.getName()).isEqualTo("mars");
+		assertThat(log).containsExactly("before1", "before2", "after:mars");
+		log.clear();
+		List<Object> sameChain = sameChainFactory.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass);
+		FusedInterceptorChain sameFusedChain = sameChainFactory.getFusedInterceptorChain(method, sameChain);
+		assertThat(sameFusedChain).isNotSameAs(fusedChain);
+		assertThat(sameFusedChain.getClass()).isSameAs(fusedChain.getClass());
+
+		//包含自定义MethodInterceptor的拦截器链不融合
+		ProxyFactory fallbackFactory = new ProxyFactory();
+		fallbackFactory.setTargetSource(new TargetSource(worldService));
+		fallbackFactory.setProxyTargetClass(proxyTargetClass);
+		fallbackFactory.setFusedChainThreshold(1);
+		fallbackFactory.addAdvisor(advisor(expression, new MethodBeforeAdviceInterceptor(new WorldServiceBeforeAdvice())));
+		fallbackFactory.addAdvisor(advisor(expression, new WorldServiceInterceptor()));
+		WorldService fallbackProxy = (WorldService) fallbackFactory.getProxy();
+		assertThat(fallbackProxy.getName()).isEqualTo("earth");
+		List<Object> fallbackChain = fallbackFactory.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass);
+		assertThat(fallbackFactory.getFusedInterceptorChain(method, fallbackChain)).isNull();
+	}
+
+	@Test
+	public void testFusedChainExceptionMatchesReflectivePath() throws Exception {
+		testFusedChainExceptionMatchesReflectivePath(true);
+		testFusedChainExceptionMatchesReflectivePath(false);
+	}
+
+	private void testFusedChainExceptionMatchesReflectivePath(boolean proxyTargetClass) throws Exception {
+		String expression = "execution(* org.springframework.test.service.WorldService.explode(..))";
+		CountingBeforeAdvice advice = new CountingBeforeAdvice();
+		Throwable fusedEx = null;
+		Throwable reflectiveEx = null;
+		for (int threshold : new int[]{1, 0}) {
+			ProxyFactory factory = new ProxyFactory();
+			factory.setTargetSource(new TargetSource(new ExplodingWorldService()));
+			factory.setProxyTargetClass(proxyTargetClass);
+			factory.setFusedChainThreshold(threshold);
+			factory.addAdvisor(advisor(expression, new MethodBeforeAdviceInterceptor(advice)));
+			WorldService proxy = (WorldService) factory.getProxy();
+			try {
+				proxy.explode();
+			} catch (Throwable ex) {
+				if (threshold > 0) {
+					fusedEx = ex;
+				} else {
+					reflectiveEx = ex;
+				}
+			}
+		}
+		//融合拦截器链和普通拦截器链都直接抛出目标方法的异常
+		assertThat(fusedEx).isInstanceOf(IllegalStateException.class).hasMessage("boom");
+		assertThat(reflectiveEx).isInstanceOf(IllegalStateException.class).hasMessage("boom");
+		assertThat(advice.getCount()).isEqualTo(2);
+	}
+
+	public static class ExplodingWorldService extends WorldServiceImpl {
+
+		@Override
+		public void explode() {
+			throw new IllegalStateException("boom");
+		}
+	}
+
+	@Test
+	public void testObjectMethodsOnProxy() throws Exception {
+		testObjectMethodsOnProxy(true);
+		testObjectMethodsOnProxy(false);
+	}
+
+	private void testObjectMethodsOnProxy(boolean proxyTargetClass) throws Exception {
+		WorldServiceImpl worldService = new WorldServiceImpl();
+		CountingBeforeAdvice advice = new CountingBeforeAdvice();
+		AspectJExpressionPointcutAdvisor advisor = advisor("execution(* org.springframework.test.service.WorldService.*(..))",
+				new MethodBeforeAdviceInterceptor(advice));
+
+		WorldService proxy = createProxy(worldService, proxyTargetClass, advisor);
+		WorldService sameConfigProxy = createProxy(worldService, proxyTargetClass, advisor);
+		WorldService otherTargetProxy = createProxy(new WorldServiceImpl(), proxyTargetClass, advisor);
+
+		//代理对象的相等性由目标对象和代理配置决定
+		assertThat(proxy).isEqualTo(sameConfigProxy);
+		assertThat(proxy.hashCode()).isEqualTo(sameConfigProxy.hashCode());
+		assertThat(proxy).isNotEqualTo(otherTargetProxy);
+		assertThat(proxy).isNotEqualTo(worldService);
+		Map<WorldService, String> map = new HashMap<>();
+		map.put(proxy, "earth");
+		assertThat(map.get(sameConfigProxy)).isEqualTo("earth");
+		assertThat(proxy.toString()).isEqualTo(worldService.toString());
+		//equals/hashCode/toString不经过拦截器链
+		assertThat(advice.getCount()).isEqualTo(0);
+
+		//有Advisor明确匹配toString时仍然走拦截器链
+		AspectJExpressionPointcutAdvisor toStringAdvisor = advisor("execution(* java.lang.Object.toString())",
+				new MethodBeforeAdviceInterceptor(advice));
+		WorldService advisedToStringProxy = createProxy(worldService, proxyTargetClass, toStringAdvisor);
+		assertThat(advisedToStringProxy.toString()).isEqualTo(worldService.toString());
+		assertThat(advice.getCount()).isEqualTo(1);
+	}
+
+	private WorldService createProxy(WorldService target, boolean proxyTargetClass, AspectJExpressionPointcutAdvisor advisor) {
+		ProxyFactory factory = new ProxyFactory();
+		factory.setTargetSource(new TargetSource(target));
+		factory.setProxyTargetClass(proxyTargetClass);
+		factory.addAdvisor(advisor);
+		return (WorldService) factory.getProxy();
+	}
+
+	private AspectJExpressionPointcutAdvisor advisor(String expression, Advice advice) {
+		AspectJExpressionPointcutAdvisor advisor = new AspectJExpressionPointcutAdvisor();
+		advisor.setExpression(expression);
+		advisor.setAdvice(advice);
+		return advisor;
+	}
 }
@@ -0,0 +1,215 @@
+package org.springframework.test.aop;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.aop.MethodBeforeAdvice;
+import org.springframework.aop.aspectj.AspectJExpressionPointcutAdvisor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.framework.adapter.MethodBeforeAdviceInterceptor;
+import org.springframework.aop.TargetSource;
+import org.springframework.aop.target.HotSwappableTargetSource;
+import org.springframework.aop.target.PoolingTargetSource;
+import org.springframework.aop.target.ThreadLocalTargetSource;
+import org.springframework.beans.BeansException;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.test.bean.Counter;
+import org.springframework.test.service.WorldService;
+import org.springframework.test.service.WorldServiceImpl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public class TargetSourceTest {
+
+	@Test
+	public void testPoolingTargetSource() throws Exception {
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:pooling-target-source.xml");
+		PoolingTargetSource targetSource = applicationContext.getBean("poolingTargetSource", PoolingTargetSource.class);
+		assertThat(targetSource.getIdleCount()).isEqualTo(1);
+
+		//记录同时使用每个目标对象的线程数，池中的对象同一时刻只能被一个线程使用
+		Set<Object> inUse = Collections.newSetFromMap(new IdentityHashMap<>());
+		AtomicInteger conflicts = new AtomicInteger();
+		MethodBeforeAdvice advice = (method, args, target) -> {
+			synchronized (inUse) {
+				if (!inUse.add(target)) {
+					conflicts.incrementAndGet();
+				}
+			}
+			Thread.sleep(1);
+			synchronized (inUse) {
+				inUse.remove(target);
+			}
+		};
+		WorldService proxy = createProxy(targetSource, advice);
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<String>> futures = new ArrayList<>();
+		for (int i = 0; i < 64; i++) {
+			futures.add(executor.submit(proxy::getName));
+		}
+		for (Future<String> future : futures) {
+			assertThat(future.get(10, TimeUnit.SECONDS)).isEqualTo("earth");
+		}
+		executor.shutdown();
+
+		assertThat(conflicts.get()).isEqualTo(0);
+		assertThat(targetSource.getCreatedCount()).isLessThanOrEqualTo(2);
+		assertThat(targetSource.getActiveCount()).isEqualTo(0);
+		assertThat(targetSource.getIdleCount()).isEqualTo(targetSource.getCreatedCount());
+		assertThat(targetSource.getBorrowCount()).isEqualTo(64);
+
+		applicationContext.close();
+		assertThat(targetSource.getIdleCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void testPoolingTargetSourceCreationFailureWakesWaiter() throws Exception {
+		CountDownLatch failCreation = new CountDownLatch(1);
+		AtomicInteger creations = new AtomicInteger();
+		PoolingTargetSource targetSource = new PoolingTargetSource() {
+			@Override
+			protected Object newPrototypeInstance() throws BeansException {
+				if (creations.incrementAndGet() == 1) {
+					try {
+						failCreation.await(10, TimeUnit.SECONDS);
+					} catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+					}
+					throw new BeansException("creation failed");
+				}
+				return new WorldServiceImpl();
+			}
+		};
+		targetSource.setMaxSize(1);
+		targetSource.afterPropertiesSet();
+
+		Thread failing = new Thread(() -> assertThatThrownBy(targetSource::getTarget).isInstanceOf(BeansException.class));
+		failing.start();
+		while (creations.get() == 0) {
+			Thread.sleep(1);
+		}
+		//池已满（唯一的名额正在创建），一直等待的线程挂起
+		Object[] borrowed = new Object[1];
+		Thread waiting = new Thread(() -> borrowed[0] = targetSource.getTarget());
+		waiting.start();
+		while (waiting.getState() != Thread.State.WAITING) {
+			Thread.sleep(1);
+		}
+
+		//创建失败空出名额，唤醒等待的线程重新创建
+		failCreation.countDown();
+		failing.join(10000);
+		waiting.join(10000);
+		assertThat(waiting.isAlive()).isFalse();
+		assertThat(borrowed[0]).isInstanceOf(WorldServiceImpl.class);
+		assertThat(targetSource.getCreatedCount()).isEqualTo(1);
+		targetSource.releaseTarget(borrowed[0]);
+		targetSource.destroy();
+		assertThat(targetSource.getCreatedCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void testThreadLocalTargetSource() throws Exception {
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:thread-local-target-source.xml");
+		ThreadLocalTargetSource targetSource = applicationContext.getBean("threadLocalTargetSource", ThreadLocalTargetSource.class);
+		ProxyFactory factory = new ProxyFactory();
+		factory.setTargetSource(targetSource);
+		Counter counter = (Counter) factory.getProxy();
+
+		//每个线程有自己的目标对象
+		assertThat(counter.increment()).isEqualTo(1);
+		assertThat(counter.increment()).isEqualTo(2);
+		List<Counter> targets = new ArrayList<>();
+		targets.add((Counter) targetSource.getTarget());
+		Thread thread = new Thread(() -> {
+			assertThat(counter.increment()).isEqualTo(1);
+			targets.add((Counter) targetSource.getTarget());
+		});
+		thread.start();
+		thread.join();
+		assertThat(counter.increment()).isEqualTo(3);
+
+		assertThat(targetSource.getObjectCount()).isEqualTo(2);
+		//子线程已经结束，它的目标对象没有释放
+		assertThat(targetSource.getStaleCount()).isEqualTo(1);
+		assertThat(targetSource.getInvocationCount()).isEqualTo(6);
+		assertThat(targetSource.getHitCount()).isEqualTo(4);
+
+		//其他线程第一次调用时清理并销毁已结束线程的目标对象
+		Thread nextThread = new Thread(() -> {
+			assertThat(counter.increment()).isEqualTo(1);
+			targets.add((Counter) targetSource.getTarget());
+		});
+		nextThread.start();
+		nextThread.join();
+		assertThat(targets.get(1).isDestroyed()).isTrue();
+		assertThat(targets.get(2).isDestroyed()).isFalse();
+		assertThat(targetSource.getObjectCount()).isEqualTo(2);
+		assertThat(targetSource.getStaleCount()).isEqualTo(1);
+
+		//关闭容器时按BeanDefinition销毁所有线程的目标对象
+		applicationContext.close();
+		assertThat(targets).hasSize(3);
+		assertThat(targets.get(0).isDestroyed()).isTrue();
+		assertThat(targets.get(2).isDestroyed()).isTrue();
+		assertThat(targetSource.getObjectCount()).isEqualTo(0);
+
+		//销毁之后即使当前线程仍然持有目标对象也不能再使用
+		assertThatThrownBy(counter::increment).isInstanceOf(BeansException.class);
+		assertThat(targetSource.getObjectCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void testHotSwappableTargetSource() throws Exception {
+		WorldServiceImpl earth = new WorldServiceImpl();
+		earth.setName("earth");
+		WorldServiceImpl mars = new WorldServiceImpl();
+		mars.setName("mars");
+
+		HotSwappableTargetSource targetSource = new HotSwappableTargetSource(earth);
+		ProxyFactory factory = new ProxyFactory();
+		factory.setTargetSource(targetSource);
+		WorldService proxy = (WorldService) factory.getProxy();
+		assertThat(proxy.getName()).isEqualTo("earth");
+
+		//替换后持有代理对象的地方直接使用新的目标对象，swap返回旧的目标对象
+		assertThat(targetSource.swap(mars)).isSameAs(earth);
+		assertThat(proxy.getName()).isEqualTo("mars");
+
+		assertThat(targetSource.compareAndSwap(earth, earth)).isFalse();
+		assertThat(targetSource.compareAndSwap(mars, earth)).isTrue();
+		assertThat(proxy.getName()).isEqualTo("earth");
+
+		//与目标类型不兼容的对象不能替换
+		assertThatThrownBy(() -> targetSource.swap(new Counter())).isInstanceOf(IllegalArgumentException.class);
+		assertThat(proxy.getName()).isEqualTo("earth");
+	}
+
+	private WorldService createProxy(PoolingTargetSource targetSource, MethodBeforeAdvice advice) {
+		AspectJExpressionPointcutAdvisor advisor = new AspectJExpressionPointcutAdvisor();
+		advisor.setExpression("execution(* org.springframework.test.service.WorldService.getName(..))");
+		advisor.setAdvice(new MethodBeforeAdviceInterceptor(advice));
+		ProxyFactory factory = new ProxyFactory();
+		factory.setTargetSource(targetSource);
+		factory.setProxyTargetClass(false);
+		factory.addAdvisor(advisor);
+		return (WorldService) factory.getProxy();
+	}
+}
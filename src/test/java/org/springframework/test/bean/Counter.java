@@ -0,0 +1,37 @@
+package org.springframework.test.bean;
+
+import org.springframework.beans.factory.Resettable;
+
+/**
+ * 非线程安全的计数器
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public class Counter implements Resettable {
+
+	private int count;
+
+	private boolean destroyed;
+
+	public int increment() {
+		return ++count;
+	}
+
+	public int getCount() {
+		return count;
+	}
+
+	@Override
+	public void reset() {
+		count = 0;
+	}
+
+	public void close() {
+		destroyed = true;
+	}
+
+	public boolean isDestroyed() {
+		return destroyed;
+	}
+}
@@ -0,0 +1,36 @@
+package org.springframework.test.bean;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Lazy;
+
+import java.util.function.Supplier;
+
+/**
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public class Garage {
+
+	@Autowired
+	@Lazy
+	private Car car;
+
+	@Autowired
+	private ObjectProvider<Counter> counterProvider;
+
+	@Autowired
+	private Supplier<Car> carSupplier;
+
+	public Car getCar() {
+		return car;
+	}
+
+	public ObjectProvider<Counter> getCounterProvider() {
+		return counterProvider;
+	}
+
+	public Supplier<Car> getCarSupplier() {
+		return carSupplier;
+	}
+}
@@ -0,0 +1,26 @@
+package org.springframework.test.common;
+
+import org.springframework.aop.MethodBeforeAdvice;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 记录前置增强的执行次数
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public class CountingBeforeAdvice implements MethodBeforeAdvice {
+
+	private final AtomicInteger count = new AtomicInteger();
+
+	@Override
+	public void before(Method method, Object[] args, Object target) throws Throwable {
+		count.incrementAndGet();
+	}
+
+	public int getCount() {
+		return count.get();
+	}
+}
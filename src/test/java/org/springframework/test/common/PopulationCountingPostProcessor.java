@@ -0,0 +1,59 @@
+package org.springframework.test.common;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.PropertyValues;
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按beanName记录属性填充阶段的回调次数
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public class PopulationCountingPostProcessor implements InstantiationAwareBeanPostProcessor {
+
+	private final Map<String, AtomicInteger> afterInstantiationCounts = new ConcurrentHashMap<>();
+
+	private final Map<String, AtomicInteger> propertyValuesCounts = new ConcurrentHashMap<>();
+
+	@Override
+	public Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName) throws BeansException {
+		return null;
+	}
+
+	@Override
+	public boolean postProcessAfterInstantiation(Object bean, String beanName) throws BeansException {
+		afterInstantiationCounts.computeIfAbsent(beanName, key -> new AtomicInteger()).incrementAndGet();
+		return true;
+	}
+
+	@Override
+	public PropertyValues postProcessPropertyValues(PropertyValues pvs, Object bean, String beanName) throws BeansException {
+		propertyValuesCounts.computeIfAbsent(beanName, key -> new AtomicInteger()).incrementAndGet();
+		return pvs;
+	}
+
+	@Override
+	public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+		return bean;
+	}
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+		return bean;
+	}
+
+	public int getAfterInstantiationCount(String beanName) {
+		AtomicInteger count = afterInstantiationCounts.get(beanName);
+		return count != null ? count.get() : 0;
+	}
+
+	public int getPropertyValuesCount(String beanName) {
+		AtomicInteger count = propertyValuesCounts.get(beanName);
+		return count != null ? count.get() : 0;
+	}
+}
@@ -0,0 +1,38 @@
+package org.springframework.test.common;
+
+import org.springframework.context.support.PooledScope;
+import org.springframework.test.bean.Counter;
+
+/**
+ * 记录销毁次数以及销毁时依赖的单例bean是否已经销毁
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public class RecordingPooledScope extends PooledScope {
+
+	private Counter counter;
+
+	private int destroyCount;
+
+	private boolean counterDestroyedBeforeScope;
+
+	@Override
+	public void destroy() throws Exception {
+		destroyCount++;
+		counterDestroyedBeforeScope = counter.isDestroyed();
+		super.destroy();
+	}
+
+	public void setCounter(Counter counter) {
+		this.counter = counter;
+	}
+
+	public int getDestroyCount() {
+		return destroyCount;
+	}
+
+	public boolean isCounterDestroyedBeforeScope() {
+		return counterDestroyedBeforeScope;
+	}
+}
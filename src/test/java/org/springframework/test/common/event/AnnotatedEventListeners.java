@@ -0,0 +1,74 @@
+package org.springframework.test.common.event;
+
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 通过@EventListener方法监听多种事件的bean
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public class AnnotatedEventListeners {
+
+	private final AtomicInteger refreshedCount = new AtomicInteger();
+
+	private final AtomicInteger customCount = new AtomicInteger();
+
+	private final AtomicInteger noArgCount = new AtomicInteger();
+
+	private final List<Integer> tenantSequences = new CopyOnWriteArrayList<>();
+
+	private final List<Integer> routedSequences = new CopyOnWriteArrayList<>();
+
+	@EventListener
+	public void onRefreshed(ContextRefreshedEvent event) {
+		refreshedCount.incrementAndGet();
+	}
+
+	@EventListener
+	public void onCustom(CustomEvent event) {
+		customCount.incrementAndGet();
+	}
+
+	@EventListener(condition = "event.key == 'tenant-42'")
+	public void onTenantEvent(KeyedEvent event) {
+		tenantSequences.add(event.getSequence());
+	}
+
+	@EventListener(routingKeys = "tenant-7")
+	public void onRoutedEvent(KeyedEvent event) {
+		routedSequences.add(event.getSequence());
+	}
+
+	//非public的无参方法，通过value指定事件类型
+	@EventListener({CustomEvent.class, ContextClosedEvent.class})
+	void onCustomOrClosed() {
+		noArgCount.incrementAndGet();
+	}
+
+	public int getRefreshedCount() {
+		return refreshedCount.get();
+	}
+
+	public int getCustomCount() {
+		return customCount.get();
+	}
+
+	public int getNoArgCount() {
+		return noArgCount.get();
+	}
+
+	public List<Integer> getTenantSequences() {
+		return tenantSequences;
+	}
+
+	public List<Integer> getRoutedSequences() {
+		return routedSequences;
+	}
+}
@@ -0,0 +1,26 @@
+package org.springframework.test.common.event;
+
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 记录收到事件次数的监听器，事件类型由子类的泛型参数指定
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public abstract class CountingEventListener<E extends ApplicationEvent> implements ApplicationListener<E> {
+
+	private final AtomicInteger count = new AtomicInteger();
+
+	@Override
+	public void onApplicationEvent(E event) {
+		count.incrementAndGet();
+	}
+
+	public int getCount() {
+		return count.get();
+	}
+}
@@ -0,0 +1,36 @@
+package org.springframework.test.common.event;
+
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.event.RoutableEvent;
+
+/**
+ * 带顺序key的事件，key同时作为路由key
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public class KeyedEvent extends ApplicationEvent implements RoutableEvent {
+
+	private final String key;
+
+	private final int sequence;
+
+	public KeyedEvent(Object source, String key, int sequence) {
+		super(source);
+		this.key = key;
+		this.sequence = sequence;
+	}
+
+	public String getKey() {
+		return key;
+	}
+
+	@Override
+	public String getRoutingKey() {
+		return key;
+	}
+
+	public int getSequence() {
+		return sequence;
+	}
+}
@@ -0,0 +1,50 @@
+package org.springframework.test.common.event;
+
+import org.springframework.context.event.BatchingApplicationListener;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 批量接收KeyedEvent的监听器，记录收到的每一批事件
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public class KeyedEventBatchingListener implements BatchingApplicationListener<KeyedEvent> {
+
+	private final boolean coalescing;
+
+	private final int maxBatchSize;
+
+	private final List<List<KeyedEvent>> batches = new CopyOnWriteArrayList<>();
+
+	public KeyedEventBatchingListener(boolean coalescing, int maxBatchSize) {
+		this.coalescing = coalescing;
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	@Override
+	public void onApplicationEvents(List<KeyedEvent> events) {
+		batches.add(events);
+	}
+
+	@Override
+	public long getBatchWindowMillis() {
+		return 50;
+	}
+
+	@Override
+	public int getMaxBatchSize() {
+		return maxBatchSize;
+	}
+
+	@Override
+	public Object getCoalescingKey(KeyedEvent event) {
+		return coalescing ? event.getKey() : null;
+	}
+
+	public List<List<KeyedEvent>> getBatches() {
+		return batches;
+	}
+}
@@ -0,0 +1,55 @@
+package org.springframework.test.common.event;
+
+import org.springframework.context.event.EventCodec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * KeyedEvent的编解码器：[sequence][key长度][key的UTF-8字节]，key为null时长度为-1
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public class KeyedEventCodec implements EventCodec<KeyedEvent> {
+
+	@Override
+	public int getTypeId() {
+		return 1;
+	}
+
+	@Override
+	public Class<KeyedEvent> getEventType() {
+		return KeyedEvent.class;
+	}
+
+	@Override
+	public int getEncodedSize(KeyedEvent event) {
+		return 8 + (event.getKey() != null ? event.getKey().getBytes(StandardCharsets.UTF_8).length : 0);
+	}
+
+	@Override
+	public void encode(KeyedEvent event, ByteBuffer buffer) {
+		buffer.putInt(event.getSequence());
+		if (event.getKey() == null) {
+			buffer.putInt(-1);
+			return;
+		}
+		byte[] key = event.getKey().getBytes(StandardCharsets.UTF_8);
+		buffer.putInt(key.length);
+		buffer.put(key);
+	}
+
+	@Override
+	public KeyedEvent decode(ByteBuffer buffer, Object source) {
+		int sequence = buffer.getInt();
+		int length = buffer.getInt();
+		String key = null;
+		if (length >= 0) {
+			byte[] bytes = new byte[length];
+			buffer.get(bytes);
+			key = new String(bytes, StandardCharsets.UTF_8);
+		}
+		return new KeyedEvent(source, key, sequence);
+	}
+}
@@ -0,0 +1,37 @@
+package org.springframework.test.common.event;
+
+import org.springframework.context.ApplicationListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 记录收到的KeyedEvent，按key统计事件数
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public class KeyedEventRecorder implements ApplicationListener<KeyedEvent> {
+
+	private final List<Integer> sequences = new CopyOnWriteArrayList<>();
+
+	private final Map<String, AtomicInteger> countsByKey = new ConcurrentHashMap<>();
+
+	@Override
+	public void onApplicationEvent(KeyedEvent event) {
+		sequences.add(event.getSequence());
+		countsByKey.computeIfAbsent(String.valueOf(event.getKey()), key -> new AtomicInteger()).incrementAndGet();
+	}
+
+	public List<Integer> getSequences() {
+		return sequences;
+	}
+
+	public int getCount(String key) {
+		AtomicInteger count = countsByKey.get(key);
+		return count != null ? count.get() : 0;
+	}
+}
@@ -0,0 +1,286 @@
+package org.springframework.test.ioc;
+
+import org.junit.Test;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ApplicationEventMulticaster;
+import org.springframework.context.event.ListenerExecutionException;
+import org.springframework.context.event.ListenerMailbox;
+import org.springframework.context.event.ListenerMailbox.OverflowPolicy;
+import org.springframework.context.event.SimpleApplicationEventMulticaster;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.test.common.event.CustomEvent;
+import org.springframework.test.common.event.KeyedEvent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public class AsyncEventMulticasterTest {
+
+	@Test
+	public void testUserDefinedMulticaster() throws Exception {
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:async-event-multicaster.xml");
+		ApplicationEventMulticaster multicaster = applicationContext.getBean("applicationEventMulticaster", ApplicationEventMulticaster.class);
+		assertThat(((SimpleApplicationEventMulticaster) multicaster).getTaskExecutor()).isNotNull();
+
+		//监听器不在发布线程上执行
+		List<Thread> threads = new CopyOnWriteArrayList<>();
+		multicaster.addApplicationListener((ApplicationListener<CustomEvent>) event -> threads.add(Thread.currentThread()));
+		multicaster.multicastEventAsync(new CustomEvent(applicationContext)).get(10, TimeUnit.SECONDS);
+		assertThat(threads).hasSize(1).doesNotContain(Thread.currentThread());
+		applicationContext.close();
+	}
+
+	@Test
+	public void testPerKeyOrdering() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		SimpleApplicationEventMulticaster multicaster = new SimpleApplicationEventMulticaster();
+		multicaster.setTaskExecutor(executor);
+		multicaster.setEventKeyResolver(event -> event instanceof KeyedEvent ? ((KeyedEvent) event).getKey() : null);
+
+		Map<String, List<Integer>> received = new ConcurrentHashMap<>();
+		multicaster.addApplicationListener((ApplicationListener<KeyedEvent>) event -> {
+			if (ThreadLocalRandom.current().nextInt(4) == 0) {
+				Thread.yield();
+			}
+			received.computeIfAbsent(event.getKey(), key -> Collections.synchronizedList(new ArrayList<>())).add(event.getSequence());
+		});
+
+		List<CompletableFuture<Void>> futures = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			for (String key : new String[]{"a", "b", "c"}) {
+				futures.add(multicaster.multicastEventAsync(new KeyedEvent(this, key, i)));
+			}
+		}
+		CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+		//同一个key的事件按发布顺序处理
+		for (String key : new String[]{"a", "b", "c"}) {
+			List<Integer> sequences = received.get(key);
+			assertThat(sequences).hasSize(200);
+			for (int i = 0; i < 200; i++) {
+				assertThat(sequences.get(i)).isEqualTo(i);
+			}
+		}
+		executor.shutdown();
+	}
+
+	@Test
+	public void testErrorHandler() throws Exception {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		SimpleApplicationEventMulticaster multicaster = new SimpleApplicationEventMulticaster();
+		multicaster.setTaskExecutor(executor);
+		List<Throwable> errors = new CopyOnWriteArrayList<>();
+		multicaster.setErrorHandler(errors::add);
+		multicaster.addApplicationListener((ApplicationListener<KeyedEvent>) event -> {
+			throw new IllegalStateException("audit failed");
+		});
+
+		//异常交给errorHandler，同时反映在future上
+		CompletableFuture<Void> future = multicaster.multicastEventAsync(new KeyedEvent(this, "a", 0));
+		assertThatThrownBy(() -> future.get(10, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class)
+				.hasCauseInstanceOf(IllegalStateException.class);
+		assertThat(errors).hasSize(1);
+		executor.shutdown();
+	}
+
+	@Test
+	public void testRejectedExecutionRunsOnCaller() throws Exception {
+		//执行器已经关闭时在发布线程上执行，future仍然完成
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		executor.shutdown();
+		SimpleApplicationEventMulticaster multicaster = new SimpleApplicationEventMulticaster();
+		multicaster.setTaskExecutor(executor);
+		List<Thread> threads = new CopyOnWriteArrayList<>();
+		multicaster.addApplicationListener((ApplicationListener<KeyedEvent>) event -> threads.add(Thread.currentThread()));
+		multicaster.addApplicationListener((ApplicationListener<KeyedEvent>) event -> threads.add(Thread.currentThread()));
+
+		multicaster.multicastEventAsync(new KeyedEvent(this, "a", 0)).get(10, TimeUnit.SECONDS);
+		assertThat(threads).hasSize(2).containsOnly(Thread.currentThread());
+
+		//串行通道同样在发布线程上执行，任务不会留在通道中
+		multicaster.setEventKeyResolver(event -> ((KeyedEvent) event).getKey());
+		multicaster.multicastEventAsync(new KeyedEvent(this, "a", 1)).get(10, TimeUnit.SECONDS);
+		multicaster.multicastEventAsync(new KeyedEvent(this, "a", 2)).get(10, TimeUnit.SECONDS);
+		assertThat(threads).hasSize(6).containsOnly(Thread.currentThread());
+	}
+
+	@Test
+	public void testParallelFanOut() throws Exception {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		SimpleApplicationEventMulticaster multicaster = new SimpleApplicationEventMulticaster();
+		multicaster.setParallelExecutor(pool);
+		multicaster.setParallelThreshold(4);
+
+		//4个监听器互相等待，只有并行执行才能全部通过
+		CyclicBarrier barrier = new CyclicBarrier(4);
+		AtomicInteger completed = new AtomicInteger();
+		for (int i = 0; i < 4; i++) {
+			multicaster.addApplicationListener((ApplicationListener<KeyedEvent>) event -> {
+				try {
+					barrier.await(10, TimeUnit.SECONDS);
+				} catch (Exception ex) {
+					throw new IllegalStateException(ex);
+				}
+				completed.incrementAndGet();
+			});
+		}
+		multicaster.multicastEvent(new KeyedEvent(this, "a", 0));
+		//发布线程等待所有监听器执行完
+		assertThat(completed.get()).isEqualTo(4);
+
+		//多个监听器的异常汇总
+		multicaster.addApplicationListener((ApplicationListener<KeyedEvent>) event -> {
+			throw new IllegalStateException("index rebuild failed");
+		});
+		multicaster.addApplicationListener((ApplicationListener<KeyedEvent>) event -> {
+			throw new IllegalArgumentException("cache warm-up failed");
+		});
+		barrier.reset();
+		assertThatThrownBy(() -> multicaster.multicastEvent(new KeyedEvent(this, "a", 1)))
+				.isInstanceOf(ListenerExecutionException.class)
+				.satisfies(ex -> assertThat(((ListenerExecutionException) ex).getListenerExceptions()).hasSize(2));
+
+		//监听器少于阈值时在发布线程上执行
+		SimpleApplicationEventMulticaster inline = new SimpleApplicationEventMulticaster();
+		inline.setParallelExecutor(pool);
+		List<Thread> threads = new CopyOnWriteArrayList<>();
+		inline.addApplicationListener((ApplicationListener<KeyedEvent>) event -> threads.add(Thread.currentThread()));
+		inline.multicastEvent(new KeyedEvent(this, "a", 0));
+		assertThat(threads).containsExactly(Thread.currentThread());
+		pool.shutdown();
+	}
+
+	@Test
+	public void testListenerMailbox() throws Exception {
+		//邮箱容量为2，第一个事件阻塞在监听器中，之后的事件进入邮箱
+		for (OverflowPolicy policy : OverflowPolicy.values()) {
+			SimpleApplicationEventMulticaster multicaster = new SimpleApplicationEventMulticaster();
+			CountDownLatch started = new CountDownLatch(1);
+			CountDownLatch release = new CountDownLatch(1);
+			List<Integer> received = new CopyOnWriteArrayList<>();
+			ListenerMailbox mailbox = multicaster.addApplicationListener((ApplicationListener<KeyedEvent>) event -> {
+				if (event.getSequence() == 0) {
+					started.countDown();
+					try {
+						release.await(10, TimeUnit.SECONDS);
+					} catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+					}
+				}
+				received.add(event.getSequence());
+			}, 2, policy);
+
+			multicaster.multicastEvent(new KeyedEvent(this, "a", 0));
+			assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+			multicaster.multicastEvent(new KeyedEvent(this, "a", 1));
+			multicaster.multicastEvent(new KeyedEvent(this, "a", 2));
+			assertThat(mailbox.getQueueDepth()).isEqualTo(2);
+
+			//邮箱已满
+			Thread publisher = new Thread(() -> {
+				multicaster.multicastEvent(new KeyedEvent(this, "a", 3));
+				multicaster.multicastEvent(new KeyedEvent(this, "a", 4));
+			});
+			publisher.start();
+			if (policy == OverflowPolicy.BLOCK) {
+				publisher.join(200);
+				assertThat(publisher.isAlive()).isTrue();
+			} else {
+				publisher.join(10000);
+			}
+			release.countDown();
+			publisher.join(10000);
+			multicaster.destroy();
+
+			switch (policy) {
+				case BLOCK:
+					assertThat(received).containsExactly(0, 1, 2, 3, 4);
+					break;
+				case DROP_OLDEST:
+					assertThat(received).containsExactly(0, 3, 4);
+					assertThat(mailbox.getDroppedCount()).isEqualTo(2);
+					break;
+				case DROP_NEWEST:
+					assertThat(received).containsExactly(0, 1, 2);
+					assertThat(mailbox.getDroppedCount()).isEqualTo(2);
+					break;
+				default:
+					//邮箱满时在发布线程上执行，先于邮箱中的事件
+					assertThat(received).containsExactly(3, 4, 0, 1, 2);
+					assertThat(mailbox.getCallerRunsCount()).isEqualTo(2);
+			}
+			assertThat(mailbox.getDeliveredCount()).isEqualTo(received.size());
+			assertThat(mailbox.getQueueDepth()).isEqualTo(0);
+		}
+	}
+
+	@Test
+	public void testListenerMailboxErrorHandlerAndDestroy() throws Exception {
+		SimpleApplicationEventMulticaster multicaster = new SimpleApplicationEventMulticaster();
+		List<Throwable> errors = new CopyOnWriteArrayList<>();
+		multicaster.setErrorHandler(errors::add);
+		CountDownLatch release = new CountDownLatch(1);
+		List<Integer> received = new CopyOnWriteArrayList<>();
+		ListenerMailbox mailbox = multicaster.addApplicationListener((ApplicationListener<KeyedEvent>) event -> {
+			if (event.getSequence() == 0) {
+				try {
+					release.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			received.add(event.getSequence());
+			if (event.getSequence() == 1) {
+				throw new IllegalStateException("mailbox listener failed");
+			}
+		}, 16, OverflowPolicy.BLOCK);
+
+		//事件放入邮箱即完成，不等待监听器
+		CompletableFuture<Void> future = multicaster.multicastEventAsync(new KeyedEvent(this, "a", 0));
+		assertThat(future.get(10, TimeUnit.SECONDS)).isNull();
+		multicaster.multicastEvent(new KeyedEvent(this, "a", 1));
+		multicaster.multicastEvent(new KeyedEvent(this, "a", 2));
+		assertThat(received).isEmpty();
+
+		//destroy等待邮箱处理完
+		new Thread(() -> {
+			try {
+				Thread.sleep(50);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			release.countDown();
+		}).start();
+		multicaster.destroy();
+		assertThat(received).containsExactly(0, 1, 2);
+		assertThat(errors).hasSize(1);
+		assertThat(errors.get(0)).hasMessage("mailbox listener failed");
+
+		//执行器关闭之后，邮箱中的事件在发布线程上处理
+		multicaster.multicastEvent(new KeyedEvent(this, "a", 3));
+		assertThat(received).containsExactly(0, 1, 2, 3);
+		assertThat(mailbox.getDeliveredCount()).isEqualTo(3);
+		assertThat(mailbox.getQueueDepth()).isEqualTo(0);
+	}
+}
@@ -1,10 +1,21 @@
 package org.springframework.test.ioc;
 
 import org.junit.Test;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.AutowiredAnnotationBeanPostProcessor;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.test.bean.Car;
+import org.springframework.test.bean.Counter;
+import org.springframework.test.bean.Garage;
 import org.springframework.test.bean.Person;
 
+import java.util.function.Supplier;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * @author derekyi
@@ -25,4 +36,48 @@ public class AutowiredAnnotationTest {
 		Person person = applicationContext.getBean(Person.class);
 		assertThat(person.getCar()).isNotNull();
 	}
+
+	@Test
+	public void testLazyInjection() throws Exception {
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:lazy-injection.xml");
+		Garage garage = applicationContext.getBean("garage", Garage.class);
+
+		//@Lazy注入的是代理对象，注入时不创建car
+		assertThat(garage.getCar()).isNotNull();
+		assertThat(applicationContext.getBeanFactory().getSingleton("car")).isNull();
+		assertThat(garage.getCar().getBrand()).isEqualTo("porsche");
+		assertThat(applicationContext.getBeanFactory().getSingleton("car")).isNotNull();
+
+		//Supplier每次从容器中获取
+		assertThat(garage.getCarSupplier().get()).isSameAs(applicationContext.getBean("car", Car.class));
+
+		//ObjectProvider获取prototype依赖时每次都是新的实例
+		Counter first = garage.getCounterProvider().getObject();
+		Counter second = garage.getCounterProvider().getIfAvailable();
+		assertThat(first).isNotNull().isNotSameAs(second);
+		assertThat(garage.getCounterProvider().stream().count()).isEqualTo(1);
+	}
+
+	@Test
+	public void testRawProviderInjectionRejected() throws Exception {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		AutowiredAnnotationBeanPostProcessor processor = new AutowiredAnnotationBeanPostProcessor();
+		processor.setBeanFactory(beanFactory);
+		beanFactory.addBeanPostProcessor(processor);
+		beanFactory.registerBeanDefinition("car", new BeanDefinition(Car.class));
+		beanFactory.registerBeanDefinition("counter", new BeanDefinition(Counter.class));
+		beanFactory.registerBeanDefinition("rawSupplierHolder", new BeanDefinition(RawSupplierHolder.class));
+
+		//无法解析Supplier的类型参数时直接报错，不会按Object匹配任意一个bean
+		assertThatThrownBy(() -> beanFactory.getBean("rawSupplierHolder"))
+				.isInstanceOf(BeansException.class)
+				.hasStackTraceContaining("Cannot resolve the provided type of Supplier field 'supplier'");
+	}
+
+	public static class RawSupplierHolder {
+
+		@SuppressWarnings("rawtypes")
+		@Autowired
+		private Supplier supplier;
+	}
 }
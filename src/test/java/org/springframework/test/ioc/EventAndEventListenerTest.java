@@ -1,8 +1,35 @@
 package org.springframework.test.ioc;
 
 import org.junit.Test;
+import org.springframework.beans.BeansException;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ApplicationListenerMethodAdapter;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.context.event.SimpleApplicationEventMulticaster;
 import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.test.common.event.AnnotatedEventListeners;
+import org.springframework.test.common.event.CountingEventListener;
 import org.springframework.test.common.event.CustomEvent;
+import org.springframework.test.common.event.KeyedEvent;
+import org.springframework.test.common.event.KeyedEventBatchingListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * @author derekyi
@@ -22,10 +49,10 @@ public class EventAndEventListenerTest {
 				这一步创建了ApplicationEventMulticaster实例（事件发布者实例）并把它放入IoC容器的一级缓存
 			接下来调用registerListeners()方法注册事件监听器：
 				会把所有实现了ApplicationListener的类都注册到ApplicationEventMulticaster实例中
-				存放在ApplicationEventMulticaster.applicationListeners（一个Set）里面
+				存放在ApplicationEventMulticaster的监听器快照（一个按Ordered排序的数组）里面
 			当refresh()方法执行到最后一行，有一个finishRefresh()方法，这个方法发布了一个“容器刷新完成”事件：
 				发布事件调用的是ApplicationEventMulticaster.multicastEvent方法
-				这个方法会遍历ApplicationEventMulticaster.applicationListeners里面存放的所有事件监听器
+				这个方法会遍历ApplicationEventMulticaster的监听器快照里面存放的所有事件监听器
 				看看有没有监听器需要对此事件作出反应，并执行对应的函数
 				这里会触发ContextRefreshedEventListener
 			接下来在当前测试类下面手动调用publishEvent方法，产生一个自定义的CustomEvent事件
@@ -37,4 +64,302 @@ public class EventAndEventListenerTest {
 
 		applicationContext.registerShutdownHook();//或者applicationContext.close()主动关闭容器;
 	}
+
+	@Test
+	public void testListenerEventTypeResolution() throws Exception {
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:event-and-event-listener.xml");
+		SimpleApplicationEventMulticaster multicaster = new SimpleApplicationEventMulticaster(applicationContext.getBeanFactory());
+
+		//事件类型由父类的泛型参数指定
+		CountingEventListener<CustomEvent> customEventListener = new CountingEventListener<CustomEvent>() {
+		};
+		CountingEventListener<ApplicationEvent> allEventListener = new CountingEventListener<ApplicationEvent>() {
+		};
+		//lambda无法解析事件类型，收到不匹配的事件时忽略
+		AtomicInteger lambdaCount = new AtomicInteger();
+		ApplicationListener<CustomEvent> lambdaListener = event -> lambdaCount.incrementAndGet();
+		multicaster.addApplicationListener(customEventListener);
+		multicaster.addApplicationListener(allEventListener);
+		multicaster.addApplicationListener(lambdaListener);
+
+		multicaster.multicastEvent(new CustomEvent(applicationContext));
+		multicaster.multicastEvent(new ContextRefreshedEvent(applicationContext));
+		assertThat(customEventListener.getCount()).isEqualTo(1);
+		assertThat(allEventListener.getCount()).isEqualTo(2);
+		assertThat(lambdaCount.get()).isEqualTo(1);
+
+		//删除监听器后缓存失效
+		multicaster.removeApplicationListener(customEventListener);
+		multicaster.multicastEvent(new CustomEvent(applicationContext));
+		assertThat(customEventListener.getCount()).isEqualTo(1);
+		assertThat(allEventListener.getCount()).isEqualTo(3);
+	}
+
+	@Test
+	public void testBatchingListener() throws Exception {
+		SimpleApplicationEventMulticaster multicaster = new SimpleApplicationEventMulticaster();
+		KeyedEventBatchingListener coalescingListener = new KeyedEventBatchingListener(true, 1000);
+		KeyedEventBatchingListener batchingListener = new KeyedEventBatchingListener(false, 100);
+		multicaster.addApplicationListener(coalescingListener);
+		multicaster.addApplicationListener(batchingListener);
+
+		for (int i = 0; i < 250; i++) {
+			multicaster.multicastEvent(new KeyedEvent(this, "key-" + (i % 5), i));
+		}
+		//交付剩余的批次
+		multicaster.destroy();
+
+		//不合并时每批最多maxBatchSize个事件，所有事件按顺序交付
+		List<Integer> sequences = new ArrayList<>();
+		for (List<KeyedEvent> batch : batchingListener.getBatches()) {
+			assertThat(batch.size()).isLessThanOrEqualTo(100);
+			batch.forEach(event -> sequences.add(event.getSequence()));
+		}
+		assertThat(sequences).hasSize(250);
+		for (int i = 0; i < 250; i++) {
+			assertThat(sequences.get(i)).isEqualTo(i);
+		}
+
+		//合并时同一个key在一批中只保留最新的事件
+		Map<String, Integer> latest = new HashMap<>();
+		for (List<KeyedEvent> batch : coalescingListener.getBatches()) {
+			assertThat(batch.size()).isLessThanOrEqualTo(5);
+			batch.forEach(event -> latest.put(event.getKey(), event.getSequence()));
+		}
+		assertThat(latest).hasSize(5);
+		for (int k = 0; k < 5; k++) {
+			assertThat(latest.get("key-" + k)).isEqualTo(245 + k);
+		}
+	}
+
+	@Test
+	public void testBatchingListenerErrorHandler() throws Exception {
+		//批量交付时监听器抛出的异常交给errorHandler
+		SimpleApplicationEventMulticaster multicaster = new SimpleApplicationEventMulticaster();
+		List<Throwable> errors = new CopyOnWriteArrayList<>();
+		multicaster.setErrorHandler(errors::add);
+		multicaster.addApplicationListener(new KeyedEventBatchingListener(false, 1) {
+			@Override
+			public void onApplicationEvents(List<KeyedEvent> events) {
+				throw new IllegalStateException("batch failed");
+			}
+		});
+
+		multicaster.multicastEvent(new KeyedEvent(this, "key", 0));
+		multicaster.destroy();
+		assertThat(errors).hasSize(1).allMatch(ex -> ex instanceof IllegalStateException);
+	}
+
+	@Test
+	public void testBatchingListenersDeliveredOnSeparateLanes() throws Exception {
+		SimpleApplicationEventMulticaster multicaster = new SimpleApplicationEventMulticaster();
+		CountDownLatch release = new CountDownLatch(1);
+		List<Integer> slowReceived = new CopyOnWriteArrayList<>();
+		multicaster.addApplicationListener(new KeyedEventBatchingListener(false, 1) {
+			@Override
+			public void onApplicationEvents(List<KeyedEvent> events) {
+				try {
+					release.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+				events.forEach(event -> slowReceived.add(event.getSequence()));
+			}
+		});
+		CountDownLatch fastDelivered = new CountDownLatch(3);
+		multicaster.addApplicationListener(new KeyedEventBatchingListener(false, 1) {
+			@Override
+			public void onApplicationEvents(List<KeyedEvent> events) {
+				fastDelivered.countDown();
+			}
+		});
+
+		for (int i = 0; i < 3; i++) {
+			multicaster.multicastEvent(new KeyedEvent(this, "key", i));
+		}
+		//慢的监听器阻塞在第一批，不影响另一个监听器的交付
+		assertThat(fastDelivered.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(slowReceived).isEmpty();
+		release.countDown();
+
+		multicaster.destroy();
+		//同一个监听器的批次依次交付
+		assertThat(slowReceived).containsExactly(0, 1, 2);
+
+		//关闭之后的事件在发布线程上同步交付
+		KeyedEventBatchingListener lateListener = new KeyedEventBatchingListener(false, 100);
+		multicaster.addApplicationListener(lateListener);
+		multicaster.multicastEvent(new KeyedEvent(this, "key", 3));
+		assertThat(slowReceived).containsExactly(0, 1, 2, 3);
+		assertThat(lateListener.getBatches()).hasSize(1);
+	}
+
+	@Test
+	public void testEventListenerAnnotation() throws Exception {
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:event-listener-annotation.xml");
+		AnnotatedEventListeners listeners = applicationContext.getBean("annotatedEventListeners", AnnotatedEventListeners.class);
+		//prototype bean上的监听方法不注册
+		AnnotatedEventListeners prototypeListeners = applicationContext.getBean("prototypeEventListeners", AnnotatedEventListeners.class);
+		assertThat(listeners.getRefreshedCount()).isEqualTo(1);
+
+		applicationContext.publishEvent(new CustomEvent(applicationContext));
+		assertThat(listeners.getCustomCount()).isEqualTo(1);
+		assertThat(listeners.getNoArgCount()).isEqualTo(1);
+
+		//condition不成立的事件不调用监听方法
+		applicationContext.publishEvent(new KeyedEvent(applicationContext, "tenant-42", 1));
+		applicationContext.publishEvent(new KeyedEvent(applicationContext, "tenant-7", 2));
+		applicationContext.publishEvent(new KeyedEvent(applicationContext, "tenant-42", 3));
+		assertThat(listeners.getTenantSequences()).containsExactly(1, 3);
+		//只收到订阅的路由key的事件
+		assertThat(listeners.getRoutedSequences()).containsExactly(2);
+
+		applicationContext.close();
+		assertThat(listeners.getNoArgCount()).isEqualTo(2);
+		assertThat(prototypeListeners.getCustomCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void testRoutingKeyIndex() throws Exception {
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:event-and-event-listener.xml");
+		SimpleApplicationEventMulticaster multicaster = new SimpleApplicationEventMulticaster(applicationContext.getBeanFactory());
+
+		CountingEventListener<KeyedEvent> broadcastListener = new CountingEventListener<KeyedEvent>() {
+		};
+		multicaster.addApplicationListener(broadcastListener);
+		Map<String, CountingEventListener<KeyedEvent>> tenantListeners = new HashMap<>();
+		for (int i = 0; i < 200; i++) {
+			CountingEventListener<KeyedEvent> tenantListener = new CountingEventListener<KeyedEvent>() {
+			};
+			tenantListeners.put("tenant-" + i, tenantListener);
+			multicaster.addApplicationListener(tenantListener, Collections.singletonList("tenant-" + i));
+		}
+		//订阅了路由key的监听器仍然按事件类型匹配
+		CountingEventListener<CustomEvent> routedCustomListener = new CountingEventListener<CustomEvent>() {
+		};
+		multicaster.addApplicationListener(routedCustomListener, Collections.singletonList("tenant-42"));
+
+		multicaster.multicastEvent(new KeyedEvent(applicationContext, "tenant-42", 1));
+		multicaster.multicastEvent(new KeyedEvent(applicationContext, "tenant-42", 2));
+		multicaster.multicastEvent(new KeyedEvent(applicationContext, "tenant-7", 3));
+		assertThat(broadcastListener.getCount()).isEqualTo(3);
+		assertThat(tenantListeners.get("tenant-42").getCount()).isEqualTo(2);
+		assertThat(tenantListeners.get("tenant-7").getCount()).isEqualTo(1);
+		assertThat(tenantListeners.values().stream().mapToInt(CountingEventListener::getCount).sum()).isEqualTo(3);
+		assertThat(routedCustomListener.getCount()).isEqualTo(0);
+
+		//没有订阅者的路由key和不带路由key的事件只交给没有订阅路由key的监听器
+		multicaster.multicastEvent(new KeyedEvent(applicationContext, "tenant-1000", 4));
+		multicaster.multicastEvent(new KeyedEvent(applicationContext, null, 5));
+		multicaster.multicastEvent(new CustomEvent(applicationContext));
+		assertThat(broadcastListener.getCount()).isEqualTo(5);
+		assertThat(tenantListeners.values().stream().mapToInt(CountingEventListener::getCount).sum()).isEqualTo(3);
+		assertThat(routedCustomListener.getCount()).isEqualTo(0);
+
+		//删除或者重新注册监听器后索引更新
+		multicaster.removeApplicationListener(tenantListeners.get("tenant-42"));
+		multicaster.addApplicationListener(tenantListeners.get("tenant-7"), Collections.singletonList("tenant-8"));
+		multicaster.multicastEvent(new KeyedEvent(applicationContext, "tenant-42", 6));
+		multicaster.multicastEvent(new KeyedEvent(applicationContext, "tenant-7", 7));
+		multicaster.multicastEvent(new KeyedEvent(applicationContext, "tenant-8", 8));
+		assertThat(tenantListeners.get("tenant-42").getCount()).isEqualTo(2);
+		assertThat(tenantListeners.get("tenant-7").getCount()).isEqualTo(2);
+		assertThat(tenantListeners.get("tenant-8").getCount()).isEqualTo(1);
+		assertThat(broadcastListener.getCount()).isEqualTo(8);
+	}
+
+	@Test
+	public void testListenerOrderAndConcurrentRegistration() throws Exception {
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:event-and-event-listener.xml");
+		SimpleApplicationEventMulticaster multicaster = new SimpleApplicationEventMulticaster(applicationContext.getBeanFactory());
+
+		List<String> invocations = new CopyOnWriteArrayList<>();
+		multicaster.addApplicationListener(new OrderedCustomEventListener("last", Ordered.LOWEST_PRECEDENCE, invocations));
+		multicaster.addApplicationListener(new OrderedCustomEventListener("second", 10, invocations));
+		multicaster.addApplicationListener(new OrderedCustomEventListener("first", -10, invocations));
+		//没有实现Ordered的监听器排在最后，与顺序相同的监听器保持注册顺序
+		multicaster.addApplicationListener((ApplicationListener<CustomEvent>) event -> invocations.add("unordered"));
+		multicaster.multicastEvent(new CustomEvent(applicationContext));
+		assertThat(invocations).containsExactly("first", "second", "last", "unordered");
+
+		//发布事件的同时不断添加、删除监听器
+		AtomicBoolean running = new AtomicBoolean(true);
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		Thread registrar = new Thread(() -> {
+			try {
+				while (running.get()) {
+					CountingEventListener<CustomEvent> listener = new CountingEventListener<CustomEvent>() {
+					};
+					multicaster.addApplicationListener(listener);
+					multicaster.removeApplicationListener(listener);
+				}
+			} catch (Throwable ex) {
+				failure.set(ex);
+			}
+		});
+		registrar.start();
+		try {
+			for (int i = 0; i < 20000; i++) {
+				multicaster.multicastEvent(new ContextRefreshedEvent(applicationContext));
+			}
+		} finally {
+			running.set(false);
+			registrar.join();
+		}
+		assertThat(failure.get()).isNull();
+		assertThat(multicaster.getApplicationListeners()).hasSize(4);
+	}
+
+	@Test
+	public void testInvalidEventListenerMethod() throws Exception {
+		assertThatThrownBy(() -> new ApplicationListenerMethodAdapter("invalid", new InvalidListeners(),
+				InvalidListeners.class.getMethod("onMissingProperty", KeyedEvent.class), null))
+				.isInstanceOf(BeansException.class).hasMessageContaining("no property 'tenant'");
+		assertThatThrownBy(() -> new ApplicationListenerMethodAdapter("invalid", new InvalidListeners(),
+				InvalidListeners.class.getMethod("onInvalidCondition", KeyedEvent.class), null))
+				.isInstanceOf(BeansException.class).hasMessageContaining("Invalid condition");
+		assertThatThrownBy(() -> new ApplicationListenerMethodAdapter("invalid", new InvalidListeners(),
+				InvalidListeners.class.getMethod("onNothing"), null))
+				.isInstanceOf(BeansException.class).hasMessageContaining("must specify event types");
+	}
+
+	public static class OrderedCustomEventListener implements ApplicationListener<CustomEvent>, Ordered {
+
+		private final String name;
+
+		private final int order;
+
+		private final List<String> invocations;
+
+		public OrderedCustomEventListener(String name, int order, List<String> invocations) {
+			this.name = name;
+			this.order = order;
+			this.invocations = invocations;
+		}
+
+		@Override
+		public void onApplicationEvent(CustomEvent event) {
+			invocations.add(name);
+		}
+
+		@Override
+		public int getOrder() {
+			return order;
+		}
+	}
+
+	public static class InvalidListeners {
+
+		@EventListener(condition = "event.tenant == 'tenant-42'")
+		public void onMissingProperty(KeyedEvent event) {
+		}
+
+		@EventListener(condition = "event.key > 1")
+		public void onInvalidCondition(KeyedEvent event) {
+		}
+
+		@EventListener
+		public void onNothing() {
+		}
+	}
 }
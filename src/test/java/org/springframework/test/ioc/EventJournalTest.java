@@ -0,0 +1,205 @@
+package org.springframework.test.ioc;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.EventJournal;
+import org.springframework.context.event.JournalingApplicationEventMulticaster;
+import org.springframework.context.event.SimpleApplicationEventMulticaster;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.test.common.event.CustomEvent;
+import org.springframework.test.common.event.KeyedEvent;
+import org.springframework.test.common.event.KeyedEventCodec;
+import org.springframework.test.common.event.KeyedEventRecorder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public class EventJournalTest {
+
+	private static final File JOURNAL_DIRECTORY = new File("target/event-journal-test");
+
+	@Before
+	public void cleanJournal() {
+		File[] files = JOURNAL_DIRECTORY.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+	}
+
+	@Test
+	public void testReplayOnRefresh() throws Exception {
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:event-journal.xml");
+		KeyedEventRecorder recorder = applicationContext.getBean("keyedEventRecorder", KeyedEventRecorder.class);
+		//第一次启动时日志为空
+		assertThat(recorder.getSequences()).isEmpty();
+		for (int i = 0; i < 1000; i++) {
+			applicationContext.publishEvent(new KeyedEvent(applicationContext, "tenant-" + (i % 10), i));
+		}
+		//没有编解码器的事件不写入日志
+		applicationContext.publishEvent(new CustomEvent(applicationContext));
+		JournalingApplicationEventMulticaster multicaster = applicationContext.getBean("applicationEventMulticaster", JournalingApplicationEventMulticaster.class);
+		assertThat(multicaster.getEventJournal().getAppendCount()).isEqualTo(1000);
+		//每条记录28字节，4096字节的段放不下所有记录，需要滚动
+		assertThat(multicaster.getEventJournal().getSegmentCount()).isGreaterThan(1);
+		applicationContext.close();
+
+		//重新启动时在ContextRefreshedEvent之前重放日志，重建监听器的内存状态
+		applicationContext = new ClassPathXmlApplicationContext("classpath:event-journal.xml");
+		recorder = applicationContext.getBean("keyedEventRecorder", KeyedEventRecorder.class);
+		assertThat(recorder.getSequences()).containsExactlyElementsOf(IntStream.range(0, 1000).boxed().collect(Collectors.toList()));
+		assertThat(recorder.getCount("tenant-3")).isEqualTo(100);
+		multicaster = applicationContext.getBean("applicationEventMulticaster", JournalingApplicationEventMulticaster.class);
+		//重放的事件不会再次写入日志
+		assertThat(multicaster.getEventJournal().getAppendCount()).isEqualTo(0);
+
+		//继续在日志末尾追加
+		applicationContext.publishEvent(new KeyedEvent(applicationContext, null, 1000));
+		applicationContext.close();
+		applicationContext = new ClassPathXmlApplicationContext("classpath:event-journal.xml");
+		recorder = applicationContext.getBean("keyedEventRecorder", KeyedEventRecorder.class);
+		assertThat(recorder.getSequences()).hasSize(1001);
+		assertThat(recorder.getCount("null")).isEqualTo(1);
+		applicationContext.close();
+	}
+
+	@Test
+	public void testJournalReplay() throws Exception {
+		EventJournal journal = new EventJournal(JOURNAL_DIRECTORY, 1024);
+		journal.open();
+		KeyedEventCodec codec = new KeyedEventCodec();
+		for (int i = 0; i < 200; i++) {
+			journal.append(codec, new KeyedEvent(this, "key-" + i, i));
+		}
+		journal.flush();
+
+		//日志未关闭时也可以读取已经追加的记录
+		List<KeyedEvent> events = new ArrayList<>();
+		long count = journal.replay((typeId, payload) -> {
+			assertThat(typeId).isEqualTo(codec.getTypeId());
+			events.add(codec.decode(payload, this));
+		});
+		assertThat(count).isEqualTo(200);
+		assertThat(events.get(199).getKey()).isEqualTo("key-199");
+		assertThat(events.get(199).getSequence()).isEqualTo(199);
+
+		//payload是复制出来的，读完段、释放映射之后仍然可以读取
+		List<ByteBuffer> payloads = new ArrayList<>();
+		journal.replay((typeId, payload) -> payloads.add(payload));
+		assertThat(payloads).hasSize(200);
+		assertThat(codec.decode(payloads.get(0), this).getKey()).isEqualTo("key-0");
+		assertThat(codec.decode(payloads.get(199), this).getKey()).isEqualTo("key-199");
+		journal.close();
+
+		//重新打开后从末尾继续追加
+		journal = new EventJournal(JOURNAL_DIRECTORY, 1024);
+		journal.open();
+		journal.append(codec, new KeyedEvent(this, "key-200", 200));
+		assertThat(journal.replay((typeId, payload) -> {
+		})).isEqualTo(201);
+		journal.close();
+	}
+
+	@Test
+	public void testReplayWithAsyncDelegate() throws Exception {
+		JournalingApplicationEventMulticaster multicaster = journalingMulticaster(new SimpleApplicationEventMulticaster());
+		for (int i = 0; i < 100; i++) {
+			multicaster.multicastEvent(new KeyedEvent(this, "key", i));
+		}
+		multicaster.destroy();
+
+		//监听器在执行线程上发布的事件在重放期间同样不写入日志
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		SimpleApplicationEventMulticaster delegate = new SimpleApplicationEventMulticaster();
+		delegate.setTaskExecutor(executor);
+		JournalingApplicationEventMulticaster replayingMulticaster = journalingMulticaster(delegate);
+		List<Integer> derived = new CopyOnWriteArrayList<>();
+		List<Boolean> replayingSeen = new CopyOnWriteArrayList<>();
+		replayingMulticaster.addApplicationListener((ApplicationListener<KeyedEvent>) event -> {
+			if ("key".equals(event.getKey())) {
+				replayingSeen.add(replayingMulticaster.isReplaying());
+				replayingMulticaster.multicastEvent(new KeyedEvent(this, "derived", event.getSequence()));
+			} else {
+				derived.add(event.getSequence());
+			}
+		});
+		assertThat(replayingMulticaster.replay(this)).isEqualTo(100);
+		//重放结束时已经处理完重放的事件
+		assertThat(replayingSeen).hasSize(100).containsOnly(true);
+		assertThat(replayingMulticaster.isReplaying()).isFalse();
+		assertThat(replayingMulticaster.getEventJournal().getAppendCount()).isEqualTo(0);
+		executor.shutdown();
+		assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(derived).hasSize(100);
+		replayingMulticaster.destroy();
+	}
+
+	private JournalingApplicationEventMulticaster journalingMulticaster(SimpleApplicationEventMulticaster delegate) {
+		JournalingApplicationEventMulticaster multicaster = new JournalingApplicationEventMulticaster();
+		multicaster.setDirectory(JOURNAL_DIRECTORY.getPath());
+		multicaster.setSegmentSize(4096);
+		multicaster.setDelegate(delegate);
+		multicaster.addCodec(new KeyedEventCodec());
+		return multicaster;
+	}
+
+	@Test
+	public void testTornRecordAtTail() throws Exception {
+		EventJournal journal = new EventJournal(JOURNAL_DIRECTORY, 1024);
+		journal.open();
+		KeyedEventCodec codec = new KeyedEventCodec();
+		journal.append(codec, new KeyedEvent(this, "key-0", 0));
+		journal.append(codec, new KeyedEvent(this, "key-1", 1));
+		journal.close();
+
+		//模拟掉电：第三条记录只有长度落盘，内容是残留的字节，后面还残留着一条完整的旧记录
+		File segment = new File(JOURNAL_DIRECTORY, String.format("%020d", 0) + ".journal");
+		try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+			byte[] firstRecord = new byte[25];
+			file.readFully(firstRecord);
+			file.seek(50);
+			file.writeInt(20);
+			file.writeInt(0);
+			file.writeInt(16);
+			file.write(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20});
+			file.write(firstRecord);
+		}
+
+		//写了一半的记录和之后残留的字节都不会被读到
+		journal = new EventJournal(JOURNAL_DIRECTORY, 1024);
+		journal.open();
+		List<KeyedEvent> events = new ArrayList<>();
+		EventJournal.RecordHandler handler = (typeId, payload) -> {
+			assertThat(typeId).isEqualTo(codec.getTypeId());
+			events.add(codec.decode(payload, this));
+		};
+		assertThat(journal.replay(handler)).isEqualTo(2);
+
+		//新记录覆盖写了一半的记录，大小相同时下一条记录的位置正好是残留的旧记录，open时已经清零
+		journal.append(codec, new KeyedEvent(this, "key-2-padded", 2));
+		journal.close();
+		journal = new EventJournal(JOURNAL_DIRECTORY, 1024);
+		journal.open();
+		events.clear();
+		assertThat(journal.replay(handler)).isEqualTo(3);
+		assertThat(events.stream().map(KeyedEvent::getSequence).collect(Collectors.toList())).containsExactly(0, 1, 2);
+		journal.close();
+	}
+}
@@ -1,7 +1,14 @@
 package org.springframework.test.ioc;
 
 import org.junit.Test;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.test.bean.Counter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * @author derekyi
@@ -14,4 +21,62 @@ public class InitAndDestoryMethodTest {
 		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:init-and-destroy-method.xml");
 		applicationContext.registerShutdownHook();  //或者手动关闭 applicationContext.close();
 	}
+
+	@Test
+	public void testLifecycleMethodValidation() throws Exception {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+
+		//不存在的方法在注册BeanDefinition时就报错，而不是等到创建bean时
+		BeanDefinition missingInit = new BeanDefinition(Counter.class);
+		missingInit.setInitMethodName("start");
+		assertThatThrownBy(() -> beanFactory.registerBeanDefinition("counter", missingInit)).isInstanceOf(BeansException.class);
+
+		BeanDefinition missingDestroy = new BeanDefinition(Counter.class);
+		missingDestroy.setDestroyMethodName("stop");
+		assertThatThrownBy(() -> beanFactory.registerBeanDefinition("counter", missingDestroy)).isInstanceOf(BeansException.class);
+
+		BeanDefinition beanDefinition = new BeanDefinition(Counter.class);
+		beanDefinition.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		beanDefinition.setInitMethodName("increment");
+		beanDefinition.setDestroyMethodName("close");
+		beanFactory.registerBeanDefinition("counter", beanDefinition);
+
+		Counter counter = beanFactory.getBean("counter", Counter.class);
+		assertThat(counter.getCount()).isEqualTo(1);
+		beanFactory.destroyBean("counter", counter);
+		assertThat(counter.isDestroyed()).isTrue();
+	}
+
+	@Test
+	public void testStaticLifecycleMethod() throws Exception {
+		//静态的无参方法同样可以作为init-method和destroy-method
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		BeanDefinition beanDefinition = new BeanDefinition(StaticLifecycleBean.class);
+		beanDefinition.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		beanDefinition.setInitMethodName("staticInit");
+		beanDefinition.setDestroyMethodName("staticDestroy");
+		beanFactory.registerBeanDefinition("staticLifecycleBean", beanDefinition);
+
+		int initCount = StaticLifecycleBean.initCount;
+		int destroyCount = StaticLifecycleBean.destroyCount;
+		Object bean = beanFactory.getBean("staticLifecycleBean");
+		assertThat(StaticLifecycleBean.initCount).isEqualTo(initCount + 1);
+		beanFactory.destroyBean("staticLifecycleBean", bean);
+		assertThat(StaticLifecycleBean.destroyCount).isEqualTo(destroyCount + 1);
+	}
+
+	public static class StaticLifecycleBean {
+
+		static int initCount;
+
+		static int destroyCount;
+
+		public static void staticInit() {
+			initCount++;
+		}
+
+		public static void staticDestroy() {
+			destroyCount++;
+		}
+	}
 }
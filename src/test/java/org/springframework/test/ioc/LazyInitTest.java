@@ -1,11 +1,19 @@
 package org.springframework.test.ioc;
 
+import java.lang.reflect.Proxy;
 import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 
+import org.springframework.aop.TargetSource;
+import org.springframework.aop.framework.ProxyFactory;
 import org.springframework.context.support.ClassPathXmlApplicationContext;
 import org.springframework.test.bean.Car;
+import org.springframework.test.bean.Person;
+import org.springframework.test.service.WorldService;
+import org.springframework.test.service.WorldServiceImpl;
+
+import static org.assertj.core.api.Assertions.assertThat;
 
 public class LazyInitTest {
 	/*
@@ -28,4 +36,46 @@ public class LazyInitTest {
 		Car c = (Car) applicationContext.getBean("car");
 		c.showTime();//显示bean的创建时间
 	}
+
+	@Test
+	public void testLazyInitReference() throws Exception {
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:lazy-init-reference.xml");
+		Person person = applicationContext.getBean("person", Person.class);
+
+		//注入的是延迟代理，car此时还没有创建
+		assertThat(person.getCar()).isNotNull();
+		assertThat(applicationContext.getBeanFactory().getSingleton("car")).isNull();
+
+		//第一次调用方法时创建car
+		assertThat(person.getCar().getBrand()).isEqualTo("porsche");
+		Car car = applicationContext.getBean("car", Car.class);
+		assertThat(applicationContext.getBeanFactory().getSingleton("car")).isSameAs(car);
+		assertThat(person.getCar()).isNotSameAs(car);
+
+		//没有声明lazy的引用注入的是bean本身
+		Person eagerPerson = applicationContext.getBean("eagerPerson", Person.class);
+		assertThat(eagerPerson.getCar().getClass()).isEqualTo(Car.class);
+		assertThat(eagerPerson.getCar()).isSameAs(applicationContext.getBeanFactory().getSingleton("eagerCar"));
+	}
+
+	@Test
+	public void testLazyProxyWithInterfaceProxyTarget() throws Exception {
+		//延迟代理是目标类的子类，目标bean被代理成JDK动态代理时按方法签名调用
+		WorldService jdkProxy = (WorldService) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[]{WorldService.class}, (proxy, method, args) -> "getName".equals(method.getName()) ? "proxied" : null);
+		ProxyFactory proxyFactory = new ProxyFactory();
+		proxyFactory.setTargetSource(new TargetSource() {
+			@Override
+			public Class<?> getTargetType() {
+				return WorldServiceImpl.class;
+			}
+
+			@Override
+			public Object getTarget() {
+				return jdkProxy;
+			}
+		});
+		WorldServiceImpl lazyProxy = (WorldServiceImpl) proxyFactory.getProxy();
+		assertThat(lazyProxy.getName()).isEqualTo("proxied");
+	}
 }
@@ -1,10 +1,28 @@
 package org.springframework.test.ioc;
 
 import org.junit.Test;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.PropertyValues;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.AutowiredAnnotationBeanPostProcessor;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanReference;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.context.support.ClassPathXmlApplicationContext;
 import org.springframework.test.bean.Car;
+import org.springframework.test.bean.Counter;
+import org.springframework.test.bean.Person;
+import org.springframework.test.common.PopulationCountingPostProcessor;
+
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * @author derekyi
@@ -20,4 +38,114 @@ public class PrototypeBeanTest {
 		Car car2 = applicationContext.getBean("car", Car.class);
 		assertThat(car1 != car2).isTrue();
 	}
+
+	@Test
+	public void testTemplateClone() throws Exception {
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:prototype-template-clone.xml");
+
+		Person person1 = applicationContext.getBean("person", Person.class);
+		Person person2 = applicationContext.getBean("person", Person.class);
+		Person person3 = applicationContext.getBean("person", Person.class);
+		assertThat(person2).isNotSameAs(person1);
+		assertThat(person3).isNotSameAs(person2);
+		assertThat(person3.getName()).isEqualTo("derek");
+		assertThat(person3.getAge()).isEqualTo(18);
+		assertThat(person3.getCar()).isSameAs(applicationContext.getBean("car"));
+
+		//修改一个实例不影响模板
+		person2.setName("ken");
+		assertThat(applicationContext.getBean("person", Person.class).getName()).isEqualTo("derek");
+
+		//模板保存的是初始化之前的状态，每个副本都执行一次init-method
+		Counter counter1 = applicationContext.getBean("counter", Counter.class);
+		Counter counter2 = applicationContext.getBean("counter", Counter.class);
+		assertThat(counter2).isNotSameAs(counter1);
+		assertThat(counter1.getCount()).isEqualTo(1);
+		assertThat(counter2.getCount()).isEqualTo(1);
+
+		//副本跳过属性填充阶段，只有创建模板的那一次经过postProcessAfterInstantiation和属性注入
+		PopulationCountingPostProcessor postProcessor = applicationContext.getBean(PopulationCountingPostProcessor.class);
+		assertThat(postProcessor.getAfterInstantiationCount("person")).isEqualTo(1);
+		assertThat(postProcessor.getPropertyValuesCount("person")).isEqualTo(1);
+		assertThat(postProcessor.getPropertyValuesCount("counter")).isEqualTo(1);
+	}
+
+	@Test
+	public void testTemplateCloneRejectsNonSingletonReference() throws Exception {
+		//副本是浅拷贝，引用prototype的bean会被所有副本共享，注册时拒绝
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		beanFactory.registerBeanDefinition("car", prototype(Car.class, new PropertyValues()));
+		assertThatThrownBy(() -> beanFactory.registerBeanDefinition("person", templateClonePersonDefinition()))
+				.isInstanceOf(BeansException.class)
+				.hasMessageContaining("car");
+
+		//被引用的bean在之后注册时同样检查
+		DefaultListableBeanFactory otherBeanFactory = new DefaultListableBeanFactory();
+		otherBeanFactory.registerBeanDefinition("person", templateClonePersonDefinition());
+		assertThatThrownBy(() -> otherBeanFactory.registerBeanDefinition("car", prototype(Car.class, new PropertyValues())))
+				.isInstanceOf(BeansException.class)
+				.hasMessageContaining("person");
+		otherBeanFactory.registerBeanDefinition("car", new BeanDefinition(Car.class));
+		Person person = otherBeanFactory.getBean("person", Person.class);
+		assertThat(otherBeanFactory.getBean("person", Person.class).getCar()).isSameAs(person.getCar());
+	}
+
+	@Test
+	public void testTemplateCloneRejectsSharedFields() throws Exception {
+		//@Autowired注入的prototype bean不在property中，保存模板时检查
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		AutowiredAnnotationBeanPostProcessor processor = new AutowiredAnnotationBeanPostProcessor();
+		processor.setBeanFactory(beanFactory);
+		beanFactory.addBeanPostProcessor(processor);
+		beanFactory.registerBeanDefinition("car", prototype(Car.class, new PropertyValues()));
+		BeanDefinition holderDefinition = prototype(AutowiredCarHolder.class, new PropertyValues());
+		holderDefinition.setTemplateClone(true);
+		beanFactory.registerBeanDefinition("holder", holderDefinition);
+		assertThatThrownBy(() -> beanFactory.getBean("holder"))
+				.isInstanceOf(BeansException.class)
+				.hasStackTraceContaining("non-singleton dependency into field 'car'");
+
+		//注入单例bean可以共享
+		DefaultListableBeanFactory otherBeanFactory = new DefaultListableBeanFactory();
+		AutowiredAnnotationBeanPostProcessor otherProcessor = new AutowiredAnnotationBeanPostProcessor();
+		otherProcessor.setBeanFactory(otherBeanFactory);
+		otherBeanFactory.addBeanPostProcessor(otherProcessor);
+		otherBeanFactory.registerBeanDefinition("car", new BeanDefinition(Car.class));
+		otherBeanFactory.registerBeanDefinition("holder", holderDefinition);
+		AutowiredCarHolder holder = otherBeanFactory.getBean("holder", AutowiredCarHolder.class);
+		assertThat(otherBeanFactory.getBean("holder", AutowiredCarHolder.class).car).isSameAs(holder.car);
+
+		//集合字段会被所有副本共享
+		BeanDefinition listHolderDefinition = prototype(ListHolder.class, new PropertyValues());
+		listHolderDefinition.setTemplateClone(true);
+		otherBeanFactory.registerBeanDefinition("listHolder", listHolderDefinition);
+		assertThatThrownBy(() -> otherBeanFactory.getBean("listHolder"))
+				.isInstanceOf(BeansException.class)
+				.hasStackTraceContaining("mutable field 'items'");
+	}
+
+	public static class AutowiredCarHolder {
+
+		@Autowired
+		private Car car;
+	}
+
+	public static class ListHolder {
+
+		private List<String> items = new ArrayList<>();
+	}
+
+	private BeanDefinition templateClonePersonDefinition() {
+		PropertyValues propertyValues = new PropertyValues();
+		propertyValues.addPropertyValue(new PropertyValue("car", new BeanReference("car")));
+		BeanDefinition beanDefinition = prototype(Person.class, propertyValues);
+		beanDefinition.setTemplateClone(true);
+		return beanDefinition;
+	}
+
+	private BeanDefinition prototype(Class<?> beanClass, PropertyValues propertyValues) {
+		BeanDefinition beanDefinition = new BeanDefinition(beanClass, propertyValues);
+		beanDefinition.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		return beanDefinition;
+	}
 }
@@ -0,0 +1,222 @@
+package org.springframework.test.ioc;
+
+import org.junit.Test;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ListenerMailbox.OverflowPolicy;
+import org.springframework.context.event.RingBufferApplicationEventMulticaster;
+import org.springframework.context.event.RingBufferApplicationEventMulticaster.WaitStrategy;
+import org.springframework.test.common.event.KeyedEvent;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public class RingBufferEventMulticasterTest {
+
+	@Test
+	public void testConcurrentPublishing() throws Exception {
+		for (WaitStrategy waitStrategy : WaitStrategy.values()) {
+			RingBufferApplicationEventMulticaster multicaster = new RingBufferApplicationEventMulticaster();
+			//缓冲区很小，发布线程会频繁等待分发线程
+			multicaster.setBufferSize(64);
+			multicaster.setWaitStrategy(waitStrategy);
+			RecordingListener listener = new RecordingListener();
+			multicaster.addApplicationListener(listener);
+
+			int producers = 4;
+			int eventsPerProducer = 5000;
+			List<Thread> threads = new ArrayList<>();
+			for (int p = 0; p < producers; p++) {
+				String key = "producer-" + p;
+				Thread thread = new Thread(() -> {
+					for (int i = 0; i < eventsPerProducer; i++) {
+						multicaster.multicastEvent(new KeyedEvent(this, key, i));
+					}
+				});
+				threads.add(thread);
+				thread.start();
+			}
+			for (Thread thread : threads) {
+				thread.join();
+			}
+			multicaster.multicastEventAsync(new KeyedEvent(this, "last", 0)).get(10, TimeUnit.SECONDS);
+
+			//分发线程按发布顺序处理，同一个发布线程的事件保持顺序
+			assertThat(listener.received).hasSize(producers + 1);
+			for (int p = 0; p < producers; p++) {
+				List<Integer> sequences = listener.received.get("producer-" + p);
+				assertThat(sequences).hasSize(eventsPerProducer);
+				for (int i = 0; i < eventsPerProducer; i++) {
+					assertThat(sequences.get(i)).isEqualTo(i);
+				}
+			}
+			assertThat(listener.batches).isGreaterThan(0);
+			assertThat(multicaster.getBacklog()).isEqualTo(0);
+
+			//关闭之后在发布线程上直接执行
+			multicaster.destroy();
+			multicaster.multicastEvent(new KeyedEvent(this, "closed", 0));
+			assertThat(listener.received.get("closed")).containsExactly(0);
+		}
+	}
+
+	@Test
+	public void testMailboxListenerErrorHandler() throws Exception {
+		//邮箱中的监听器抛出的异常同样交给errorHandler
+		RingBufferApplicationEventMulticaster multicaster = new RingBufferApplicationEventMulticaster();
+		List<Throwable> errors = new CopyOnWriteArrayList<>();
+		multicaster.setErrorHandler(errors::add);
+		multicaster.addApplicationListener((ApplicationListener<KeyedEvent>) event -> {
+			throw new IllegalStateException("mailbox listener failed");
+		}, 16, OverflowPolicy.BLOCK);
+
+		multicaster.multicastEventAsync(new KeyedEvent(this, "key", 0)).get(10, TimeUnit.SECONDS);
+		multicaster.destroy();
+		assertThat(errors).hasSize(1).allMatch(ex -> ex instanceof IllegalStateException);
+	}
+
+	@Test
+	public void testInvalidBufferSize() throws Exception {
+		RingBufferApplicationEventMulticaster multicaster = new RingBufferApplicationEventMulticaster();
+		//设置时就检查，不会等到第一次发布才失败
+		assertThatThrownBy(() -> multicaster.setBufferSize(100)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> multicaster.setBufferSize(0)).isInstanceOf(IllegalArgumentException.class);
+		RecordingListener listener = new RecordingListener();
+		multicaster.addApplicationListener(listener);
+		multicaster.multicastEventAsync(new KeyedEvent(this, "key", 0)).get(10, TimeUnit.SECONDS);
+		assertThat(listener.received.get("key")).containsExactly(0);
+		multicaster.destroy();
+	}
+
+	@Test
+	public void testPublishFromDispatcherThread() throws Exception {
+		RingBufferApplicationEventMulticaster multicaster = new RingBufferApplicationEventMulticaster();
+		multicaster.setBufferSize(2);
+		List<String> received = new ArrayList<>();
+		multicaster.addApplicationListener((ApplicationListener<KeyedEvent>) event -> {
+			received.add(event.getKey() + "-" + event.getSequence());
+			//缓冲区很小，监听器在分发线程上连续发布事件，不能等待分发线程自己腾出槽位
+			if ("outer".equals(event.getKey())) {
+				for (int i = 0; i < 8; i++) {
+					multicaster.multicastEvent(new KeyedEvent(this, "inner", i));
+				}
+			}
+		});
+		for (int i = 0; i < 4; i++) {
+			multicaster.multicastEvent(new KeyedEvent(this, "outer", i));
+		}
+		multicaster.multicastEventAsync(new KeyedEvent(this, "last", 0)).get(10, TimeUnit.SECONDS);
+		assertThat(received).hasSize(4 * 9 + 1);
+		//嵌套发布的事件在外层事件的监听器中直接执行
+		assertThat(received.subList(0, 9)).containsExactly("outer-0", "inner-0", "inner-1", "inner-2", "inner-3",
+				"inner-4", "inner-5", "inner-6", "inner-7");
+		multicaster.destroy();
+	}
+
+	@Test
+	public void testCloseWhilePublishing() throws Exception {
+		RingBufferApplicationEventMulticaster multicaster = new RingBufferApplicationEventMulticaster();
+		multicaster.setBufferSize(16);
+		AtomicInteger delivered = new AtomicInteger();
+		AtomicInteger inFlight = new AtomicInteger();
+		AtomicInteger maxInFlight = new AtomicInteger();
+		multicaster.addApplicationListener((ApplicationListener<KeyedEvent>) event -> {
+			maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+			delivered.incrementAndGet();
+			inFlight.decrementAndGet();
+		});
+
+		int producers = 4;
+		int eventsPerProducer = 20000;
+		CountDownLatch startLatch = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<>();
+		for (int p = 0; p < producers; p++) {
+			Thread thread = new Thread(() -> {
+				try {
+					startLatch.await();
+				} catch (InterruptedException ex) {
+					return;
+				}
+				for (int i = 0; i < eventsPerProducer; i++) {
+					multicaster.multicastEvent(new KeyedEvent(this, "key", i));
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		startLatch.countDown();
+		Thread.sleep(5);
+		multicaster.destroy();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		//关闭前领取的事件由分发线程处理完，关闭后的事件在发布线程上串行执行，每个事件只执行一次
+		assertThat(delivered.get()).isEqualTo(producers * eventsPerProducer);
+		assertThat(maxInFlight.get()).isEqualTo(1);
+		assertThat(multicaster.getBacklog()).isEqualTo(0);
+	}
+
+	@Test
+	public void testThrowingErrorHandler() throws Exception {
+		//errorHandler本身抛出异常时分发线程继续处理后面的事件，发布线程不会因为缓冲区满而一直等待
+		RingBufferApplicationEventMulticaster multicaster = new RingBufferApplicationEventMulticaster();
+		multicaster.setBufferSize(4);
+		multicaster.setErrorHandler(ex -> {
+			throw new IllegalStateException("error handler failed", ex);
+		});
+		AtomicInteger delivered = new AtomicInteger();
+		multicaster.addApplicationListener((ApplicationListener<KeyedEvent>) event -> {
+			delivered.incrementAndGet();
+			throw new IllegalArgumentException("listener failed");
+		});
+
+		Thread.UncaughtExceptionHandler previous = Thread.getDefaultUncaughtExceptionHandler();
+		List<Throwable> uncaught = new CopyOnWriteArrayList<>();
+		Thread.setDefaultUncaughtExceptionHandler((thread, ex) -> uncaught.add(ex));
+		try {
+			for (int i = 0; i < 20; i++) {
+				multicaster.multicastEvent(new KeyedEvent(this, "key", i));
+			}
+			assertThatThrownBy(() -> multicaster.multicastEventAsync(new KeyedEvent(this, "key", 20)).get(10, TimeUnit.SECONDS))
+					.hasCauseInstanceOf(IllegalArgumentException.class);
+		} finally {
+			Thread.setDefaultUncaughtExceptionHandler(previous);
+		}
+		assertThat(delivered.get()).isEqualTo(21);
+		assertThat(uncaught).hasSize(21).allMatch(ex -> ex instanceof IllegalStateException);
+		multicaster.destroy();
+	}
+
+	/**
+	 * 只在分发线程上调用，不需要同步
+	 */
+	private static class RecordingListener implements ApplicationListener<KeyedEvent>,
+			RingBufferApplicationEventMulticaster.EndOfBatchListener {
+
+		private final Map<String, List<Integer>> received = new HashMap<>();
+
+		private volatile int batches;
+
+		@Override
+		public void onApplicationEvent(KeyedEvent event) {
+			received.computeIfAbsent(event.getKey(), key -> new ArrayList<>()).add(event.getSequence());
+		}
+
+		@Override
+		public void onEndOfBatch() {
+			batches++;
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package org.springframework.test.ioc;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.AbstractApplicationEventMulticaster;
+import org.springframework.context.event.RingBufferApplicationEventMulticaster;
+import org.springframework.context.event.RingBufferApplicationEventMulticaster.WaitStrategy;
+import org.springframework.context.event.SimpleApplicationEventMulticaster;
+import org.springframework.test.common.event.KeyedEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 环形缓冲区的吞吐量对比，耗时较长，不在构建中执行，需要时手动运行
+ *
+ * @author derekyi
+ * @date 2026/10/19
+ */
+@Ignore("benchmark, run manually")
+public class RingBufferThroughputBenchmark {
+
+	@Test
+	public void testThroughput() throws Exception {
+		/*
+			简单的吞吐量对比：多个发布线程通过环形缓冲区和SimpleApplicationEventMulticaster发布同样数量的事件，
+			只打印结果，不对耗时做断言，避免在负载较高的构建机器上失败
+		 */
+		int producers = 4;
+		int eventsPerProducer = 100000;
+		for (int round = 0; round < 2; round++) {
+			RingBufferApplicationEventMulticaster ringBuffer = new RingBufferApplicationEventMulticaster();
+			ringBuffer.setWaitStrategy(WaitStrategy.YIELD);
+			long ringBufferNanos = measureThroughput(ringBuffer, producers, eventsPerProducer);
+			ringBuffer.destroy();
+
+			SimpleApplicationEventMulticaster simple = new SimpleApplicationEventMulticaster();
+			long simpleNanos = measureThroughput(simple, producers, eventsPerProducer);
+			simple.destroy();
+
+			if (round > 0) {
+				long total = (long) producers * eventsPerProducer;
+				System.out.printf("ring buffer: %d events/ms, simple: %d events/ms%n",
+						total * 1_000_000 / Math.max(ringBufferNanos, 1), total * 1_000_000 / Math.max(simpleNanos, 1));
+			}
+		}
+	}
+
+	private long measureThroughput(AbstractApplicationEventMulticaster multicaster, int producers, int eventsPerProducer) throws Exception {
+		LongAdder delivered = new LongAdder();
+		multicaster.addApplicationListener((ApplicationListener<KeyedEvent>) event -> delivered.increment());
+		List<Thread> threads = new ArrayList<>();
+		long start = System.nanoTime();
+		for (int p = 0; p < producers; p++) {
+			Thread thread = new Thread(() -> {
+				for (int i = 0; i < eventsPerProducer; i++) {
+					multicaster.multicastEvent(new KeyedEvent(this, "key", i));
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		multicaster.multicastEventAsync(new KeyedEvent(this, "key", -1)).get(30, TimeUnit.SECONDS);
+		long elapsed = System.nanoTime() - start;
+		assertThat(delivered.sum()).isEqualTo((long) producers * eventsPerProducer + 1);
+		return elapsed;
+	}
+}
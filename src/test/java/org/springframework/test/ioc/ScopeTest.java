@@ -0,0 +1,204 @@
+package org.springframework.test.ioc;
+
+import org.junit.Test;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.context.support.PooledScope;
+import org.springframework.context.support.SimpleThreadScope;
+import org.springframework.context.support.TtlScope;
+import org.springframework.test.bean.Counter;
+import org.springframework.test.common.RecordingPooledScope;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author derekyi
+ * @date 2026/10/19
+ */
+public class ScopeTest {
+
+	@Test
+	public void testThreadScope() throws Exception {
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:thread-scope.xml");
+
+		Counter counter = applicationContext.getBean("counter", Counter.class);
+		assertThat(applicationContext.getBean("counter", Counter.class)).isSameAs(counter);
+
+		//其他线程拿到自己的实例
+		AtomicReference<Counter> otherCounter = new AtomicReference<>();
+		Thread thread = new Thread(() -> otherCounter.set(applicationContext.getBean("counter", Counter.class)));
+		thread.start();
+		thread.join();
+		assertThat(otherCounter.get()).isNotNull().isNotSameAs(counter);
+
+		//销毁当前线程的实例，执行destroy-method，下次获取时重新创建
+		SimpleThreadScope threadScope = (SimpleThreadScope) applicationContext.getBeanFactory().getRegisteredScope("thread");
+		threadScope.destroyCurrentThread();
+		assertThat(counter.isDestroyed()).isTrue();
+		assertThat(otherCounter.get().isDestroyed()).isFalse();
+		assertThat(applicationContext.getBean("counter", Counter.class)).isNotSameAs(counter);
+	}
+
+	@Test
+	public void testTtlScope() throws Exception {
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:ttl-scope.xml");
+		TtlScope ttlScope = applicationContext.getBean("ttlScope", TtlScope.class);
+
+		Counter proxy = applicationContext.getBean("counter", Counter.class);
+		Counter first = applicationContext.getBean("scopedTarget.counter", Counter.class);
+		assertThat(proxy).isNotSameAs(first);
+		assertThat(proxy.increment()).isEqualTo(1);
+		assertThat(proxy.increment()).isEqualTo(2);
+
+		//过期之后先拿到旧实例，后台重新创建
+		Thread.sleep(150);
+		assertThat(applicationContext.getBean("scopedTarget.counter", Counter.class)).isSameAs(first);
+		long deadline = System.currentTimeMillis() + 5000;
+		while (ttlScope.getRefreshCount() == 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(ttlScope.getRefreshCount()).isGreaterThanOrEqualTo(1);
+
+		//注入的代理自动使用新实例，旧实例在宽限期之后才执行destroy-method
+		Counter second = applicationContext.getBean("scopedTarget.counter", Counter.class);
+		assertThat(second).isNotSameAs(first);
+		assertThat(proxy.increment()).isEqualTo(second.getCount());
+		while (!first.isDestroyed() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(first.isDestroyed()).isTrue();
+
+		applicationContext.close();
+		assertThat(second.isDestroyed()).isTrue();
+	}
+
+	@Test
+	public void testTtlScopeDeferredDestructionAndRefreshFailure() throws Exception {
+		TtlScope ttlScope = new TtlScope(20);
+		ttlScope.setDestroyDelay(60000);
+		AtomicInteger created = new AtomicInteger();
+		List<Counter> destroyed = new ArrayList<>();
+		ObjectFactory<Counter> objectFactory = () -> {
+			if (created.incrementAndGet() == 3) {
+				throw new IllegalStateException("source unavailable");
+			}
+			Counter counter = new Counter();
+			ttlScope.registerDestructionCallback("counter", () -> {
+				counter.close();
+				destroyed.add(counter);
+			});
+			return counter;
+		};
+
+		Counter first = (Counter) ttlScope.get("counter", objectFactory);
+		Thread.sleep(30);
+		ttlScope.get("counter", objectFactory);
+		long deadline = System.currentTimeMillis() + 5000;
+		while (ttlScope.getRefreshCount() == 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		//旧实例在宽限期内仍然可用
+		Counter second = (Counter) ttlScope.get("counter", objectFactory);
+		assertThat(second).isNotSameAs(first);
+		assertThat(first.isDestroyed()).isFalse();
+		assertThat(ttlScope.getPendingDestructionCount()).isEqualTo(1);
+
+		//重新创建失败时保留当前实例，记录失败原因
+		Thread.sleep(30);
+		ttlScope.get("counter", objectFactory);
+		while (ttlScope.getRefreshFailureCount() == 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(ttlScope.getLastRefreshFailure()).isInstanceOf(BeansException.class)
+				.hasRootCauseInstanceOf(IllegalStateException.class);
+		assertThat(ttlScope.get("counter", objectFactory)).isSameAs(second);
+
+		//关闭时立即销毁宽限期内的旧实例以及当前实例
+		ttlScope.destroy();
+		assertThat(destroyed).containsExactly(first, second);
+		assertThat(ttlScope.getPendingDestructionCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void testPooledScope() throws Exception {
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:pooled-scope.xml");
+		PooledScope pooledScope = applicationContext.getBean("pooledScope", PooledScope.class);
+
+		Counter first = applicationContext.getBean("counter", Counter.class);
+		first.increment();
+		pooledScope.release("counter", first);
+		//归还时重置状态，再次借用拿到同一个实例，不重新创建
+		assertThat(first.getCount()).isEqualTo(0);
+		Counter again = applicationContext.getBean("counter", Counter.class);
+		assertThat(again).isSameAs(first);
+		assertThat(pooledScope.getCreatedCount()).isEqualTo(1);
+
+		//池中没有空闲实例时创建新实例
+		Counter second = applicationContext.getBean("counter", Counter.class);
+		assertThat(second).isNotSameAs(first);
+		assertThat(pooledScope.getCreatedCount()).isEqualTo(2);
+
+		//最多保留一个空闲实例，超出的实例归还时销毁
+		pooledScope.release("counter", first);
+		pooledScope.release("counter", second);
+		assertThat(pooledScope.getIdleCount("counter")).isEqualTo(1);
+		assertThat(first.isDestroyed()).isFalse();
+		assertThat(second.isDestroyed()).isTrue();
+
+		//借出后没有归还的实例不被作用域持有，可以被回收
+		assertThat(applicationContext.getBean("counter", Counter.class)).isSameAs(first);
+		WeakReference<Counter> abandoned = new WeakReference<>(applicationContext.getBean("counter", Counter.class));
+		for (int i = 0; i < 50 && abandoned.get() != null; i++) {
+			System.gc();
+			Thread.sleep(10);
+		}
+		assertThat(abandoned.get()).isNull();
+		pooledScope.release("counter", first);
+
+		applicationContext.close();
+		assertThat(first.isDestroyed()).isTrue();
+	}
+
+	@Test
+	public void testScopeDestroyedOnceBeforeSingletons() throws Exception {
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:scope-destroy-order.xml");
+		RecordingPooledScope pooledScope = applicationContext.getBean("pooledScope", RecordingPooledScope.class);
+		Counter sharedCounter = applicationContext.getBean("sharedCounter", Counter.class);
+		Counter counter = applicationContext.getBean("counter", Counter.class);
+		pooledScope.release("counter", counter);
+
+		//作用域先于它依赖的单例bean销毁，作为单例bean不再重复销毁
+		applicationContext.close();
+		assertThat(counter.isDestroyed()).isTrue();
+		assertThat(pooledScope.getDestroyCount()).isEqualTo(1);
+		assertThat(pooledScope.isCounterDestroyedBeforeScope()).isFalse();
+		assertThat(sharedCounter.isDestroyed()).isTrue();
+	}
+
+	@Test
+	public void testCustomScope() throws Exception {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		BeanDefinition beanDefinition = new BeanDefinition(Counter.class);
+		beanDefinition.setScope("custom");
+		beanFactory.registerBeanDefinition("counter", beanDefinition);
+
+		assertThatThrownBy(() -> beanFactory.getBean("counter")).isInstanceOf(BeansException.class);
+
+		beanFactory.registerScope("custom", new SimpleThreadScope());
+		Object counter = beanFactory.getBean("counter");
+		assertThat(beanFactory.getBean("counter")).isSameAs(counter);
+
+		assertThatThrownBy(() -> beanFactory.registerScope(BeanDefinition.SCOPE_SINGLETON, new SimpleThreadScope()))
+				.isInstanceOf(BeansException.class);
+	}
+}